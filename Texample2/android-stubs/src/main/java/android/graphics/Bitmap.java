@@ -0,0 +1,77 @@
+package android.graphics;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Bitmap backed by a plain byte array. Only ALPHA_8 is stored with its real size.
+ */
+public class Bitmap {
+
+    public enum Config {
+        ALPHA_8(1),
+        ARGB_8888(4);
+
+        final int bytesPerPixel;
+
+        Config(int bytesPerPixel) {
+            this.bytesPerPixel = bytesPerPixel;
+        }
+    }
+
+    private final int width;
+    private final int height;
+    private final Config config;
+    private byte[] pixels;
+
+    private Bitmap(int width, int height, Config config) {
+        this.width = width;
+        this.height = height;
+        this.config = config;
+        this.pixels = new byte[width * height * config.bytesPerPixel];
+    }
+
+    public static Bitmap createBitmap(int width, int height, Config config) {
+        return new Bitmap(width, height, config);
+    }
+
+    public void eraseColor(int color) {
+        java.util.Arrays.fill(pixels, (byte) (color >>> 24));
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    public int getRowBytes() {
+        return width * config.bytesPerPixel;
+    }
+
+    public int getByteCount() {
+        return pixels.length;
+    }
+
+    public void copyPixelsToBuffer(Buffer dst) {
+        ((ByteBuffer) dst).put(pixels);
+    }
+
+    public void copyPixelsFromBuffer(Buffer src) {
+        ((ByteBuffer) src).get(pixels);
+    }
+
+    public void recycle() {
+        pixels = null;
+    }
+
+    public boolean isRecycled() {
+        return pixels == null;
+    }
+}
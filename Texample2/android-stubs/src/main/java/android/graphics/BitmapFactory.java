@@ -0,0 +1,14 @@
+package android.graphics;
+
+import android.content.res.Resources;
+
+public class BitmapFactory {
+
+    public static class Options {
+        public boolean inScaled;
+    }
+
+    public static Bitmap decodeResource(Resources res, int id, Options opts) {
+        throw new UnsupportedOperationException("decodeResource is not available outside of Android");
+    }
+}
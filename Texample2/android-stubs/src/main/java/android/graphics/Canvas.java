@@ -0,0 +1,16 @@
+package android.graphics;
+
+/**
+ * Canvas that draws nothing. Glyph rasterization cost is not part of what the stubs reproduce.
+ */
+public class Canvas {
+
+    public Canvas(Bitmap bitmap) {
+    }
+
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+    }
+
+    public void drawText(String text, float x, float y, Paint paint) {
+    }
+}
@@ -0,0 +1,85 @@
+package android.graphics;
+
+/**
+ * Paint with synthetic metrics. Widths vary per character, so layout code does the same work it does on a device.
+ */
+public class Paint {
+
+    private float textSize = 12.0f;
+    private Typeface typeface;
+    private int color;
+    private boolean antiAlias;
+
+    public static class FontMetrics {
+        public float top;
+        public float ascent;
+        public float descent;
+        public float bottom;
+        public float leading;
+    }
+
+    public Paint() {
+    }
+
+    public Paint(Paint paint) {
+        this.textSize = paint.textSize;
+        this.typeface = paint.typeface;
+        this.color = paint.color;
+        this.antiAlias = paint.antiAlias;
+    }
+
+    public void setAntiAlias(boolean antiAlias) {
+        this.antiAlias = antiAlias;
+    }
+
+    public void setTextSize(float textSize) {
+        this.textSize = textSize;
+    }
+
+    public float getTextSize() {
+        return textSize;
+    }
+
+    public void setColor(int color) {
+        this.color = color;
+    }
+
+    public void setTypeface(Typeface typeface) {
+        this.typeface = typeface;
+    }
+
+    public FontMetrics getFontMetrics() {
+        FontMetrics metrics = new FontMetrics();
+        metrics.top = -1.06f * textSize;
+        metrics.ascent = -0.93f * textSize;
+        metrics.descent = 0.24f * textSize;
+        metrics.bottom = 0.27f * textSize;
+        return metrics;
+    }
+
+    public int getTextWidths(char[] text, int index, int count, float[] widths) {
+        for (int i = 0; i < count; i++) {
+            widths[i] = widthOf(text[index + i]);
+        }
+        return count;
+    }
+
+    public int getTextWidths(String text, float[] widths) {
+        for (int i = 0; i < text.length(); i++) {
+            widths[i] = widthOf(text.charAt(i));
+        }
+        return text.length();
+    }
+
+    public float measureText(String text) {
+        float width = 0.0f;
+        for (int i = 0; i < text.length(); i++) {
+            width += widthOf(text.charAt(i));
+        }
+        return width;
+    }
+
+    private float widthOf(char character) {
+        return textSize * (0.25f + ((character * 37) % 40) / 100.0f);
+    }
+}
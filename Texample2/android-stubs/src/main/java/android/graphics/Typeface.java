@@ -0,0 +1,12 @@
+package android.graphics;
+
+import android.content.res.AssetManager;
+
+public class Typeface {
+
+    public static final Typeface DEFAULT = new Typeface();
+
+    public static Typeface createFromAsset(AssetManager assets, String path) {
+        return DEFAULT;
+    }
+}
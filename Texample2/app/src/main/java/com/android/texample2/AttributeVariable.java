@@ -4,7 +4,9 @@ package com.android.texample2;
 public enum AttributeVariable {
     POSITION("a_Position"),
     TEXTURE_COORDINATE("a_TexCoordinate"),
-    MVP_MATRIX("a_MVPMatrixIndex");
+    MVP_MATRIX("a_MVPMatrixIndex"),
+    COLOR("a_Color"),
+    GLYPH("a_Glyph");
 
     private String name;
 
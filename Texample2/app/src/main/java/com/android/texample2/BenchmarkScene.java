@@ -0,0 +1,313 @@
+package com.android.texample2;
+
+import android.content.Intent;
+import android.opengl.Matrix;
+
+import com.android.texample2.domain.Font;
+import com.android.texample2.domain.RenderStats;
+import com.android.texample2.gl.GL;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * A text rendering stress scene for comparing devices and builds: draws a configurable number of random strings for
+ * a fixed number of frames, and writes the frame time percentiles, draw calls and glyph throughput to a file.
+ * <p>
+ * Started with intent extras, e.g.:
+ * <pre>
+ * adb shell am start -n com.android.texample2/.Texample2 --ez benchmark true --ei glyphs 5000 --ei fonts 3 --ez rotate true
+ * adb pull /sdcard/Android/data/com.android.texample2/files/benchmark.txt
+ * </pre>
+ * If external storage is not writable the file goes to the internal files directory instead, the log says where.
+ * The scene is the same on every run: strings, colors and positions come from a fixed random seed, and the rotation
+ * advances by frame, not by time.
+ */
+class BenchmarkScene {
+
+    public static final String EXTRA_BENCHMARK = "benchmark";  // Boolean, Run the Benchmark Instead of the Demo
+    public static final String EXTRA_GLYPHS = "glyphs";        // Int, Glyphs Drawn per Frame
+    public static final String EXTRA_LENGTH = "length";        // Int, Characters per String
+    public static final String EXTRA_COLORS = "colors";        // Int, Colors (One Batch Each per Font)
+    public static final String EXTRA_FONTS = "fonts";          // Int, Font Sizes (One Atlas Each)
+    public static final String EXTRA_ROTATE = "rotate";        // Boolean, Rotate Every String a Little Each Frame
+    public static final String EXTRA_3D = "3d";                // Boolean, Spread the Strings in Depth Under a Perspective Projection
+    public static final String EXTRA_FRAMES = "frames";        // Int, Frames Measured
+    public static final String EXTRA_WARMUP = "warmup";        // Int, Frames Drawn Before Measuring, at Least 1
+    public static final String EXTRA_FINISH = "finish";        // Boolean, glFinish() Every Frame, so the CPU Time Includes the GPU
+    public static final String EXTRA_OUTPUT = "output";        // String, Name of the Results File
+
+    private static final long SEED = 1234567L;
+    private static final int MAX_FONTS = 16;
+    private static final float DEGREES_PER_FRAME = 1.5f;
+
+    /**
+     * the settings of a benchmark run
+     */
+    static class Parameters {
+
+        int glyphs = 2000;
+        int length = 16;
+        int colors = 1;
+        int fonts = 1;
+        boolean rotate;
+        boolean mode3d;
+        int frames = 600;
+        int warmup = 60;
+        boolean finish;
+        String output = "benchmark.txt";
+
+        /**
+         * @return the parameters given by the extras of the intent, or null if it does not ask for a benchmark
+         */
+        static Parameters fromIntent(Intent intent) {
+            if (intent == null || !intent.getBooleanExtra(EXTRA_BENCHMARK, false)) {
+                return null;
+            }
+            Parameters parameters = new Parameters();
+            parameters.glyphs = intent.getIntExtra(EXTRA_GLYPHS, parameters.glyphs);
+            parameters.length = intent.getIntExtra(EXTRA_LENGTH, parameters.length);
+            parameters.colors = intent.getIntExtra(EXTRA_COLORS, parameters.colors);
+            parameters.fonts = intent.getIntExtra(EXTRA_FONTS, parameters.fonts);
+            parameters.rotate = intent.getBooleanExtra(EXTRA_ROTATE, parameters.rotate);
+            parameters.mode3d = intent.getBooleanExtra(EXTRA_3D, parameters.mode3d);
+            parameters.frames = intent.getIntExtra(EXTRA_FRAMES, parameters.frames);
+            parameters.warmup = intent.getIntExtra(EXTRA_WARMUP, parameters.warmup);
+            parameters.finish = intent.getBooleanExtra(EXTRA_FINISH, parameters.finish);
+            String output = intent.getStringExtra(EXTRA_OUTPUT);
+            if (output != null) {
+                parameters.output = output;
+            }
+            parameters.validate();
+            return parameters;
+        }
+
+        void validate() {
+            if (glyphs < 1 || length < 1 || colors < 1 || fonts < 1 || fonts > MAX_FONTS || frames < 1 || warmup < 1) {
+                throw new IllegalArgumentException("Invalid benchmark: " + this);
+            }
+        }
+
+        /**
+         * @return the font size (pixels) of the font with the index
+         */
+        static int getFontSize(int font) {
+            return 16 + 8 * font;                              // 16 to 136 Pixels, Within the Atlas Cell Limit
+        }
+
+        @Override
+        public String toString() {
+            return "glyphs=" + glyphs + " length=" + length + " colors=" + colors + " fonts=" + fonts + " rotate=" + rotate
+                    + " 3d=" + mode3d + " frames=" + frames + " warmup=" + warmup + " finish=" + finish;
+        }
+    }
+
+    private final GL gl;
+    private final Parameters parameters;
+    private final Font[] fonts;
+    private final RenderStats stats;
+    private final RenderStats.Snapshot snapshot = new RenderStats.Snapshot();
+
+    // strings, sorted by group (font * colors + color), so each group is one begin()/end()
+    private final String[] texts;
+    private final float[] positions;                           // X, Y, Z, Angle of Each String
+    private final int[] groupStarts;                           // First String of Each Group, Plus the String Count
+    private final float[] groupColors;                         // R, G, B of Each Color
+
+    private final float[] projectionMatrix = new float[16];
+    private final float[] viewMatrix = new float[16];
+    private final float[] vpMatrix = new float[16];
+    private int width, height;
+
+    // measurements, warmup frames are not recorded
+    // NOTE: the first frame has no previous frame to measure its interval from, so there is always a warmup frame
+    private int frame;                                         // Frames Drawn, Including Warmup
+    private final long[] frameIntervals;                       // Time From the Start of the Previous Frame (Nanoseconds)
+    private final long[] cpuTimes;                             // Time From the Start to the End of Drawing (Nanoseconds)
+    private long lastFrameStart;
+    private long drawCalls, batches, glyphs, vertexBytes, uniformBytes;
+
+    /**
+     * @param gl    the GL the fonts draw with
+     * @param fonts the fonts to draw with, parameters.fonts of them sharing the stats, sized by Parameters.getFontSize()
+     */
+    BenchmarkScene(GL gl, Parameters parameters, Font[] fonts, RenderStats stats) {
+        this.gl = gl;
+        this.parameters = parameters;
+        this.fonts = fonts;
+        this.stats = stats;
+        frameIntervals = new long[parameters.frames];
+        cpuTimes = new long[parameters.frames];
+
+        int count = (parameters.glyphs + parameters.length - 1) / parameters.length;
+        int groups = parameters.fonts * parameters.colors;
+        texts = new String[count];
+        positions = new float[count * 4];
+        groupStarts = new int[groups + 1];
+        groupColors = new float[parameters.colors * 3];
+
+        Random random = new Random(SEED);
+        for (int color = 0; color < parameters.colors; color++) {
+            // NOTE: what is measured is the batching, every color is a begin()/end() of its own
+            groupColors[color * 3] = 0.5f + random.nextFloat() / 2.0f;
+            groupColors[color * 3 + 1] = 0.5f + random.nextFloat() / 2.0f;
+            groupColors[color * 3 + 2] = 0.5f + random.nextFloat() / 2.0f;
+        }
+        char[] characters = new char[parameters.length];
+        for (int i = 0; i < count; i++) {
+            int length = i < count - 1 ? parameters.length : parameters.glyphs - (count - 1) * parameters.length;
+            for (int c = 0; c < length; c++) {
+                characters[c] = (char) (Font.CHAR_START + 1 + random.nextInt(Font.CHAR_END - Font.CHAR_START));  // No Spaces
+            }
+            texts[i] = new String(characters, 0, length);
+            positions[i * 4] = random.nextFloat();             // Fractions of the Screen, Set on Surface Changes
+            positions[i * 4 + 1] = random.nextFloat();
+            positions[i * 4 + 2] = parameters.mode3d ? random.nextFloat() : 0.0f;
+            positions[i * 4 + 3] = random.nextFloat() * 360.0f;
+        }
+        // strings are dealt to the groups in turn, so every group gets the same share
+        for (int group = 0; group < groups; group++) {
+            groupStarts[group + 1] = groupStarts[group] + count / groups + (group < count % groups ? 1 : 0);
+        }
+    }
+
+    public void onSurfaceChanged(int width, int height) {
+        this.width = width;
+        this.height = height;
+        for (Font font : fonts) {
+            font.setViewport(width, height);
+        }
+        if (parameters.mode3d) {
+            // the plane z = 0 is shown at one unit per pixel, strings further away get smaller
+            float distance = height;
+            Matrix.frustumM(projectionMatrix, 0, -width / 2.0f / distance, width / 2.0f / distance,
+                    -height / 2.0f / distance, height / 2.0f / distance, 1.0f, distance * 4.0f);
+            Matrix.setLookAtM(viewMatrix, 0, 0.0f, 0.0f, distance, 0.0f, 0.0f, 0.0f, 0.0f, 1.0f, 0.0f);
+        } else {
+            Matrix.orthoM(projectionMatrix, 0, -width / 2.0f, width / 2.0f, -height / 2.0f, height / 2.0f, -1.0f, 1.0f);
+            Matrix.setIdentityM(viewMatrix, 0);
+        }
+        Matrix.multiplyMM(vpMatrix, 0, projectionMatrix, 0, viewMatrix, 0);
+    }
+
+    /**
+     * draw a frame and record its times and statistics
+     *
+     * @param frameStart the time (System.nanoTime()) at which the frame started
+     */
+    public void drawFrame(long frameStart) {
+        float rotation = parameters.rotate ? frame * DEGREES_PER_FRAME : 0.0f;
+        for (int font = 0; font < parameters.fonts; font++) {
+            for (int color = 0; color < parameters.colors; color++) {
+                int group = font * parameters.colors + color;
+                drawGroup(fonts[font], group, color, rotation);
+            }
+        }
+        if (parameters.finish) {
+            gl.glFinish();
+        }
+        long frameEnd = System.nanoTime();
+
+        stats.snapshot(snapshot);
+        stats.reset();
+        int sample = frame - parameters.warmup;
+        if (sample >= 0 && sample < parameters.frames) {
+            frameIntervals[sample] = frameStart - lastFrameStart;
+            cpuTimes[sample] = frameEnd - frameStart;
+            drawCalls += snapshot.getDrawCalls();
+            batches += snapshot.getBatches();
+            glyphs += snapshot.getGlyphs();
+            vertexBytes += snapshot.getVertexBytes();
+            uniformBytes += snapshot.getUniformBytes();
+        }
+        lastFrameStart = frameStart;
+        frame++;
+    }
+
+    private void drawGroup(Font font, int group, int color, float rotation) {
+        font.begin(groupColors[color * 3], groupColors[color * 3 + 1], groupColors[color * 3 + 2], 1.0f, vpMatrix);
+        float lineHeight = font.getScaledCharHeight();
+        for (int i = groupStarts[group]; i < groupStarts[group + 1]; i++) {
+            // keep the strings on screen, the culled ones would not measure anything
+            float x = (positions[i * 4] - 0.5f) * width * 0.8f;
+            float y = (positions[i * 4 + 1] - 0.5f) * (height - lineHeight);
+            if (parameters.mode3d) {
+                float z = -positions[i * 4 + 2] * height;
+                font.startDrawing(texts[i]).at(x, y, z).rotate(0.0f, rotation, 0.0f).centerXY().draw();
+            } else if (parameters.rotate) {
+                font.startDrawing(texts[i]).at(x, y).rotateZ(positions[i * 4 + 3] + rotation).centerXY().draw();
+            } else {
+                font.draw(texts[i], x, y);
+            }
+        }
+        font.end();
+    }
+
+    /**
+     * @return true once all frames were measured
+     */
+    public boolean isDone() {
+        return frame >= parameters.warmup + parameters.frames;
+    }
+
+    /**
+     * write the results, one "name=value" line each, so runs are easy to diff and parse
+     *
+     * @param device a description of the device and GPU the results were measured on
+     */
+    public void writeResults(File file, String device) throws IOException {
+        int samples = parameters.frames;
+        long[] sortedIntervals = Arrays.copyOf(frameIntervals, samples);
+        long[] sortedCpuTimes = Arrays.copyOf(cpuTimes, samples);
+        Arrays.sort(sortedIntervals);
+        Arrays.sort(sortedCpuTimes);
+        long totalNanos = 0;
+        for (long interval : frameIntervals) {
+            totalNanos += interval;
+        }
+
+        PrintWriter writer = new PrintWriter(new FileWriter(file));
+        try {
+            writer.println("device=" + device);
+            writer.println("surface=" + width + "x" + height);
+            writer.println("parameters=" + parameters);
+            writer.println("frame_ms_p50=" + millis(percentile(sortedIntervals, 50)));
+            writer.println("frame_ms_p90=" + millis(percentile(sortedIntervals, 90)));
+            writer.println("frame_ms_p99=" + millis(percentile(sortedIntervals, 99)));
+            writer.println("frame_ms_max=" + millis(sortedIntervals[samples - 1]));
+            writer.println("cpu_ms_p50=" + millis(percentile(sortedCpuTimes, 50)));
+            writer.println("cpu_ms_p90=" + millis(percentile(sortedCpuTimes, 90)));
+            writer.println("cpu_ms_p99=" + millis(percentile(sortedCpuTimes, 99)));
+            writer.println("cpu_ms_max=" + millis(sortedCpuTimes[samples - 1]));
+            writer.println("draw_calls_per_frame=" + perFrame(drawCalls));
+            writer.println("batches_per_frame=" + perFrame(batches));
+            writer.println("glyphs_per_frame=" + perFrame(glyphs));
+            writer.println("vertex_bytes_per_frame=" + perFrame(vertexBytes));
+            writer.println("uniform_bytes_per_frame=" + perFrame(uniformBytes));
+            writer.println("glyphs_per_second=" + (totalNanos > 0 ? Math.round(glyphs * 1e9 / totalNanos) : 0));
+        } finally {
+            writer.close();
+        }
+        if (writer.checkError()) {
+            throw new IOException("Failed to write " + file);
+        }
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (sorted.length * percentile + 99) / 100 - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.US, "%.3f", nanos / 1000000.0);
+    }
+
+    private String perFrame(long total) {
+        return String.format(Locale.US, "%.1f", (double) total / parameters.frames);
+    }
+}
@@ -0,0 +1,126 @@
+package com.android.texample2;
+
+import android.opengl.Matrix;
+
+import com.android.texample2.domain.Font;
+import com.android.texample2.domain.RenderStats;
+
+import java.util.Arrays;
+
+/**
+ * Draws the render statistics of the previous frame in the top-left corner of the screen.
+ * The overlay uses its own font, so drawing it does not show up in the statistics it reports.
+ * <p>
+ * Shown by default in debug builds, and in any build with e.g.:
+ * <pre>
+ * adb shell am start -n com.android.texample2/.Texample2 --ez stats true
+ * </pre>
+ */
+class StatsOverlay {
+
+    public static final String EXTRA_STATS = "stats";          // Boolean, Show the Overlay, Defaults to BuildConfig.DEBUG
+
+    private static final int FRAME_HISTORY = 120;              // Number of frames the percentiles are computed over
+
+    private final Font font;
+    private final RenderStats.Snapshot snapshot = new RenderStats.Snapshot();
+
+    private final long[] frameTimes = new long[FRAME_HISTORY]; // Ring buffer of frame intervals (nanoseconds)
+    private final long[] sortedFrameTimes = new long[FRAME_HISTORY];
+    private int frameCount;
+    private long lastFrameStart;
+
+    private float[] orthoMatrix = new float[16];
+    private int width;
+    private int height;
+
+    StatsOverlay(Font font) {
+        this.font = font;
+    }
+
+    public void onSurfaceChanged(int width, int height) {
+        this.width = width;
+        this.height = height;
+        Matrix.orthoM(orthoMatrix, 0, 0, width, 0, height, -1, 1);
+    }
+
+    /**
+     * record the time since the previous frame and take over the statistics of the frame that was just drawn.
+     * the statistics are reset so the next frame starts counting from zero.
+     *
+     * @param frameStart the time (System.nanoTime()) at which the current frame started
+     * @param stats      the statistics of the fonts drawn in the current frame
+     */
+    public void endFrame(long frameStart, RenderStats stats) {
+        if (lastFrameStart != 0) {
+            frameTimes[frameCount % FRAME_HISTORY] = frameStart - lastFrameStart;
+            frameCount++;
+        }
+        lastFrameStart = frameStart;
+
+        stats.snapshot(snapshot);
+        stats.reset();
+    }
+
+    public void draw() {
+        int samples = Math.min(frameCount, FRAME_HISTORY);
+        System.arraycopy(frameTimes, 0, sortedFrameTimes, 0, samples);
+        Arrays.sort(sortedFrameTimes, 0, samples);
+
+        float lineHeight = font.getScaledCharHeight();
+        float y = height - lineHeight;
+
+        font.begin(1.0f, 1.0f, 0.0f, 1.0f, orthoMatrix);
+        {
+            // NOTE: labels are constants and values are drawn as numbers, so the overlay does not allocate every frame
+            float x = label("frame p50 ", 0, y);
+            x = label(" p90 ", millis(percentile(samples, 50), x, y), y);
+            x = label(" p99 ", millis(percentile(samples, 90), x, y), y);
+            label(" ms", millis(percentile(samples, 99), x, y), y);
+            y -= lineHeight;
+            x = label("draw calls ", 0, y);
+            x = label(" batches ", number(snapshot.getDrawCalls(), x, y), y);
+            x = label(" flushes ", number(snapshot.getBatches(), x, y), y);
+            number(snapshot.getOverflowFlushes(), x, y);
+            y -= lineHeight;
+            x = label("glyphs ", 0, y);
+            x = label(" batching ", number(snapshot.getGlyphs(), x, y), y);
+            x = label(" ms quad area -", millis(snapshot.getBatchingNanos(), x, y), y);
+            label("%", number(Math.round(snapshot.getQuadAreaReduction() * 100.0f), x, y), y);
+            y -= lineHeight;
+            x = label("strings ", 0, y);
+            x = label(" culled ", number(snapshot.getDrawnStrings(), x, y), y);
+            x = label(" too small ", number(snapshot.getCulledStrings(), x, y), y);
+            number(snapshot.getSubPixelStrings(), x, y);
+            y -= lineHeight;
+            x = label("vertex ", 0, y);
+            x = label(" B uniform ", number(snapshot.getVertexBytes(), x, y), y);
+            label(" B", number(snapshot.getUniformBytes(), x, y), y);
+        }
+        font.end();
+    }
+
+    private long percentile(int samples, int percentile) {
+        if (samples == 0) {
+            return 0;
+        }
+        int index = (samples * percentile + 99) / 100 - 1;
+        return sortedFrameTimes[Math.max(0, index)];
+    }
+
+    /**
+     * @return the x position after the drawn text
+     */
+    private float label(String text, float x, float y) {
+        font.draw(text, x, y);
+        return x + font.getLength(text);
+    }
+
+    private float number(long value, float x, float y) {
+        return x + font.drawLong(value, x, y);
+    }
+
+    private float millis(long nanos, float x, float y) {
+        return x + font.drawFloat(nanos / 1000000.0f, 2, x, y);
+    }
+}
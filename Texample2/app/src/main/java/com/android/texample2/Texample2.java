@@ -4,14 +4,13 @@
 package com.android.texample2;
 
 import android.app.Activity;
-import android.opengl.GLSurfaceView;
 import android.os.Bundle;
 import android.view.Window;
 
 import static android.view.WindowManager.LayoutParams.FLAG_FULLSCREEN;
 
 public class Texample2 extends Activity {
-    private GLSurfaceView glView;
+    private Texample2SurfaceView glView;
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
@@ -21,6 +20,9 @@ public class Texample2 extends Activity {
         // Create a GLSurfaceView instance and set it
         // as the ContentView for this Activity.
         glView = new Texample2SurfaceView(this);
+        // e.g. adb shell am start -n com.android.texample2/.Texample2 --ez benchmark true, see BenchmarkScene
+        glView.getRenderer().setBenchmark(BenchmarkScene.Parameters.fromIntent(getIntent()));
+        glView.getRenderer().setShowStats(getIntent().getBooleanExtra(StatsOverlay.EXTRA_STATS, BuildConfig.DEBUG));
         setContentView(glView);
     }
 
@@ -28,13 +30,15 @@ public class Texample2 extends Activity {
     protected void onPause() {
         super.onPause();
         deallocateMemory();
+        if (isFinishing()) {
+            glView.dispose();
+        }
         glView.onPause();
     }
 
     private void deallocateMemory() {
-        // If your OpenGL application is memory intensive,
-        // you should consider de-allocating objects that
-        // consume significant memory here.
+        // NOTE: nothing to free: the EGL context is preserved on pause where supported, and otherwise the fonts
+        // keep their atlas pixels and metrics to restore their textures in onSurfaceCreated()
     }
 
     @Override
@@ -45,9 +49,16 @@ public class Texample2 extends Activity {
         glView.onResume();
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        glView.trimMemory(level);
+    }
+
     private void allocateMemory() {
-        // If you de-allocated graphic objects for onPause()
-        // this is a good place to re-allocate them.
+        // the GL objects are restored on the GL thread (if the context was lost), measure how long it takes until
+        // the first frame is drawn
+        glView.getRenderer().startResumeTimer();
     }
 }
 
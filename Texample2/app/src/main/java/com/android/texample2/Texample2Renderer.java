@@ -3,15 +3,25 @@ package com.android.texample2;
 import javax.microedition.khronos.egl.EGLConfig;
 import javax.microedition.khronos.opengles.GL10;
 
+import android.app.Activity;
 import android.content.Context;
 import android.opengl.GLSurfaceView;
 import android.opengl.Matrix;
+import android.os.Build;
+import android.util.Log;
 
 import com.android.texample2.domain.Font;
+import com.android.texample2.domain.FontRegistry;
+import com.android.texample2.gl.AndroidGL;
+import com.android.texample2.gl.GL;
+import com.android.texample2.gl.ResourceTrackingGL;
 import com.android.texample2.programs.BatchTextProgram;
 import com.android.texample2.programs.FontProgramAdapter;
 import com.android.texample2.programs.Program;
 
+import java.io.File;
+import java.io.IOException;
+
 import static android.opengl.GLES20.*;
 import static com.android.texample2.domain.FontBuilder.createFont;
 import static com.android.texample2.programs.FontProgramAdapter.createFontProgram;
@@ -19,8 +29,23 @@ import static com.android.texample2.programs.FontProgramAdapter.createFontProgra
 public class Texample2Renderer implements GLSurfaceView.Renderer {
 
     private static final String TAG = "TexampleRenderer";
+    private FontRegistry fonts;
     private Font font;
     private Context activityContext;
+    // NOTE: debug builds account for every texture, buffer and program, see logResources() and dispose()
+    private final ResourceTrackingGL resources = BuildConfig.DEBUG ? new ResourceTrackingGL(new AndroidGL()) : null;
+    private GL gl = resources != null ? resources : new AndroidGL();
+    private Program program;
+
+    private boolean showStats = false;                 // Draw the statistics overlay on top of each frame
+    private Font statsFont;
+    private StatsOverlay statsOverlay;
+
+    private BenchmarkScene.Parameters benchmarkParameters;  // Run the Benchmark Scene Instead of the Demo, null = Demo
+    private BenchmarkScene benchmark;
+    private Font[] benchmarkFonts;
+
+    private volatile long resumeStart;                 // Time (System.nanoTime()) of the last resume, 0 once its first frame was drawn
 
     private int width = 100;                           // Updated to the Current Width + Height in onSurfaceChanged()
     private int height = 100;
@@ -37,13 +62,41 @@ public class Texample2Renderer implements GLSurfaceView.Renderer {
         // Set the background frame color
         glClearColor(0.5f, 0.5f, 0.5f, 1.0f);
 
-        Program program = BatchTextProgram.createBatchTextProgram();
-        font = createFont()
-                .program(createFontProgram(program))
-                .assets(activityContext.getAssets())
-                .font("Roboto-Regular.ttf")
-                .size(60)
-                .build();
+        long start = System.nanoTime();
+        boolean restored = fonts != null;
+        if (restored && resources != null) {
+            resources.contextLost();
+        }
+        program = BatchTextProgram.createBatchTextProgram(gl);
+        if (restored) {
+            // the GL context was lost: upload the atlases the fonts kept, instead of loading the font files again
+            // NOTE: a TextBlockCache of a restored font drops its dead textures and renders its blocks again by itself
+            fonts.restore(createFontProgram(program));
+            if (statsFont != null) {
+                statsFont.restore(createFontProgram(program));
+            }
+        } else {
+            fonts = new FontRegistry(createFontProgram(program), activityContext.getAssets());
+            // NOTE: 3 atlas levels, the 3D text is much smaller on screen than the atlas; padded so they do not bleed
+            int padding = Font.getLodPadding(3);
+            font = fonts.acquire("Roboto-Regular.ttf", 60, padding, padding, 3);
+            if (benchmarkParameters != null) {
+                createBenchmark();
+            }
+        }
+
+        if (showStats && benchmarkParameters == null && statsFont == null) {
+            // NOTE: not from the registry, the overlay font must not share the counters of the fonts it reports on
+            statsFont = createFont()
+                    .program(createFontProgram(program))
+                    .assets(activityContext.getAssets())
+                    .font("Roboto-Regular.ttf")
+                    .size(20)
+                    .build();
+            statsOverlay = new StatsOverlay(statsFont);
+        }
+        Log.i(TAG, (restored ? "Restored" : "Loaded") + " fonts in " + (System.nanoTime() - start) / 1000000.0f + " ms");
+        logResources();
 
         // enable texture + alpha blending
         glEnable(GL_BLEND);
@@ -51,7 +104,22 @@ public class Texample2Renderer implements GLSurfaceView.Renderer {
     }
 
     public void onDrawFrame(GL10 unused) {
+        long frameStart = System.nanoTime();
+        if (resumeStart != 0) {
+            Log.i(TAG, "First frame " + (frameStart - resumeStart) / 1000000.0f + " ms after resume");
+            resumeStart = 0;
+        }
         glClear(GL_COLOR_BUFFER_BIT);
+        if (fonts == null) {
+            return;                                    // Disposed, a Frame May Still Come Before the Pause
+        }
+
+        if (benchmarkParameters != null) {
+            if (benchmark != null) {
+                drawBenchmarkFrame(frameStart);    // Only Cleared Once Done, Until the Activity Finishes
+            }
+            return;
+        }
 
         Matrix.multiplyMM(mVPMatrix, 0, mProjMatrix, 0, mVMatrix, 0);
 
@@ -72,6 +140,140 @@ public class Texample2Renderer implements GLSurfaceView.Renderer {
             font.startDrawing("The End.").at(50.0f, 200.0f).rotateZ(180.0f).draw();
         }
         font.end();
+
+        if (statsOverlay != null) {
+            statsOverlay.endFrame(frameStart, font.getStats());
+            statsOverlay.draw();
+        }
+    }
+
+    private void createBenchmark() {
+        benchmarkFonts = new Font[benchmarkParameters.fonts];
+        for (int i = 0; i < benchmarkFonts.length; i++) {
+            benchmarkFonts[i] = fonts.acquire("Roboto-Regular.ttf", BenchmarkScene.Parameters.getFontSize(i));
+        }
+        benchmark = new BenchmarkScene(gl, benchmarkParameters, benchmarkFonts, fonts.getStats());
+        Log.i(TAG, "Benchmark: " + benchmarkParameters);
+    }
+
+    /**
+     * draw a frame of the benchmark, and once it is done write the results and close the activity
+     * NOTE: the statistics overlay is not drawn, it would be measured too
+     */
+    private void drawBenchmarkFrame(long frameStart) {
+        benchmark.drawFrame(frameStart);
+        if (!benchmark.isDone()) {
+            return;
+        }
+        String device = Build.MODEL + " (API " + Build.VERSION.SDK_INT + "), " + glGetString(GL_RENDERER) + ", " + glGetString(GL_VERSION);
+        // NOTE: external storage can be missing, unmounted or not writable (the permission is only declared up to
+        // API 18), the internal files directory is always there
+        File directory = activityContext.getExternalFilesDir(null);
+        if (directory == null || !writeBenchmarkResults(new File(directory, benchmarkParameters.output), device)) {
+            writeBenchmarkResults(new File(activityContext.getFilesDir(), benchmarkParameters.output), device);
+        }
+        benchmark = null;
+        if (activityContext instanceof Activity) {
+            final Activity activity = (Activity) activityContext;
+            activity.runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    activity.finish();
+                }
+            });
+        }
+    }
+
+    /**
+     * @return false if the file could not be written
+     */
+    private boolean writeBenchmarkResults(File file, String device) {
+        try {
+            benchmark.writeResults(file, device);
+            Log.i(TAG, "Benchmark results written to " + file);
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write the benchmark results to " + file, e);
+            return false;
+        }
+    }
+
+    /**
+     * run the benchmark scene instead of the demo, see {@link BenchmarkScene}. must be called before the surface is
+     * created.
+     *
+     * @param parameters the benchmark to run, or null for the demo
+     */
+    public void setBenchmark(BenchmarkScene.Parameters parameters) {
+        this.benchmarkParameters = parameters;
+    }
+
+    /**
+     * show the render statistics overlay. takes effect the next time the surface is created.
+     */
+    public void setShowStats(boolean showStats) {
+        this.showStats = showStats;
+    }
+
+    /**
+     * measure the time from now until the next frame is drawn, i.e. the resume latency
+     * NOTE: may be called from any thread
+     */
+    public void startResumeTimer() {
+        resumeStart = System.nanoTime();
+    }
+
+    /**
+     * free the fonts nobody uses when memory runs low
+     * NOTE: must be called on the GL thread
+     *
+     * @param level the level passed to ComponentCallbacks2.onTrimMemory()
+     */
+    public void trimMemory(int level) {
+        if (fonts != null) {
+            fonts.trimMemory(level);
+        }
+        logResources();
+    }
+
+    /**
+     * delete the fonts and the program when the activity finishes, debug builds then report every GL object that is
+     * still alive as a leak
+     * NOTE: must be called on the GL thread, while the context is current
+     */
+    public void dispose() {
+        if (fonts != null) {
+            fonts.release(font);
+            if (benchmarkFonts != null) {
+                for (Font benchmarkFont : benchmarkFonts) {
+                    fonts.release(benchmarkFont);
+                }
+                benchmarkFonts = null;
+            }
+            fonts.releaseUnused();
+            fonts = null;
+        }
+        if (statsFont != null) {
+            statsFont.dispose();
+            statsFont = null;
+            statsOverlay = null;
+        }
+        if (program != null) {
+            program.delete();
+            program = null;
+        }
+        if (resources != null) {
+            Log.d(TAG, "Leaked GL objects: " + resources.reportLeaks());
+        }
+    }
+
+    private void logResources() {
+        if (resources != null) {
+            Log.d(TAG, "GPU memory: " + resources.getTotalBytes() + " bytes (peak " + resources.getPeakBytes() + ") in "
+                    + resources.getCount(ResourceTrackingGL.Type.TEXTURE) + " textures, "
+                    + resources.getCount(ResourceTrackingGL.Type.BUFFER) + " buffers, "
+                    + resources.getCount(ResourceTrackingGL.Type.PROGRAM) + " programs");
+        }
     }
 
     public void onSurfaceChanged(GL10 unused, int width, int height) {
@@ -87,6 +289,14 @@ public class Texample2Renderer implements GLSurfaceView.Renderer {
 
         this.width = width;
         this.height = height;
+        font.setViewport(width, height);
+
+        if (statsOverlay != null) {
+            statsOverlay.onSurfaceChanged(width, height);
+        }
+        if (benchmark != null) {
+            benchmark.onSurfaceChanged(width, height);
+        }
 
         int useForOrtho = Math.min(width, height);
 
@@ -2,14 +2,52 @@ package com.android.texample2;
 
 import android.content.Context;
 import android.opengl.GLSurfaceView;
+import android.os.Build;
 
 class Texample2SurfaceView extends GLSurfaceView {
 
+    private final Texample2Renderer renderer;
+
     public Texample2SurfaceView(Context context) {
         super(context);
 
         setEGLContextClientVersion(2);
+        // keep the fonts and programs on pause where the device supports it (API 11+); when the context is lost
+        // anyway, the renderer restores the fonts from the pixels they kept
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+            setPreserveEGLContextOnPause(true);
+        }
+
+        renderer = new Texample2Renderer(context);
+        setRenderer(renderer);
+    }
+
+    public Texample2Renderer getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * forward ComponentCallbacks2.onTrimMemory() to the renderer, on the GL thread
+     */
+    public void trimMemory(final int level) {
+        queueEvent(new Runnable() {
+            @Override
+            public void run() {
+                renderer.trimMemory(level);
+            }
+        });
+    }
 
-        setRenderer(new Texample2Renderer(context));
+    /**
+     * delete the GL objects of the renderer on the GL thread, call it before onPause() when the activity finishes:
+     * events queued before the pause still run with the context current
+     */
+    public void dispose() {
+        queueEvent(new Runnable() {
+            @Override
+            public void run() {
+                renderer.dispose();
+            }
+        });
     }
 }
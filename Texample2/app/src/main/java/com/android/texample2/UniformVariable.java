@@ -5,7 +5,17 @@ public enum UniformVariable {
 
     COLOR("u_Color"),
     TEXTURE("u_Texture"),
-    MVP_MATRIX("u_MVPMatrix");
+    MVP_MATRIX("u_MVPMatrix"),
+    VERTEX_SCALE("u_VertexScale"),
+    OUTLINE_COLOR("u_OutlineColor"),
+    OUTLINE_WIDTH("u_OutlineWidth"),
+    SHADOW_COLOR("u_ShadowColor"),
+    SHADOW_OFFSET("u_ShadowOffset"),
+    PREMULTIPLIED("u_Premultiplied"),
+    TIME("u_Time"),
+    REVEAL("u_Reveal"),
+    WAVE("u_Wave"),
+    JITTER("u_Jitter");
 
     private String name;
 
@@ -0,0 +1,311 @@
+package com.android.texample2.domain;
+
+import android.opengl.Matrix;
+
+import com.android.texample2.gl.GL;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+import static com.android.texample2.gl.GL.*;
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.ByteOrder.nativeOrder;
+
+/**
+ * Strings with per-glyph animations evaluated by the vertex shader: typewriter reveal, fade-in, a wave and jitter.
+ * Every glyph quad is laid out and uploaded once, when its string is added, together with the index of the glyph in
+ * its string and the start time of the string. Animating is then only a time uniform per frame, the vertex buffer is
+ * never touched again, and all strings are drawn with a single draw call.
+ * <p>
+ * Usage:
+ * <pre>
+ * AnimationProgram animationProgram = createAnimationProgram(createAnimatedTextProgram(gl));
+ * AnimatedText text = new AnimatedText(font, animationProgram, 1024);
+ * text.setTypewriter(0.05f);
+ * text.setFadeIn(0.2f);
+ * text.add("Incoming transmission", 10, 100, seconds);
+ * ...
+ * text.draw(seconds, 1.0f, 1.0f, 1.0f, 1.0f, orthoMatrix);
+ * </pre>
+ * NOTE: must be used on the GL thread, and not between Font.begin() and Font.end(). Times are in seconds on a clock
+ * of your choice, keep it small (e.g. seconds since the scene started) since the shader computes in float. The buffers
+ * belong to the GL context, create a new instance after it was lost.
+ */
+public class AnimatedText {
+
+    private static final int VERTICES_PER_GLYPH = 4;
+    private static final int INDICES_PER_GLYPH = 6;
+    private static final int LAYOUT_FLOATS = 5;                // X, Y, U, V, MVP Matrix Index (Font.layoutGlyphs())
+    private static final int FLOATS_PER_VERTEX = 6;            // X, Y, U, V, Glyph Index, Start Time
+    private static final int VERTEX_SIZE = FLOATS_PER_VERTEX * 4;
+    private static final int GLYPH_SIZE = VERTICES_PER_GLYPH * VERTEX_SIZE;
+    private static final int MAX_GLYPHS = 65536 / VERTICES_PER_GLYPH;  // Vertices Must Fit Short Indices
+
+    private final Font font;
+    private final AnimationProgram program;
+    private final GL gl;
+    private final RenderStats stats;
+    private final int maxGlyphs;
+    private final int[] names = new int[2];
+    private int vertexBuffer, indexBuffer;
+    private int glyphs;                                        // Quads in the Vertex Buffer
+
+    // animation, the same for every string
+    private float glyphDelay;                                  // Seconds Between the Reveal of Two Glyphs
+    private float fadeDuration;                                // Seconds a Glyph Fades In After its Reveal
+    private float waveAmplitude, glyphsPerWave = 1.0f, wavesPerSecond;
+    private float jitterAmplitude, jitterRate;
+
+    private float[] layout = new float[64 * VERTICES_PER_GLYPH * LAYOUT_FLOATS];
+    private int[] characterIndices = new int[64];
+    private FloatBuffer upload = allocateDirect(64 * GLYPH_SIZE).order(nativeOrder()).asFloatBuffer();
+    private final float[] translatedMatrix = new float[16];
+    private final float[] mvpMatrix = new float[16];
+    private final float[] color = new float[4];
+    private final float[] animation = new float[7];
+
+    /**
+     * @param maxGlyphs the number of glyph quads the vertex buffer holds (at most 16384)
+     */
+    public AnimatedText(Font font, AnimationProgram program, int maxGlyphs) {
+        if (maxGlyphs < 1 || maxGlyphs > MAX_GLYPHS) {
+            throw new IllegalArgumentException("Invalid size: " + maxGlyphs + " glyphs");
+        }
+        this.font = font;
+        this.program = program;
+        this.gl = program.getGL();
+        this.stats = font.getStats();
+        this.maxGlyphs = maxGlyphs;
+
+        gl.glGenBuffers(2, names, 0);
+        vertexBuffer = names[0];
+        indexBuffer = names[1];
+
+        gl.glBindBuffer(GL_ARRAY_BUFFER, vertexBuffer);
+        gl.glBufferData(GL_ARRAY_BUFFER, maxGlyphs * GLYPH_SIZE, null, GL_STATIC_DRAW);  // Written Once per Glyph
+        gl.glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+        // the indices never change, the same quad pattern as SpriteBatch
+        ShortBuffer indices = allocateDirect(maxGlyphs * INDICES_PER_GLYPH * 2).order(nativeOrder()).asShortBuffer();
+        for (int glyph = 0; glyph < maxGlyphs; glyph++) {
+            short vertex = (short) (glyph * VERTICES_PER_GLYPH);
+            indices.put(vertex).put((short) (vertex + 1)).put((short) (vertex + 2))
+                    .put((short) (vertex + 2)).put((short) (vertex + 3)).put(vertex);
+        }
+        indices.flip();
+        gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexBuffer);
+        gl.glBufferData(GL_ELEMENT_ARRAY_BUFFER, maxGlyphs * INDICES_PER_GLYPH * 2, indices, GL_STATIC_DRAW);
+        gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * reveal glyphs one after the other from the start time of their string
+     *
+     * @param secondsPerGlyph the delay between two glyphs, 0 to show the whole string at once
+     */
+    public void setTypewriter(float secondsPerGlyph) {
+        if (secondsPerGlyph < 0.0f) {
+            throw new IllegalArgumentException("Invalid typewriter delay: " + secondsPerGlyph);
+        }
+        glyphDelay = secondsPerGlyph;
+    }
+
+    /**
+     * @param seconds the time a glyph takes to fade in after it is revealed, 0 to show it at once
+     */
+    public void setFadeIn(float seconds) {
+        if (seconds < 0.0f) {
+            throw new IllegalArgumentException("Invalid fade duration: " + seconds);
+        }
+        fadeDuration = seconds;
+    }
+
+    /**
+     * move glyphs up and down along a sine wave travelling through the string
+     *
+     * @param amplitude     the height of the wave (units), 0 for no wave
+     * @param glyphsPerWave the length of the wave (glyphs)
+     * @param speed         the waves per second passing each glyph
+     */
+    public void setWave(float amplitude, float glyphsPerWave, float speed) {
+        if (glyphsPerWave <= 0.0f) {
+            throw new IllegalArgumentException("Invalid wave length: " + glyphsPerWave);
+        }
+        waveAmplitude = amplitude;
+        this.glyphsPerWave = glyphsPerWave;
+        wavesPerSecond = speed;
+    }
+
+    /**
+     * shake every glyph to a random offset a number of times per second
+     *
+     * @param amplitude the largest offset (units), 0 for no jitter
+     * @param rate      the new offsets per second
+     */
+    public void setJitter(float amplitude, float rate) {
+        jitterAmplitude = amplitude;
+        jitterRate = rate;
+    }
+
+    /**
+     * lay out the string and upload its glyph quads, glyphs that do not fit in the vertex buffer are dropped
+     *
+     * @param x         the x-position of the text (bottom left of text; including descent)
+     * @param y         the y-position of the text (bottom left of text; including descent)
+     * @param startTime the time the animation of the string starts (seconds, on the clock passed to draw())
+     * @return the number of glyph quads added
+     */
+    public int add(CharSequence text, float x, float y, float startTime) {
+        int length = Math.min(text.length(), maxGlyphs - glyphs);
+        if (length <= 0) {
+            return 0;
+        }
+        if (characterIndices.length < length) {
+            layout = new float[length * VERTICES_PER_GLYPH * LAYOUT_FLOATS];
+            characterIndices = new int[length];
+            upload = allocateDirect(length * GLYPH_SIZE).order(nativeOrder()).asFloatBuffer();
+        }
+        CharSequence fitting = length < text.length() ? text.subSequence(0, length) : text;
+        int quads = font.layoutGlyphs(fitting, x, y, layout, 0, characterIndices);
+        if (quads == 0) {
+            return 0;
+        }
+
+        // add the glyph attributes, the index counts every character so spaces take their turn in the typewriter
+        upload.clear();
+        for (int quad = 0; quad < quads; quad++) {
+            float glyph = characterIndices[quad];
+            for (int vertex = 0; vertex < VERTICES_PER_GLYPH; vertex++) {
+                upload.put(layout, (quad * VERTICES_PER_GLYPH + vertex) * LAYOUT_FLOATS, 4).put(glyph).put(startTime);
+            }
+        }
+        upload.flip();
+        gl.glBindBuffer(GL_ARRAY_BUFFER, vertexBuffer);
+        gl.glBufferSubData(GL_ARRAY_BUFFER, glyphs * GLYPH_SIZE, quads * GLYPH_SIZE, upload);
+        gl.glBindBuffer(GL_ARRAY_BUFFER, 0);
+        stats.recordVertexBytes(quads * GLYPH_SIZE);
+        glyphs += quads;
+        return quads;
+    }
+
+    /**
+     * remove all strings, the vertex buffer is reused by the next add()
+     */
+    public void clear() {
+        glyphs = 0;
+    }
+
+    /**
+     * @return the number of glyph quads added since the last clear()
+     */
+    public int getGlyphCount() {
+        return glyphs;
+    }
+
+    public void draw(float time, float[] vpMatrix) {
+        draw(time, 1.0f, 1.0f, 1.0f, 1.0f, vpMatrix);
+    }
+
+    /**
+     * draw all strings as they are at the time
+     *
+     * @param time the current time (seconds, on the clock of the start times)
+     */
+    public void draw(float time, float red, float green, float blue, float alpha, float[] vpMatrix) {
+        draw(time, 0.0f, 0.0f, red, green, blue, alpha, vpMatrix);
+    }
+
+    /**
+     * draw all strings as they are at the time, moved by x and y
+     */
+    public void draw(float time, float x, float y, float red, float green, float blue, float alpha, float[] vpMatrix) {
+        if (glyphs == 0) {
+            return;
+        }
+        gl.glUseProgram(program.getProgramHandle());
+        gl.glActiveTexture(GL_TEXTURE0);
+        gl.glBindTexture(GL_TEXTURE_2D, font.getTextureId());
+
+        // NOTE: only the uniforms that differ from the values the program has are uploaded, usually only the time
+        boolean all = !program.uniformsUploaded;
+        if (all) {
+            gl.glUniform1i(program.getTextureUniformHandle(), 0);
+            stats.recordUniformBytes(4);
+            program.uniformsUploaded = true;
+        }
+        color[0] = red;
+        color[1] = green;
+        color[2] = blue;
+        color[3] = alpha;
+        if (update(program.uploadedColor, color) || all) {
+            gl.glUniform4fv(program.getColorHandle(), 1, color, 0);
+            stats.recordUniformBytes(4 * 4);
+        }
+
+        Matrix.setIdentityM(translatedMatrix, 0);
+        Matrix.translateM(translatedMatrix, 0, x, y, 0.0f);
+        Matrix.multiplyMM(mvpMatrix, 0, vpMatrix, 0, translatedMatrix, 0);
+        if (update(program.uploadedMvpMatrix, mvpMatrix) || all) {
+            gl.glUniformMatrix4fv(program.getMvpMatrixHandle(), 1, false, mvpMatrix, 0);
+            stats.recordUniformBytes(16 * 4);
+        }
+
+        animation[0] = glyphDelay;
+        animation[1] = fadeDuration;
+        animation[2] = waveAmplitude;
+        animation[3] = glyphsPerWave;
+        animation[4] = wavesPerSecond;
+        animation[5] = jitterAmplitude;
+        animation[6] = jitterRate;
+        if (update(program.uploadedAnimation, animation) || all) {
+            gl.glUniform2f(program.getRevealHandle(), glyphDelay, fadeDuration);
+            gl.glUniform3f(program.getWaveHandle(), waveAmplitude, glyphsPerWave, wavesPerSecond);
+            gl.glUniform2f(program.getJitterHandle(), jitterAmplitude, jitterRate);
+            stats.recordUniformBytes(2 * 4 + 3 * 4 + 2 * 4);
+        }
+        gl.glUniform1f(program.getTimeHandle(), time);         // The Only Value That Changes While the Strings Animate
+        stats.recordUniformBytes(4);
+
+        gl.glBindBuffer(GL_ARRAY_BUFFER, vertexBuffer);
+        gl.glVertexAttribPointer(program.getPositionHandle(), 2, GL_FLOAT, false, VERTEX_SIZE, 0);
+        gl.glEnableVertexAttribArray(program.getPositionHandle());
+        gl.glVertexAttribPointer(program.getTextureCoordinateHandle(), 2, GL_FLOAT, false, VERTEX_SIZE, 2 * 4);
+        gl.glEnableVertexAttribArray(program.getTextureCoordinateHandle());
+        gl.glVertexAttribPointer(program.getGlyphHandle(), 2, GL_FLOAT, false, VERTEX_SIZE, 4 * 4);
+        gl.glEnableVertexAttribArray(program.getGlyphHandle());
+
+        gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexBuffer);
+        gl.glDrawElements(GL_TRIANGLES, glyphs * INDICES_PER_GLYPH, GL_UNSIGNED_SHORT, 0);
+        stats.recordDrawCall();
+        stats.recordBatch();
+        stats.recordGlyphs(glyphs);
+
+        // SpriteBatch draws from client-side arrays, which only works with no buffers bound
+        gl.glBindBuffer(GL_ARRAY_BUFFER, 0);
+        gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * @return true if the values differ from the uploaded ones, which are then replaced by them
+     */
+    private static boolean update(float[] uploaded, float[] values) {
+        if (Arrays.equals(uploaded, values)) {
+            return false;
+        }
+        System.arraycopy(values, 0, uploaded, 0, values.length);
+        return true;
+    }
+
+    /**
+     * delete the vertex and index buffers, the text can not be used afterwards
+     * NOTE: the program is not deleted, it is usually shared
+     */
+    public void dispose() {
+        names[0] = vertexBuffer;
+        names[1] = indexBuffer;
+        gl.glDeleteBuffers(2, names, 0);
+        vertexBuffer = 0;
+        indexBuffer = 0;
+    }
+}
@@ -0,0 +1,96 @@
+package com.android.texample2.domain;
+
+
+import com.android.texample2.AttributeVariable;
+import com.android.texample2.UniformVariable;
+import com.android.texample2.gl.GL;
+
+/**
+ * The handles of the animated text program, which draws {@link AnimatedText} with per-glyph animations on the GPU.
+ */
+public class AnimationProgram {
+
+    private final GL gl;
+    private final int programHandle;
+    // NOTE: looked up once, glGetUniformLocation() is too slow to call on every draw
+    private final int textureUniformHandle;
+    private final int colorHandle;
+    private final int mvpMatrixHandle;
+    private final int timeHandle;
+    private final int revealHandle;
+    private final int waveHandle;
+    private final int jitterHandle;
+    private final int positionHandle;
+    private final int textureCoordinateHandle;
+    private final int glyphHandle;
+
+    // the uniform values last uploaded: uniforms are state of the program, shared by every AnimatedText drawing with
+    // it, so a draw that changes nothing but the time uploads only the time (see AnimatedText.draw())
+    boolean uniformsUploaded;                                  // False Until the First Draw
+    final float[] uploadedColor = new float[4];
+    final float[] uploadedMvpMatrix = new float[16];
+    final float[] uploadedAnimation = new float[7];            // Reveal (2), Wave (3), Jitter (2)
+
+    public AnimationProgram(GL gl, int programHandle) {
+        this.gl = gl;
+        this.programHandle = programHandle;
+        textureUniformHandle = gl.glGetUniformLocation(programHandle, UniformVariable.TEXTURE.getName());
+        colorHandle = gl.glGetUniformLocation(programHandle, UniformVariable.COLOR.getName());
+        mvpMatrixHandle = gl.glGetUniformLocation(programHandle, UniformVariable.MVP_MATRIX.getName());
+        timeHandle = gl.glGetUniformLocation(programHandle, UniformVariable.TIME.getName());
+        revealHandle = gl.glGetUniformLocation(programHandle, UniformVariable.REVEAL.getName());
+        waveHandle = gl.glGetUniformLocation(programHandle, UniformVariable.WAVE.getName());
+        jitterHandle = gl.glGetUniformLocation(programHandle, UniformVariable.JITTER.getName());
+        positionHandle = gl.glGetAttribLocation(programHandle, AttributeVariable.POSITION.getName());
+        textureCoordinateHandle = gl.glGetAttribLocation(programHandle, AttributeVariable.TEXTURE_COORDINATE.getName());
+        glyphHandle = gl.glGetAttribLocation(programHandle, AttributeVariable.GLYPH.getName());
+    }
+
+    public GL getGL() {
+        return gl;
+    }
+
+    public int getProgramHandle() {
+        return programHandle;
+    }
+
+    public int getTextureUniformHandle() {
+        return textureUniformHandle;
+    }
+
+    public int getColorHandle() {
+        return colorHandle;
+    }
+
+    public int getMvpMatrixHandle() {
+        return mvpMatrixHandle;
+    }
+
+    public int getTimeHandle() {
+        return timeHandle;
+    }
+
+    public int getRevealHandle() {
+        return revealHandle;
+    }
+
+    public int getWaveHandle() {
+        return waveHandle;
+    }
+
+    public int getJitterHandle() {
+        return jitterHandle;
+    }
+
+    public int getPositionHandle() {
+        return positionHandle;
+    }
+
+    public int getTextureCoordinateHandle() {
+        return textureCoordinateHandle;
+    }
+
+    public int getGlyphHandle() {
+        return glyphHandle;
+    }
+}
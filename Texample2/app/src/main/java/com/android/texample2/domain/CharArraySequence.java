@@ -0,0 +1,41 @@
+package com.android.texample2.domain;
+
+/**
+ * Reusable CharSequence view of a range of a char array, so char[] text can go through the CharSequence drawing path without copying.
+ */
+class CharArraySequence implements CharSequence {
+
+    private char[] text;
+    private int offset;
+    private int length;
+
+    CharArraySequence set(char[] text, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > text.length) {
+            throw new IndexOutOfBoundsException("Invalid range: [offset: " + offset + ", length: " + length + "], array length: " + text.length);
+        }
+        this.text = text;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return text[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new String(text, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(text, offset, length);
+    }
+}
@@ -0,0 +1,338 @@
+package com.android.texample2.domain;
+
+import android.opengl.Matrix;
+
+import com.android.texample2.gl.GL;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+import static com.android.texample2.gl.GL.*;
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.ByteOrder.nativeOrder;
+
+/**
+ * A fixed grid of character cells, e.g. a terminal or a monospace dashboard, where each cell has its own quad in a
+ * vertex buffer.
+ * The positions of the quads never change. Setting a character or color only patches the texture coordinates and
+ * color of that cell, and the patched cells of a frame are uploaded in a few glBufferSubData() calls, merging
+ * nearby changes. The whole grid is drawn with a single draw call.
+ * <p>
+ * Usage:
+ * <pre>
+ * GridProgram gridProgram = createGridProgram(createGridTextProgram(gl));
+ * CharacterGrid grid = new CharacterGrid(font, gridProgram, 200, 60);
+ * grid.write(0, 0, "CPU", Color.GREEN);
+ * ...
+ * grid.draw(0, screenHeight, orthoMatrix);  // every frame, uploads only the cells changed since the last draw
+ * </pre>
+ * NOTE: must be used on the GL thread, and not between Font.begin() and Font.end(). Columns are as wide as the widest
+ * character of the font, so use a monospace font. The buffers belong to the GL context, create a new grid after it
+ * was lost.
+ */
+public class CharacterGrid {
+
+    private static final int VERTICES_PER_CELL = 4;
+    private static final int INDICES_PER_CELL = 6;
+    private static final int POSITION_SIZE = 2 * 4;            // X, Y (Float)
+    private static final int ATTRIBUTE_SIZE = 2 * 2 + 4;       // U, V (Normalized Unsigned Short), R, G, B, A (Normalized Unsigned Byte)
+    private static final int CELL_SIZE = VERTICES_PER_CELL * ATTRIBUTE_SIZE;
+    private static final int MAX_CELLS = 65536 / VERTICES_PER_CELL;  // Vertices Must Fit Short Indices
+    // NOTE: uploading a few unchanged cells costs less than another glBufferSubData() call
+    private static final int MERGE_GAP = 32;                   // Most Clean Cells (1 KiB) Uploaded to Merge Two Dirty Ranges
+
+    private final Font font;
+    private final GridProgram program;
+    private final GL gl;
+    private final RenderStats stats;
+    private final int columns, rows;
+    private final float columnWidth, rowHeight;
+
+    private final char[] characters;
+    private final int[] colors;                                // ARGB (android.graphics.Color)
+    private final ByteBuffer attributes;                       // Copy of the Texture Coordinate and Color Buffer
+    private final int[] rowDirtyStarts;                        // First Dirty Column of Each Row, columns = Clean
+    private final int[] rowDirtyEnds;                          // Column After the Last Dirty Column of Each Row
+    private boolean dirty;
+    private int uploads;
+
+    private final int[] names = new int[3];
+    private int positionBuffer, attributeBuffer, indexBuffer;
+    private final float[] bounds = new float[4];
+    private final float[] translatedMatrix = new float[16];
+    private final float[] mvpMatrix = new float[16];
+
+    /**
+     * create a grid of spaces in white
+     *
+     * @param columns the number of characters per row
+     * @param rows    the number of rows, columns * rows at most 16384
+     */
+    public CharacterGrid(Font font, GridProgram program, int columns, int rows) {
+        if (columns < 1 || rows < 1 || columns * rows > MAX_CELLS) {
+            throw new IllegalArgumentException("Invalid grid size: " + columns + "x" + rows);
+        }
+        this.font = font;
+        this.program = program;
+        this.gl = program.getGL();
+        this.stats = font.getStats();
+        this.columns = columns;
+        this.rows = rows;
+        this.columnWidth = font.getScaledCharWidthMax();
+        this.rowHeight = font.getScaledCharHeight();
+
+        int cells = columns * rows;
+        characters = new char[cells];
+        colors = new int[cells];
+        attributes = allocateDirect(cells * CELL_SIZE).order(nativeOrder());
+        rowDirtyStarts = new int[rows];
+        rowDirtyEnds = new int[rows];
+        for (int cell = 0; cell < cells; cell++) {
+            characters[cell] = ' ';
+            colors[cell] = 0xFFFFFFFF;
+            putCell(cell);
+        }
+        attributes.clear();
+
+        gl.glGenBuffers(3, names, 0);
+        positionBuffer = names[0];
+        attributeBuffer = names[1];
+        indexBuffer = names[2];
+        createPositions(cells);
+        createIndices(cells);
+        gl.glBindBuffer(GL_ARRAY_BUFFER, attributeBuffer);
+        gl.glBufferData(GL_ARRAY_BUFFER, cells * CELL_SIZE, attributes, GL_DYNAMIC_DRAW);
+        gl.glBindBuffer(GL_ARRAY_BUFFER, 0);
+        markClean();
+    }
+
+    private void createPositions(int cells) {
+        // every cell is the full character cell of the font (including padding), the origin is the top left of the grid
+        font.getBounds(" ", bounds, 0);                        // The Same for Every Single Character
+        FloatBuffer positions = allocateDirect(cells * VERTICES_PER_CELL * POSITION_SIZE).order(nativeOrder()).asFloatBuffer();
+        for (int row = 0; row < rows; row++) {
+            float baseY = -(row + 1) * rowHeight;             // Bottom of the Row, Including Descent
+            for (int column = 0; column < columns; column++) {
+                float baseX = column * columnWidth;
+                float left = baseX + bounds[0], bottom = baseY + bounds[1], right = baseX + bounds[2], top = baseY + bounds[3];
+                positions.put(left).put(bottom).put(right).put(bottom).put(right).put(top).put(left).put(top);
+            }
+        }
+        positions.flip();
+        gl.glBindBuffer(GL_ARRAY_BUFFER, positionBuffer);
+        gl.glBufferData(GL_ARRAY_BUFFER, cells * VERTICES_PER_CELL * POSITION_SIZE, positions, GL_STATIC_DRAW);
+        gl.glBindBuffer(GL_ARRAY_BUFFER, 0);
+    }
+
+    private void createIndices(int cells) {
+        // the same quad pattern as SpriteBatch
+        ShortBuffer indices = allocateDirect(cells * INDICES_PER_CELL * 2).order(nativeOrder()).asShortBuffer();
+        for (int cell = 0; cell < cells; cell++) {
+            short vertex = (short) (cell * VERTICES_PER_CELL);
+            indices.put(vertex).put((short) (vertex + 1)).put((short) (vertex + 2))
+                    .put((short) (vertex + 2)).put((short) (vertex + 3)).put(vertex);
+        }
+        indices.flip();
+        gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexBuffer);
+        gl.glBufferData(GL_ELEMENT_ARRAY_BUFFER, cells * INDICES_PER_CELL * 2, indices, GL_STATIC_DRAW);
+        gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public char getCharacter(int column, int row) {
+        return characters[getCell(column, row)];
+    }
+
+    public int getColor(int column, int row) {
+        return colors[getCell(column, row)];
+    }
+
+    public void set(int column, int row, char character) {
+        int cell = getCell(column, row);
+        set(cell, column, row, character, colors[cell]);
+    }
+
+    /**
+     * @param color the color of the character, ARGB (android.graphics.Color)
+     */
+    public void set(int column, int row, char character, int color) {
+        set(getCell(column, row), column, row, character, color);
+    }
+
+    /**
+     * write text into a row, starting at the column, cut off at the end of the row
+     */
+    public void write(int column, int row, CharSequence text, int color) {
+        int cell = getCell(column, row);
+        int length = Math.min(text.length(), columns - column);
+        for (int i = 0; i < length; i++) {
+            set(cell + i, column + i, row, text.charAt(i), color);
+        }
+    }
+
+    /**
+     * set every cell to the character and color
+     */
+    public void fill(char character, int color) {
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                set(row * columns + column, column, row, character, color);
+            }
+        }
+    }
+
+    private int getCell(int column, int row) {
+        if (column < 0 || column >= columns || row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Invalid cell: " + column + "," + row + ", grid: " + columns + "x" + rows);
+        }
+        return row * columns + column;
+    }
+
+    private void set(int cell, int column, int row, char character, int color) {
+        if (characters[cell] == character && colors[cell] == color) {
+            return;                                            // Unchanged, Nothing to Upload
+        }
+        characters[cell] = character;
+        colors[cell] = color;
+        putCell(cell);
+        rowDirtyStarts[row] = Math.min(rowDirtyStarts[row], column);
+        rowDirtyEnds[row] = Math.max(rowDirtyEnds[row], column + 1);
+        dirty = true;
+    }
+
+    /**
+     * write the texture coordinates and color of the cell to the buffer copy
+     */
+    private void putCell(int cell) {
+        TextureRegion region = font.getCellRegion(characters[cell]);
+        short u1 = toUnsignedShort(region.u1), v1 = toUnsignedShort(region.v1);
+        short u2 = toUnsignedShort(region.u2), v2 = toUnsignedShort(region.v2);
+        int color = colors[cell];
+        attributes.position(cell * CELL_SIZE);
+        putVertex(u1, v2, color);                              // Bottom Left
+        putVertex(u2, v2, color);                              // Bottom Right
+        putVertex(u2, v1, color);                              // Top Right
+        putVertex(u1, v1, color);                              // Top Left
+    }
+
+    private void putVertex(short u, short v, int color) {
+        attributes.putShort(u).putShort(v)
+                .put((byte) (color >> 16)).put((byte) (color >> 8)).put((byte) color).put((byte) (color >>> 24));
+    }
+
+    private static short toUnsignedShort(float value) {
+        return (short) Math.round(value * 0xFFFF);
+    }
+
+    /**
+     * upload the dirty cells, merging dirty ranges that are close together in the buffer
+     */
+    private void upload() {
+        gl.glBindBuffer(GL_ARRAY_BUFFER, attributeBuffer);
+        int rangeStart = -1, rangeEnd = -1;                    // Cells of the Pending Upload
+        for (int row = 0; row < rows; row++) {
+            if (rowDirtyEnds[row] == 0) {
+                continue;
+            }
+            int start = row * columns + rowDirtyStarts[row];
+            int end = row * columns + rowDirtyEnds[row];
+            if (rangeStart >= 0 && start - rangeEnd <= MERGE_GAP) {
+                rangeEnd = end;
+            } else {
+                if (rangeStart >= 0) {
+                    uploadRange(rangeStart, rangeEnd);
+                }
+                rangeStart = start;
+                rangeEnd = end;
+            }
+        }
+        if (rangeStart >= 0) {
+            uploadRange(rangeStart, rangeEnd);
+        }
+        gl.glBindBuffer(GL_ARRAY_BUFFER, 0);
+        markClean();
+    }
+
+    private void uploadRange(int start, int end) {
+        attributes.limit(end * CELL_SIZE).position(start * CELL_SIZE);
+        gl.glBufferSubData(GL_ARRAY_BUFFER, start * CELL_SIZE, (end - start) * CELL_SIZE, attributes);
+        attributes.clear();
+        stats.recordVertexBytes((end - start) * CELL_SIZE);
+        uploads++;
+    }
+
+    private void markClean() {
+        for (int row = 0; row < rows; row++) {
+            rowDirtyStarts[row] = columns;
+            rowDirtyEnds[row] = 0;
+        }
+        dirty = false;
+    }
+
+    /**
+     * @return the number of glBufferSubData() calls made to upload changed cells
+     */
+    public int getUploads() {
+        return uploads;
+    }
+
+    /**
+     * upload the changed cells and draw the grid
+     *
+     * @param x the x-position of the left of the grid
+     * @param y the y-position of the top of the grid
+     */
+    public void draw(float x, float y, float[] vpMatrix) {
+        if (dirty) {
+            upload();
+        }
+        gl.glUseProgram(program.getProgramHandle());
+        gl.glActiveTexture(GL_TEXTURE0);
+        gl.glBindTexture(GL_TEXTURE_2D, font.getTextureId());
+        gl.glUniform1i(program.getTextureUniformHandle(), 0);
+
+        Matrix.setIdentityM(translatedMatrix, 0);
+        Matrix.translateM(translatedMatrix, 0, x, y, 0.0f);
+        Matrix.multiplyMM(mvpMatrix, 0, vpMatrix, 0, translatedMatrix, 0);
+        gl.glUniformMatrix4fv(program.getMvpMatrixHandle(), 1, false, mvpMatrix, 0);
+        stats.recordUniformBytes(4 + 16 * 4);
+
+        gl.glBindBuffer(GL_ARRAY_BUFFER, positionBuffer);
+        gl.glVertexAttribPointer(program.getPositionHandle(), 2, GL_FLOAT, false, POSITION_SIZE, 0);
+        gl.glEnableVertexAttribArray(program.getPositionHandle());
+        gl.glBindBuffer(GL_ARRAY_BUFFER, attributeBuffer);
+        gl.glVertexAttribPointer(program.getTextureCoordinateHandle(), 2, GL_UNSIGNED_SHORT, true, ATTRIBUTE_SIZE, 0);
+        gl.glEnableVertexAttribArray(program.getTextureCoordinateHandle());
+        gl.glVertexAttribPointer(program.getColorHandle(), 4, GL_UNSIGNED_BYTE, true, ATTRIBUTE_SIZE, 2 * 2);
+        gl.glEnableVertexAttribArray(program.getColorHandle());
+
+        gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexBuffer);
+        gl.glDrawElements(GL_TRIANGLES, columns * rows * INDICES_PER_CELL, GL_UNSIGNED_SHORT, 0);
+        stats.recordDrawCall();
+        stats.recordBatch();
+
+        // SpriteBatch draws from client-side arrays, which only works with no buffers bound
+        gl.glBindBuffer(GL_ARRAY_BUFFER, 0);
+        gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * delete the buffers, the grid can not be drawn afterwards
+     * NOTE: the program is not deleted, it is usually shared with other grids
+     */
+    public void dispose() {
+        names[0] = positionBuffer;
+        names[1] = attributeBuffer;
+        names[2] = indexBuffer;
+        gl.glDeleteBuffers(3, names, 0);
+        positionBuffer = attributeBuffer = indexBuffer = 0;
+    }
+}
@@ -0,0 +1,135 @@
+package com.android.texample2.domain;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A scrollable view of a {@link MappedDocument}, which decodes only the lines in view plus a margin above and below.
+ * Decoded lines are kept in a fixed number of slots, so scrolling by a few lines decodes only the lines that came
+ * into the margin, and the memory of the view does not depend on the size of the document.
+ * <p>
+ * Usage:
+ * <pre>
+ * DocumentView view = new DocumentView(font, document, 200);
+ * view.setHeight(screenHeight);
+ * ...
+ * view.scrollBy(flingLines);
+ * font.begin(orthoMatrix);
+ * view.draw(0, screenHeight);
+ * font.end();
+ * </pre>
+ * NOTE: must be used on the GL thread. Lines are drawn at their full width, longer lines than maxColumns are cut off.
+ */
+public class DocumentView {
+
+    private final Font font;
+    private final MappedDocument document;
+    private final int maxColumns;                              // Chars Kept per Line
+
+    private float height;                                      // View Height (Units)
+    private int visibleLines;                                  // Lines Needed to Fill the Height, Including a Partly Visible One
+    private int marginLines;                                   // Lines Decoded Ahead Above and Below the View
+    private float scroll;                                      // Index of the Line at the Top, the Fraction Scrolls it Partly Out
+
+    // decoded lines, line n is kept in slot n % slot count
+    private char[][] slotChars;
+    private int[] slotLengths;
+    private int[] slotLines;                                   // Line Held by Each Slot, -1 = Empty
+    private int decodedLines;
+
+    /**
+     * @param maxColumns the most chars of a line that are decoded and drawn
+     */
+    public DocumentView(Font font, MappedDocument document, int maxColumns) {
+        this.font = font;
+        this.document = document;
+        this.maxColumns = maxColumns;
+        setHeight(0.0f);
+    }
+
+    /**
+     * @param height the height of the view (units of the projection the font is drawn with)
+     */
+    public void setHeight(float height) {
+        this.height = height;
+        visibleLines = (int) Math.ceil(height / font.getScaledCharHeight()) + 1;
+        marginLines = visibleLines;                            // A Page Ahead in Both Directions
+        int slots = visibleLines + 2 * marginLines;
+        if (slotLines == null || slotLines.length != slots) {
+            slotChars = new char[slots][maxColumns];
+            slotLengths = new int[slots];
+            slotLines = new int[slots];
+            Arrays.fill(slotLines, -1);
+        }
+    }
+
+    public float getHeight() {
+        return height;
+    }
+
+    /**
+     * @param line the line to show at the top of the view, a fraction shows the line partly
+     */
+    public void scrollTo(float line) {
+        scroll = line;
+    }
+
+    public void scrollBy(float lines) {
+        scroll += lines;
+    }
+
+    /**
+     * @return the line at the top of the view, with the fraction it is scrolled out, clamped to the indexed lines
+     */
+    public float getScroll() {
+        scroll = Math.max(0.0f, Math.min(scroll, document.getLineCount() - visibleLines + 1));
+        return scroll;
+    }
+
+    /**
+     * draw the lines in view
+     * NOTE: MUST be called after font.begin(), and before font.end()!
+     *
+     * @param x   the x-position of the left of the lines
+     * @param top the y-position of the top of the view
+     */
+    public void draw(float x, float top) throws IOException {
+        float scroll = getScroll();
+        int firstLine = (int) scroll;
+        int lineCount = document.getLineCount();
+        float lineHeight = font.getScaledCharHeight();
+        float y = top - lineHeight + (scroll - firstLine) * lineHeight;
+
+        // decode the margin too, so the next frames of a scroll find their lines ready
+        int last = Math.min(lineCount, firstLine + visibleLines + marginLines);
+        for (int line = Math.max(0, firstLine - marginLines); line < last; line++) {
+            slotOf(line);
+        }
+
+        for (int line = firstLine; line < firstLine + visibleLines && line < lineCount; line++) {
+            int slot = slotOf(line);
+            font.draw(slotChars[slot], 0, slotLengths[slot], x, y);
+            y -= lineHeight;
+        }
+    }
+
+    /**
+     * @return the slot holding the line, decoding it first if needed
+     */
+    private int slotOf(int line) throws IOException {
+        int slot = line % slotLines.length;
+        if (slotLines[slot] != line) {
+            slotLengths[slot] = document.readLine(line, slotChars[slot]);
+            slotLines[slot] = line;
+            decodedLines++;
+        }
+        return slot;
+    }
+
+    /**
+     * @return the number of lines decoded since the view was created, e.g. to check scrolling only decodes new lines
+     */
+    public int getDecodedLines() {
+        return decodedLines;
+    }
+}
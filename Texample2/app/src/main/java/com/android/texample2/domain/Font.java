@@ -9,11 +9,12 @@
 
 package com.android.texample2.domain;
 
-import android.graphics.Paint;
 import android.graphics.Typeface;
 import android.opengl.Matrix;
 
-import static android.opengl.GLES20.*;
+import com.android.texample2.gl.GL;
+
+import static com.android.texample2.gl.GL.*;
 import static java.lang.Math.abs;
 import static java.lang.Math.ceil;
 import static java8.util.stream.IntStreams.concat;
@@ -29,9 +30,13 @@ public class Font {
     public final static int CHAR_NONE = 32;            // Character to Use for Unknown (ASCII Code)
     private final static int CHAR_UNKNOWN = (CHAR_CNT - 1);  // Index of the Unknown Character
 
-    private final static int CHAR_BATCH_SIZE = 24;     // Number of Characters to Render Per Batch must be the same as the size of u_MVPMatrix in BatchTextProgram
+    final static int CHAR_BATCH_SIZE = 24;             // Number of Characters to Render Per Batch must be the same as the size of u_MVPMatrix in BatchTextProgram
+    private final static int MIN_LOD_SIZE = 32;        // Minimum Texture Size of the Lowest Atlas Level (Pixels)
     private static final String TAG = "GLTEXT";
 
+    public final static int MAX_DECIMALS = 9;          // Maximum number of decimals drawFloat() can draw
+    private final static long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L};
+
     //--Members--//
     private SpriteBatch batch;                                 // Batch Renderer
 
@@ -41,6 +46,13 @@ public class Font {
 
     private FontTexture fontTexture;
 
+    // Lower resolution atlases for small text, see createLodLevels()
+    private FontTexture[] lodTextures;                         // Atlas Chain (Level 0 is fontTexture), null = Full Resolution Only
+    private LodSelector lodSelector;
+    private int lodLevel;                                      // Level Bound for the Current Batch
+
+    private final FrustumCuller culler = new FrustumCuller();  // Skips strings off screen or too small, see setMinPixelSize()
+
     private FontCharacters characters;
     private int cellWidth, cellHeight;                         // Character Cell Width/Height
 
@@ -49,10 +61,40 @@ public class Font {
     private float spaceX = 0.0f;                              // Additional (X,Y Axis) Spacing (Unscaled)
 
     private FontProgram program;
+    private final GL gl;
+
+    private final RenderStats stats;                          // Counters for the work done rendering with this font
+
+    // Effects drawn behind the glyphs in the same pass, see setOutline() and setShadow()
+    private static final float[] NO_COLOR = new float[4];
+    private float outlineWidth;                               // Outline Width (Atlas Pixels, 0 = No Outline)
+    private final float[] outlineColor = new float[4];
+    private float shadowOffsetX, shadowOffsetY;               // Shadow Offset (Atlas Pixels)
+    private final float[] shadowColor = new float[4];         // Shadow Color (Alpha 0 = No Shadow)
+    private final VertexFormat vertexFormat;
+
+    // NOTE: reused on every draw call, so drawing text does not allocate
+    private final float[] modelMatrix = new float[16];
+    private final float[] mvpMatrix = new float[16];
+    private ViewProjection viewProjection;                     // Passed to the current begin(), if any
+    private final float[] color = new float[4];
+    private final float[] glyphQuad = new float[8];            // Quad of the Glyph Being Laid Out, see getGlyphQuad()
+    private final int[] viewport = new int[2];
+    private int restores;                                      // Number of Times the GL Context Was Restored, see getRestores()
+    private final CharArraySequence charArraySequence = new CharArraySequence();
+    private final char[] numberChars = new char[32];          // Digits of the number being drawn, written from the end
+    private final TextBuilder textBuilder = new TextBuilder(this);
+
+    Font(FontProgram program, RenderStats stats) {
+        this(program, stats, VertexFormat.FLOAT);
+    }
 
-    Font(FontProgram program) {
+    Font(FontProgram program, RenderStats stats, VertexFormat vertexFormat) {
         this.program = program;
-        batch = new SpriteBatch(CHAR_BATCH_SIZE, program);  // Create Sprite Batch (with Defined Size)
+        this.gl = program.getGL();
+        this.stats = stats;
+        this.vertexFormat = vertexFormat;
+        batch = new SpriteBatch(CHAR_BATCH_SIZE, program, stats, vertexFormat);  // Create Sprite Batch (with Defined Size)
     }
 
     /**
@@ -65,59 +107,226 @@ public class Font {
      * @param padY     Extra padding per character on Y-Axis to prevent overlapping characters.
      */
     public void load(Typeface typeface, int size, int padX, int padY) {
+        load(new PaintGlyphRasterizer(typeface, size), padX, padY);
+    }
+
+    /**
+     * Load font
+     * measure and draw the defined character range with the specified rasterizer, create a texture from it, and setup all required values used to render with it.
+     *
+     * @param rasterizer the typeface and size to measure and draw the characters with.
+     * @param padX       Extra padding per character on X-Axis to prevent overlapping characters.
+     * @param padY       Extra padding per character on Y-Axis to prevent overlapping characters.
+     */
+    public void load(GlyphRasterizer rasterizer, int padX, int padY) {
+        prepare(rasterizer, padX, padY);
+        upload();
+    }
+
+    /**
+     * the first half of load(): measure and draw the characters into the pixels of the texture
+     * NOTE: makes no GL calls, so it can run on any thread, see {@link FontPreloader}
+     */
+    void prepare(GlyphRasterizer rasterizer, int padX, int padY) {
         fontPadX = padX;
         fontPadY = padY;
 
-        Paint paint = setUpPaint(typeface, size);
-        metrics = FontMetrics.loadFromPaint(paint);
-        characters = FontCharacters.createFontCharacters(paint);
+        metrics = FontMetrics.loadFromRasterizer(rasterizer);
+        characters = FontCharacters.createFontCharacters(rasterizer);
 
         cellWidth = (int) characters.charWidthMax + (2 * fontPadX);
         cellHeight = (int) metrics.actualHeightInPixels + (2 * fontPadY);
 
-        fontTexture = new FontTexture(cellWidth, cellHeight);
+        fontTexture = new FontTexture(gl, cellWidth, cellHeight);
 
         float xOffset = fontPadX;
         float yOffset = (cellHeight - 1) - metrics.descentInPixels - fontPadY;
 
-        fontTexture.buildFontMap(paint, cellWidth, cellHeight, xOffset, yOffset);
+        fontTexture.drawFontMap(rasterizer, cellWidth, cellHeight, xOffset, yOffset);
+    }
+
+    /**
+     * the second half of load(): create the texture from the pixels drawn by prepare(), on the GL thread
+     */
+    void upload() {
+        fontTexture.uploadTexture();
+    }
+
+    /**
+     * recreate the GL objects of the font after the GL context was lost, without loading the font again:
+     * the texture is uploaded from the pixels kept when the font was loaded.
+     *
+     * @param program the font program created in the new context
+     */
+    public void restore(FontProgram program) {
+        this.program = program;
+        restores++;
+        batch = new SpriteBatch(CHAR_BATCH_SIZE, program, stats, vertexFormat);
+        if (lodTextures != null) {
+            for (FontTexture texture : lodTextures) {
+                texture.restoreTexture();
+            }
+        } else if (fontTexture != null) {
+            fontTexture.restoreTexture();
+        }
+    }
+
+    /**
+     * @return the size of the font texture pixels kept on the CPU to restore the texture (bytes)
+     */
+    public int getRestoreBytes() {
+        if (lodTextures != null) {
+            int bytes = 0;
+            for (FontTexture texture : lodTextures) {
+                bytes += texture.getPixelBytes();
+            }
+            return bytes;
+        }
+        return fontTexture != null ? fontTexture.getPixelBytes() : 0;
+    }
+
+    /**
+     * create lower resolution copies of the font texture, each half the resolution of the previous one.
+     * every string is drawn with the smallest copy that still has an atlas pixel per screen pixel, which samples less
+     * texture memory and aliases less for text that is small on screen. needs the viewport size, see setViewport().
+     * NOTE: switching to a different level while drawing ends the current batch, draw strings of similar size together.
+     * Do not call this on a font shared through a FontRegistry, it changes the font of every user: acquire the font
+     * with the levels instead.
+     * NOTE: each level averages 2x2 pixels of the previous one across cell borders, so the font needs a padding of at
+     * least {@link #getLodPadding(int)} pixels to keep the glyphs of neighbouring cells apart at the lowest level
+     *
+     * @param levels the number of levels including the full resolution texture, 1 for the full resolution only
+     */
+    public void createLodLevels(int levels) {
+        if (levels < 1 || fontTexture.getSize() >> (levels - 1) < MIN_LOD_SIZE) {
+            throw new IllegalArgumentException("Invalid number of levels: " + levels + " for a texture of " + fontTexture.getSize() + " pixels");
+        }
+        int padding = getLodPadding(levels);
+        if (fontPadX < padding || fontPadY < padding) {
+            throw new IllegalArgumentException(levels + " levels need a font padding of at least " + padding + " pixels: [x: " + fontPadX + ", y: " + fontPadY + "]");
+        }
+        deleteLodLevels();
+        if (levels > 1) {
+            lodTextures = new FontTexture[levels];
+            lodTextures[0] = fontTexture;
+            for (int level = 1; level < levels; level++) {
+                lodTextures[level] = lodTextures[level - 1].createHalfResolution();
+            }
+        }
+        lodSelector = new LodSelector(levels);
+        lodSelector.setViewport(viewport[0], viewport[1]);
+    }
+
+    /**
+     * @return the padding a font needs for the specified number of atlas levels (pixels on each side): a pixel of the
+     * lowest level covers 2^(levels - 1) pixels of the full resolution atlas, those next to a cell border must be empty
+     */
+    public static int getLodPadding(int levels) {
+        return levels > 1 ? 1 << (levels - 1) : 0;
+    }
+
+    /**
+     * set the size of the viewport the font draws to, used to select atlas levels and to skip strings smaller than
+     * the minimum size on screen
+     *
+     * @param width  the width of the viewport the font draws to (pixels)
+     * @param height the height of the viewport the font draws to (pixels)
+     */
+    public void setViewport(int width, int height) {
+        viewport[0] = width;
+        viewport[1] = height;
+        culler.setViewport(width, height);
+        if (lodSelector != null) {
+            lodSelector.setViewport(width, height);
+        }
+    }
+
+    public int getViewportWidth() {
+        return viewport[0];
+    }
+
+    public int getViewportHeight() {
+        return viewport[1];
+    }
+
+    /**
+     * @return the number of times the font was restored after the GL context was lost, so objects created for the
+     * font (e.g. the textures of a {@link TextBlockCache}) can tell they belong to a lost context
+     */
+    int getRestores() {
+        return restores;
+    }
+
+    /**
+     * skip strings that are smaller on screen than the specified size in both directions, before any of their glyphs
+     * are batched. strings outside of the view frustum are always skipped. needs the viewport size, see setViewport().
+     *
+     * @param minPixelSize the minimum width or height of a drawn string on screen (pixels), 0 to draw strings of any size (default)
+     */
+    public void setMinPixelSize(float minPixelSize) {
+        if (minPixelSize < 0.0f) {
+            throw new IllegalArgumentException("Invalid minimum size: " + minPixelSize);
+        }
+        culler.setMinPixelSize(minPixelSize);
     }
 
-    private Paint setUpPaint(Typeface typeface, int size) {
-        int opaqueWhite = 0xffffffff;
-        Paint paint = new Paint();
-        paint.setAntiAlias(true);
-        paint.setTextSize(size);
-        paint.setColor(opaqueWhite);
-        paint.setTypeface(typeface);
-        return paint;
+    public float getMinPixelSize() {
+        return culler.getMinPixelSize();
+    }
+
+    /**
+     * @return the number of atlas levels, 1 if only the full resolution texture exists
+     */
+    public int getLodLevels() {
+        return lodTextures != null ? lodTextures.length : 1;
+    }
+
+    private void deleteLodLevels() {
+        if (lodTextures != null) {
+            for (int level = 1; level < lodTextures.length; level++) {
+                lodTextures[level].deleteTexture();
+            }
+            lodTextures = null;
+        }
+    }
+
+    /**
+     * free the font texture and the pixels kept to restore it. the font can not be drawn with until it is loaded again.
+     * NOTE: the program is not deleted, it is usually shared with other fonts
+     */
+    public void dispose() {
+        deleteLodLevels();
+        if (fontTexture != null) {
+            fontTexture.deleteTexture();
+            fontTexture = null;
+        }
     }
 
     private static class FontCharacters {
 
         private final float[] charWidths;
         private final float charWidthMax;
+        private final float digitWidthMax;                     // Width of the widest digit, used for all digits of numbers
 
         public FontCharacters(float[] charWidths, float charWidthMax) {
             this.charWidths = charWidths;
             this.charWidthMax = charWidthMax;
+            float digitWidthMax = 0.0f;
+            for (char digit = '0'; digit <= '9'; digit++) {
+                digitWidthMax = Math.max(digitWidthMax, getCharacterWidth(digit));
+            }
+            this.digitWidthMax = digitWidthMax;
         }
 
-        static FontCharacters createFontCharacters(Paint paint) {
+        static FontCharacters createFontCharacters(GlyphRasterizer rasterizer) {
             float[] charWidths = new float[CHAR_CNT];
             float charWidthMax = 0.0f;
 
-            char[] characterHolder = new char[1];
-            float[] widthHolder = new float[1];
-
             int[] allCharacters = concat(rangeClosed(CHAR_START, CHAR_END), of(CHAR_NONE)).toArray();
 
             int cnt = 0;
             for (int character : allCharacters) {
-                characterHolder[0] = (char) character;
-
-                paint.getTextWidths(characterHolder, 0, 1, widthHolder);
-                charWidths[cnt] = widthHolder[0];
+                charWidths[cnt] = rasterizer.getCharWidth((char) character);
 
                 if (charWidths[cnt] > charWidthMax) {
                     charWidthMax = charWidths[cnt];
@@ -140,21 +349,151 @@ public class Font {
             return charWidths[characterIndex];
         }
 
+        private float getCharacterWidth(char character, boolean fixedWidthDigits) {
+            if (fixedWidthDigits && character >= '0' && character <= '9') {
+                return digitWidthMax;
+            }
+            return getCharacterWidth(character);
+        }
+
     }
 
-    public float getLength(String text) {
+    public float getLength(CharSequence text) {
+        return getLength(text, false);
+    }
+
+    private float getLength(CharSequence text, boolean fixedWidthDigits) {
         float result = 0.0f;
         for (int i = 0; i < text.length(); i++) {
-            result += characters.getCharacterWidth(text.charAt(i));
+            result += characters.getCharacterWidth(text.charAt(i), fixedWidthDigits);
         }
         result += (text.length() - 1) * spaceX;
         return result * scaleX;
     }
 
+    public float getLength(char[] text, int offset, int length) {
+        return getLength(charArraySequence.set(text, offset, length));
+    }
+
+    /**
+     * get the x-position of every character when the text is drawn at (0,0), the same positions draw() advances through
+     *
+     * @param text    the text to measure
+     * @param offsets receives text.length() + 1 values: the left edge of each character, then getLength() of the text
+     * @param offset  index in offsets to write the values at
+     */
+    public void getCharacterOffsets(CharSequence text, float[] offsets, int offset) {
+        float x = 0.0f;
+        for (int i = 0; i < text.length(); i++) {
+            offsets[offset + i] = x * scaleX;
+            x += characters.getCharacterWidth(text.charAt(i)) + spaceX;
+        }
+        offsets[offset + text.length()] = text.length() > 0 ? (x - spaceX) * scaleX : 0.0f;
+    }
+
+    /**
+     * get the area covered by the glyph quads when the text is drawn at (0,0), which includes the padding around each character
+     *
+     * @param text   the text to measure
+     * @param bounds receives left, bottom, right, top
+     * @param offset index in bounds to write the 4 values at
+     */
+    public void getBounds(CharSequence text, float[] bounds, int offset) {
+        if (text.length() == 0) {
+            bounds[offset] = bounds[offset + 1] = bounds[offset + 2] = bounds[offset + 3] = 0.0f;
+            return;
+        }
+        float lastOffset = 0.0f;
+        for (int i = 0; i < text.length() - 1; i++) {
+            lastOffset += characters.getCharacterWidth(text.charAt(i)) + spaceX;
+        }
+        bounds[offset] = -fontPadX * scaleX;
+        bounds[offset + 1] = -fontPadY * scaleY;
+        bounds[offset + 2] = (lastOffset + cellWidth - fontPadX) * scaleX;
+        bounds[offset + 3] = (cellHeight - fontPadY) * scaleY;
+    }
+
+    /**
+     * measure many strings at once
+     *
+     * @param texts    the strings to measure
+     * @param offset   index of the first string in texts
+     * @param count    number of strings to measure
+     * @param advances receives getLength() of each string, starting at index 0 (may be null)
+     * @param bounds   receives getBounds() of each string, 4 values per string, starting at index 0 (may be null)
+     */
+    public void measure(CharSequence[] texts, int offset, int count, float[] advances, float[] bounds) {
+        for (int i = 0; i < count; i++) {
+            CharSequence text = texts[offset + i];
+            if (advances != null) {
+                advances[i] = getLength(text);
+            }
+            if (bounds != null) {
+                getBounds(text, bounds, i * 4);
+            }
+        }
+    }
+
+    /**
+     * measure many runs of a single char array at once, e.g. the lines of a text buffer
+     *
+     * @param text     the characters
+     * @param starts   the start index of each run in text
+     * @param lengths  the length of each run
+     * @param count    number of runs to measure
+     * @param advances receives getLength() of each run (may be null)
+     * @param bounds   receives getBounds() of each run, 4 values per run (may be null)
+     */
+    public void measure(char[] text, int[] starts, int[] lengths, int count, float[] advances, float[] bounds) {
+        for (int i = 0; i < count; i++) {
+            charArraySequence.set(text, starts[i], lengths[i]);
+            if (advances != null) {
+                advances[i] = getLength(charArraySequence);
+            }
+            if (bounds != null) {
+                getBounds(charArraySequence, bounds, i * 4);
+            }
+        }
+    }
+
     public float getScaledCharHeight() {
         return metrics.actualHeightInPixels * scaleY;
     }
 
+    public VertexFormat getVertexFormat() {
+        return vertexFormat;
+    }
+
+    /**
+     * @return the advance of the widest character, the column width of a {@link CharacterGrid}
+     */
+    float getScaledCharWidthMax() {
+        return characters.charWidthMax * scaleX;
+    }
+
+    /**
+     * @return the texture region of the full cell of the character in the font texture
+     */
+    TextureRegion getCellRegion(char character) {
+        return fontTexture.getTextureCoordinates(characters.getCharacterIndex(character));
+    }
+
+    int getTextureId() {
+        return fontTexture.getTextureId();
+    }
+
+    FontProgram getProgram() {
+        return program;
+    }
+
+    GL getGL() {
+        return gl;
+    }
+
+    public RenderStats getStats() {
+        return stats;
+    }
+
     //--Begin/End Text Drawing--//
     // D: call these methods before/after (respectively all draw() calls using a text instance
     //    NOTE: color is set on a per-batch basis, and fonts should be 8-bit alpha only!!!
@@ -170,27 +509,148 @@ public class Font {
     public void begin(float red, float green, float blue, float alpha, float[] vpMatrix) {
         initDraw(red, green, blue, alpha);
         batch.beginBatch(vpMatrix);
+        viewProjection = null;
+    }
+
+    public void begin(ViewProjection viewProjection) {
+        // Begin with White Opaque
+        begin(1.0f, 1.0f, 1.0f, 1.0f, viewProjection);
+    }
+
+    /**
+     * begin drawing with a view-projection matrix that {@link TextNode}s can cache their MVP matrix for
+     */
+    public void begin(float red, float green, float blue, float alpha, ViewProjection viewProjection) {
+        begin(red, green, blue, alpha, viewProjection.getMatrix());
+        this.viewProjection = viewProjection;
+    }
+
+    /**
+     * @return the view-projection passed to begin(), or null if a plain matrix was passed
+     */
+    ViewProjection getViewProjection() {
+        return viewProjection;
+    }
+
+    float[] getViewProjectionMatrix() {
+        return batch.getViewProjectionMatrix();
+    }
+
+    /**
+     * set up the program, texture and color to draw glyphs, without starting a batch
+     * NOTE: used to draw glyphs retained in a vertex buffer, call end() when done
+     */
+    void initDraw(float red, float green, float blue, float alpha) {
+        initDraw(red, green, blue, alpha, fontTexture.getTextureId(), false);
+        lodLevel = 0;
     }
 
-    private void initDraw(float red, float green, float blue, float alpha) {
-        glUseProgram(program.getProgramHandle()); // specify the program to use
+    /**
+     * @param premultiplied true to draw an RGBA texture with its own colors, tinted by the color and without effects,
+     *                      false to draw glyphs from an alpha texture in the color
+     */
+    private void initDraw(float red, float green, float blue, float alpha, int textureId, boolean premultiplied) {
+        gl.glUseProgram(program.getProgramHandle()); // specify the program to use
 
         // set color TODO: only alpha component works, text is always black #BUG
-        float[] color = {red, green, blue, alpha};
-        glUniform4fv(program.getColorHandle(), 1, color, 0);
-        glEnableVertexAttribArray(program.getColorHandle());
+        color[0] = red;
+        color[1] = green;
+        color[2] = blue;
+        color[3] = alpha;
+        gl.glUniform4fv(program.getColorHandle(), 1, color, 0);
+        stats.recordUniformBytes(color.length * 4);
 
-        glActiveTexture(GL_TEXTURE0);  // Set the active texture unit to texture unit 0
+        gl.glActiveTexture(GL_TEXTURE0);  // Set the active texture unit to texture unit 0
 
-        fontTexture.bindTexture();
+        gl.glBindTexture(GL_TEXTURE_2D, textureId);
 
         // Tell the texture uniform sampler to use this texture in the shader by binding to texture unit 0
-        glUniform1i(program.getTextureUniformHandle(), 0);
+        gl.glUniform1i(program.getTextureUniformHandle(), 0);
+        stats.recordUniformBytes(4);
+
+        if (vertexFormat == VertexFormat.PACKED) {
+            gl.glUniform2f(program.getVertexScaleHandle(), 1.0f / VertexFormat.PACKED_POSITION_SCALE, 1.0f / VertexFormat.PACKED_TEXCOORD_STEPS);
+        } else {
+            gl.glUniform2f(program.getVertexScaleHandle(), 1.0f, 1.0f);
+        }
+        stats.recordUniformBytes(8);
+
+        // NOTE: set on every begin, the program is shared with fonts that have other effects
+        float texelSize = premultiplied ? 0.0f : 1.0f / fontTexture.getSize();
+        gl.glUniform1f(program.getOutlineWidthHandle(), outlineWidth * texelSize);
+        gl.glUniform4fv(program.getOutlineColorHandle(), 1, outlineColor, 0);
+        gl.glUniform4fv(program.getShadowColorHandle(), 1, premultiplied ? NO_COLOR : shadowColor, 0);
+        gl.glUniform2f(program.getShadowOffsetHandle(), shadowOffsetX * texelSize, -shadowOffsetY * texelSize);  // Atlas Rows Go Down
+        gl.glUniform1f(program.getPremultipliedHandle(), premultiplied ? 1.0f : 0.0f);
+        stats.recordUniformBytes(4 + 16 + 16 + 8 + 4);
+        stats.recordBatch();
+    }
+
+    /**
+     * draw an outline around the glyphs, in the same pass as the glyphs. takes effect on the next begin().
+     * NOTE: the outline can not reach further than the font padding, build the font with padding of at least the width
+     *
+     * @param width the width of the outline (atlas pixels, scaled with the font), 0 for no outline
+     */
+    public void setOutline(float width, float red, float green, float blue, float alpha) {
+        if (width < 0 || width > fontPadX || width > fontPadY) {
+            throw new IllegalArgumentException("Outline width " + width + " must be between 0 and the font padding: [x: " + fontPadX + ", y: " + fontPadY + "]");
+        }
+        outlineWidth = width;
+        outlineColor[0] = red;
+        outlineColor[1] = green;
+        outlineColor[2] = blue;
+        outlineColor[3] = alpha;
+    }
+
+    /**
+     * draw a shadow behind the glyphs (and their outline), in the same pass as the glyphs. takes effect on the next begin().
+     * NOTE: the shadow can not be offset further than the font padding
+     *
+     * @param offsetX the offset of the shadow to the right (atlas pixels, scaled with the font)
+     * @param offsetY the offset of the shadow upwards (atlas pixels, scaled with the font), negative for a drop shadow
+     * @param alpha   the shadow alpha, 0 for no shadow
+     */
+    public void setShadow(float offsetX, float offsetY, float red, float green, float blue, float alpha) {
+        if (Math.abs(offsetX) > fontPadX || Math.abs(offsetY) > fontPadY) {
+            throw new IllegalArgumentException("Shadow offset [x: " + offsetX + ", y: " + offsetY + "] must be within the font padding: [x: " + fontPadX + ", y: " + fontPadY + "]");
+        }
+        shadowOffsetX = offsetX;
+        shadowOffsetY = offsetY;
+        shadowColor[0] = red;
+        shadowColor[1] = green;
+        shadowColor[2] = blue;
+        shadowColor[3] = alpha;
+    }
+
+    /**
+     * @return how far the outline and shadow can reach beyond the glyphs
+     */
+    float getEffectMargin() {
+        return getEffectPixels() * Math.max(scaleX, scaleY);
+    }
+
+    /**
+     * @return how far the outline and shadow can reach beyond the glyphs (atlas pixels)
+     */
+    private float getEffectPixels() {
+        float margin = outlineWidth;
+        if (shadowColor[3] > 0.0f) {
+            margin += Math.max(Math.abs(shadowOffsetX), Math.abs(shadowOffsetY));
+        }
+        return margin;
+    }
+
+    /**
+     * draw only the glyphs, without outline or shadow
+     */
+    public void clearEffects() {
+        outlineWidth = 0.0f;
+        shadowColor[3] = 0.0f;
     }
 
     public void end() {
         batch.endBatch();
-        glDisableVertexAttribArray(program.getColorHandle());
     }
 
     /**
@@ -210,6 +670,25 @@ public class Font {
         batch.endBatch();
     }
 
+    /**
+     * draw an RGBA texture of premultiplied colors (e.g. text rendered with this font) as a single quad, with its own
+     * colors multiplied by the color
+     * NOTE: must not be called between begin() and end()
+     *
+     * @param x the x position of the bottom left corner of the quad
+     * @param y the y position of the bottom left corner of the quad
+     */
+    void drawQuad(int textureId, TextureRegion region, float x, float y, float width, float height,
+                  float red, float green, float blue, float alpha, float[] vpMatrix) {
+        initDraw(red, green, blue, alpha, textureId, true);
+        batch.beginBatch(vpMatrix);
+        {
+            Matrix.setIdentityM(modelMatrix, 0);
+            batch.drawSprite(x + width / 2.0f, y + height / 2.0f, width, height, region, modelMatrix);
+        }
+        end();
+    }
+
     /**
      * draw text at the specified x,y position
      *
@@ -221,47 +700,256 @@ public class Font {
      * @param angleDegY the y-position of the angle to rotate the text
      * @param angleDegZ the z-position of the angle to rotate the text
      */
-    private void draw(String text, float x, float y, float z, float angleDegX, float angleDegY, float angleDegZ) {
+    private void draw(CharSequence text, float x, float y, float z, float angleDegX, float angleDegY, float angleDegZ) {
+        draw(text, x, y, z, angleDegX, angleDegY, angleDegZ, false);
+    }
+
+    private void draw(CharSequence text, float x, float y, float z, float angleDegX, float angleDegY, float angleDegZ, boolean fixedWidthDigits) {
+        long start = System.nanoTime();
         x += ((cellWidth / 2.0f) - fontPadX) * scaleX;
         y += ((cellHeight / 2.0f) - fontPadY) * scaleY;
 
         // create a model matrix based on x, y and angleDeg
-        float[] modelMatrix = new float[16];
         Matrix.setIdentityM(modelMatrix, 0);
         Matrix.translateM(modelMatrix, 0, x, y, z);
         Matrix.rotateM(modelMatrix, 0, angleDegZ, 0, 0, 1);
         Matrix.rotateM(modelMatrix, 0, angleDegX, 1, 0, 0);
         Matrix.rotateM(modelMatrix, 0, angleDegY, 0, 1, 0);
 
-        float xOffset = 0;
+        // all the characters in the string share the same MVP matrix
+        Matrix.multiplyMM(mvpMatrix, 0, batch.getViewProjectionMatrix(), 0, modelMatrix, 0);
+
+        if (!cull(text, 0.0f, 0.0f, mvpMatrix, fixedWidthDigits)) {
+            selectLod(0.0f, 0.0f, mvpMatrix);
+            drawGlyphs(text, 0.0f, 0.0f, mvpMatrix, fixedWidthDigits);
+            stats.recordGlyphs(text.length());
+        }
+        stats.recordBatchingTime(System.nanoTime() - start);
+    }
+
+    /**
+     * draw text with a precomputed MVP matrix, the origin of the model space is the bottom left of the text (including descent)
+     * NOTE: MUST be called after begin(), and before end()!
+     */
+    void draw(CharSequence text, float[] mvpMatrix) {
+        long start = System.nanoTime();
+        float x = ((cellWidth / 2.0f) - fontPadX) * scaleX;
+        float y = ((cellHeight / 2.0f) - fontPadY) * scaleY;
+        if (!cull(text, x, y, mvpMatrix, false)) {
+            selectLod(x, y, mvpMatrix);
+            drawGlyphs(text, x, y, mvpMatrix, false);
+            stats.recordGlyphs(text.length());
+        }
+        stats.recordBatchingTime(System.nanoTime() - start);
+    }
+
+    /**
+     * test the cells of the string against the view frustum and the minimum size on screen
+     *
+     * @param x the x-position of the center of the first character in model space
+     * @param y the y-position of the center of the characters in model space
+     * @return true if the string must not be drawn
+     */
+    private boolean cull(CharSequence text, float x, float y, float[] mvpMatrix, boolean fixedWidthDigits) {
+        if (text.length() == 0) {
+            return true;
+        }
+        float halfWidth = cellWidth * scaleX / 2.0f;
+        float halfHeight = cellHeight * scaleY / 2.0f;
+        // NOTE: the last cell may reach past the advance of its character, so the box spans a full cell beyond the length
+        int result = culler.test(mvpMatrix, x - halfWidth, y - halfHeight, x + halfWidth + getLength(text, fixedWidthDigits), y + halfHeight);
+        if (result == FrustumCuller.OUTSIDE) {
+            stats.recordCulledString();
+        } else if (result == FrustumCuller.TOO_SMALL) {
+            stats.recordSubPixelString();
+        } else {
+            stats.recordDrawnString();
+        }
+        return result != FrustumCuller.VISIBLE;
+    }
+
+    /**
+     * bind the atlas level for the projected size of the string, ending the batch if the level changes
+     *
+     * @param x the x-position of the center of the first character in model space
+     * @param y the y-position of the center of the characters in model space
+     */
+    private void selectLod(float x, float y, float[] mvpMatrix) {
+        if (lodTextures == null) {
+            return;
+        }
+        float height = cellHeight * scaleY;
+        int level = lodSelector.selectLevel(mvpMatrix, x, y - height / 2.0f, height, cellHeight);
+        if (level != lodLevel) {
+            batch.endBatch();
+            batch.beginBatch(batch.getViewProjectionMatrix());
+            gl.glBindTexture(GL_TEXTURE_2D, lodTextures[level].getTextureId());
+            stats.recordBatch();
+            lodLevel = level;
+        }
+    }
 
+    /**
+     * @param x the x-position of the center of the first character in model space
+     * @param y the y-position of the center of the characters in model space
+     */
+    private void drawGlyphs(CharSequence text, float x, float y, float[] mvpMatrix, boolean fixedWidthDigits) {
+        int margin = (int) Math.ceil(getEffectPixels());
+        int cellArea = cellWidth * cellHeight;
+        float xOffset = x;
         for (int i = 0; i < text.length(); i++) {              // FOR Each Character in String
-            //TODO: optimize - applying the same model matrix to all the characters in the string
-            batch.drawSprite(xOffset, 0.0f, cellWidth * scaleX, cellHeight * scaleY, fontTexture.getTextureCoordinates(characters.getCharacterIndex(text.charAt(i))), modelMatrix);
+            int quadArea = getGlyphQuad(text.charAt(i), xOffset, y, margin, glyphQuad);
+            if (quadArea > 0) {
+                float width = glyphQuad[2] - glyphQuad[0];
+                float height = glyphQuad[3] - glyphQuad[1];
+                batch.drawSpriteMvp(glyphQuad[0] + width / 2.0f, glyphQuad[1] + height / 2.0f, width, height,
+                        glyphQuad[4], glyphQuad[5], glyphQuad[6], glyphQuad[7], mvpMatrix);
+            }
+            stats.recordGlyphArea(cellArea, quadArea);
+            xOffset += (characters.getCharacterWidth(text.charAt(i), fixedWidthDigits) + spaceX) * scaleX;
+        }
+    }
+
+    /**
+     * lay out the glyph quads of a string once, to draw them later from a vertex buffer, see {@link TextConsole}.
+     * each quad is 4 vertices of VertexFormat.FLOAT (bottom left, bottom right, top right, top left) with MVP matrix index 0.
+     *
+     * @param x        the x-position to draw text at (bottom left of text; including descent)
+     * @param y        the y-position to draw text at (bottom left of text; including descent)
+     * @param vertices receives the vertices, must have room for 4 vertices per character
+     * @param offset   index in vertices to write the first vertex at
+     * @return the number of quads written, characters without visible pixels have no quad
+     */
+    int layoutGlyphs(CharSequence text, float x, float y, float[] vertices, int offset) {
+        return layoutGlyphs(text, x, y, vertices, offset, null);
+    }
+
+    /**
+     * lay out the glyph quads of a string, see {@link #layoutGlyphs(CharSequence, float, float, float[], int)}
+     *
+     * @param characterIndices receives the index in text of the character of each quad written, or null
+     */
+    int layoutGlyphs(CharSequence text, float x, float y, float[] vertices, int offset, int[] characterIndices) {
+        int margin = (int) Math.ceil(getEffectPixels());
+        float xOffset = x + ((cellWidth / 2.0f) - fontPadX) * scaleX;
+        float centerY = y + ((cellHeight / 2.0f) - fontPadY) * scaleY;
+        int quads = 0;
+        int index = offset;
+        for (int i = 0; i < text.length(); i++) {
+            if (getGlyphQuad(text.charAt(i), xOffset, centerY, margin, glyphQuad) > 0) {
+                index = putVertex(vertices, index, glyphQuad[0], glyphQuad[1], glyphQuad[4], glyphQuad[7]);
+                index = putVertex(vertices, index, glyphQuad[2], glyphQuad[1], glyphQuad[6], glyphQuad[7]);
+                index = putVertex(vertices, index, glyphQuad[2], glyphQuad[3], glyphQuad[6], glyphQuad[5]);
+                index = putVertex(vertices, index, glyphQuad[0], glyphQuad[3], glyphQuad[4], glyphQuad[5]);
+                if (characterIndices != null) {
+                    characterIndices[quads] = i;
+                }
+                quads++;
+            }
             xOffset += (characters.getCharacterWidth(text.charAt(i)) + spaceX) * scaleX;
         }
+        return quads;
+    }
+
+    private static int putVertex(float[] vertices, int index, float x, float y, float u, float v) {
+        vertices[index] = x;
+        vertices[index + 1] = y;
+        vertices[index + 2] = u;
+        vertices[index + 3] = v;
+        vertices[index + 4] = 0.0f;                            // MVP Matrix Index
+        return index + 5;
+    }
+
+    /**
+     * get the quad of a glyph around its ink, grown by the margin
+     * NOTE: the cell texture region is cellWidth - 1 pixels wide but stretched over the cell width, keep that mapping.
+     *
+     * @param x    the x-position of the center of the character cell in model space
+     * @param y    the y-position of the center of the character cell in model space
+     * @param quad receives left, bottom, right, top in model space, then u1, v1, u2, v2
+     * @return the area of the quad (atlas pixels), 0 if the character has no visible pixels (eg. a space)
+     */
+    private int getGlyphQuad(char character, float x, float y, int margin, float[] quad) {
+        int characterIndex = characters.getCharacterIndex(character);
+        int[] inkBounds = fontTexture.getInkBounds();
+        int bounds = characterIndex * 4;
+        if (inkBounds[bounds + 2] <= inkBounds[bounds]) {
+            return 0;
+        }
+        int left = Math.max(0, inkBounds[bounds] - margin);
+        int top = Math.max(0, inkBounds[bounds + 1] - margin);
+        int right = Math.min(cellWidth - 1, inkBounds[bounds + 2] + margin);
+        int bottom = Math.min(cellHeight - 1, inkBounds[bounds + 3] + margin);
+        if (right <= left || bottom <= top) {
+            return 0;
+        }
+        float pixelWidth = cellWidth * scaleX / (cellWidth - 1);   // Model Units per Atlas Pixel
+        float pixelHeight = cellHeight * scaleY / (cellHeight - 1);
+        float texelSize = 1.0f / fontTexture.getSize();
+        float cellLeft = x - cellWidth * scaleX / 2.0f;
+        float cellTop = y + cellHeight * scaleY / 2.0f;
+        TextureRegion cell = fontTexture.getTextureCoordinates(characterIndex);
+        quad[0] = cellLeft + left * pixelWidth;
+        quad[1] = cellTop - bottom * pixelHeight;
+        quad[2] = cellLeft + right * pixelWidth;
+        quad[3] = cellTop - top * pixelHeight;
+        quad[4] = cell.u1 + left * texelSize;
+        quad[5] = cell.v1 + top * texelSize;
+        quad[6] = cell.u1 + right * texelSize;
+        quad[7] = cell.v1 + bottom * texelSize;
+        return (right - left) * (bottom - top);
+    }
+
+    /**
+     * start drawing text with the options of the returned builder
+     * NOTE: the builder is reused by the next call to startDrawing() on this font, so draw() it first!
+     *
+     * @param text the text to draw
+     */
+    public TextBuilder startDrawing(CharSequence text) {
+        return textBuilder.reset(text);
     }
 
-    public TextBuilder startDrawing(String text) {
-        return new TextBuilder(this, text);
+    /**
+     * start drawing a range of a char array, see {@link #startDrawing(CharSequence)}
+     * NOTE: the characters are not copied, they must not change before draw() is called.
+     */
+    public TextBuilder startDrawing(char[] text, int offset, int length) {
+        return textBuilder.reset(textBuilder.charArraySequence.set(text, offset, length));
     }
 
     public static class TextBuilder {
 
-        private final float length;
+        private float length;
         private Font font;
-        private String text;
+        private CharSequence text;
         private float x = 0.0f;
         private float y = 0.0f;
         private float z;
         private float angleDegX = 0.0f;
         private float angleDegY = 0.0f;
         private float angleDegZ = 0.0f;
+        private final CharArraySequence charArraySequence = new CharArraySequence();
+
+        public TextBuilder(Font font, CharSequence text) {
+            this.font = font;
+            reset(text);
+        }
 
-        public TextBuilder(Font font, String text) {
+        private TextBuilder(Font font) {
             this.font = font;
+        }
+
+        private TextBuilder reset(CharSequence text) {
             this.text = text;
             this.length = font.getLength(text);
+            x = 0.0f;
+            y = 0.0f;
+            z = 0.0f;
+            angleDegX = 0.0f;
+            angleDegY = 0.0f;
+            angleDegZ = 0.0f;
+            return this;
         }
 
         public TextBuilder at(float x, float y) {
@@ -306,11 +994,154 @@ public class Font {
         }
     }
 
-    public void draw(String text, float x, float y) {
+    public void draw(CharSequence text, float x, float y) {
 
         draw(text, x, y, 0.0f, 0.0f, 0.0f, 0.0f);
     }
 
+    /**
+     * draw a range of a char array at the specified x,y position (bottom left of text; including descent)
+     */
+    public void draw(char[] text, int offset, int length, float x, float y) {
+        draw(charArraySequence.set(text, offset, length), x, y, 0.0f, 0.0f, 0.0f, 0.0f);
+    }
+
+    /**
+     * get the advance of a digit in numbers drawn with drawInt(), drawLong() and drawFloat().
+     * all digits advance by the width of the widest one, so changing values do not jitter.
+     */
+    public float getDigitAdvance() {
+        return (characters.digitWidthMax + spaceX) * scaleX;
+    }
+
+    public float drawInt(int value, float x, float y) {
+        return drawLong(value, 0, x, y);
+    }
+
+    public float drawInt(int value, int columns, float x, float y) {
+        return drawLong(value, columns, x, y);
+    }
+
+    public float drawLong(long value, float x, float y) {
+        return drawLong(value, 0, x, y);
+    }
+
+    /**
+     * draw a number without formatting it into a String first
+     *
+     * @param value   the number to draw
+     * @param columns if > 0, right align the number in a field of this many digit advances starting at x, otherwise left align it at x
+     * @param x       the x position of the field
+     * @param y       the y position (bottom of text; including descent)
+     * @return the length of the drawn number, or of the field if columns > 0
+     */
+    public float drawLong(long value, int columns, float x, float y) {
+        int start = formatLong(value, numberChars.length);
+        return drawNumber(start, columns, x, y);
+    }
+
+    public float drawFloat(float value, int decimals, float x, float y) {
+        return drawFloat(value, decimals, 0, x, y);
+    }
+
+    /**
+     * draw a number with a fixed number of decimals (rounded half away from zero) without formatting it into a String first.
+     * numbers with more digits than a long holds are drawn in exponent form (e.g. 1.50E30), NaN and infinities as
+     * "NaN" and "Infinity".
+     *
+     * @param value    the number to draw
+     * @param decimals the number of digits after the decimal point, 0 to {@value #MAX_DECIMALS}
+     * @param columns  if > 0, right align the number in a field of this many digit advances starting at x, otherwise left align it at x
+     * @param x        the x position of the field
+     * @param y        the y position (bottom of text; including descent)
+     * @return the length of the drawn number, or of the field if columns > 0
+     */
+    public float drawFloat(float value, int decimals, int columns, float x, float y) {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("decimals must be between 0 and " + MAX_DECIMALS + ": " + decimals);
+        }
+        int start = formatFloat(value, decimals, numberChars.length);
+        return drawNumber(start, columns, x, y);
+    }
+
+    private float drawNumber(int start, int columns, float x, float y) {
+        CharSequence number = charArraySequence.set(numberChars, start, numberChars.length - start);
+        float length = getLength(number, true);
+        if (columns > 0) {
+            float fieldLength = columns * getDigitAdvance() - spaceX * scaleX;
+            draw(number, x + fieldLength - length, y, 0.0f, 0.0f, 0.0f, 0.0f, true);
+            return fieldLength;
+        }
+        draw(number, x, y, 0.0f, 0.0f, 0.0f, 0.0f, true);
+        return length;
+    }
+
+    /**
+     * write the digits of value into numberChars, ending before index end
+     *
+     * @return the index of the first character written
+     */
+    private int formatLong(long value, int end) {
+        int start = end;
+        boolean negative = value < 0;
+        if (!negative) {
+            value = -value;                                     // NOTE: digits are taken from the negative value, so Long.MIN_VALUE works
+        }
+        do {
+            numberChars[--start] = (char) ('0' - (value % 10));
+            value /= 10;
+        } while (value != 0);
+        if (negative) {
+            numberChars[--start] = '-';
+        }
+        return start;
+    }
+
+    private int formatFloat(float value, int decimals, int end) {
+        if (Float.isNaN(value)) {
+            return copyNumber("NaN", end);
+        }
+        if (Float.isInfinite(value)) {
+            return copyNumber(value > 0 ? "Infinity" : "-Infinity", end);
+        }
+        long power = POWERS_OF_TEN[decimals];
+        double magnitude = Math.abs((double) value);
+        long scaled;
+        int start = end;
+        if (magnitude * power >= Long.MAX_VALUE) {
+            // too large for the digits to fit a long, where Math.round() would saturate: draw e.g. 1.50E30 instead
+            int exponent = (int) Math.floor(Math.log10(magnitude));
+            scaled = Math.round(magnitude / Math.pow(10, exponent) * power);
+            if (scaled >= 10 * power) {                         // Rounded Up to 10.0
+                scaled /= 10;
+                exponent++;
+            }
+            start = formatLong(exponent, start);
+            numberChars[--start] = 'E';
+        } else {
+            scaled = Math.round(magnitude * power);
+        }
+        if (decimals > 0) {
+            long fraction = scaled % power;
+            for (int i = 0; i < decimals; i++) {
+                numberChars[--start] = (char) ('0' + (fraction % 10));
+                fraction /= 10;
+            }
+            numberChars[--start] = '.';
+        }
+        start = formatLong(scaled / power, start);
+        if (value < 0 && scaled != 0) {                         // no "-0.00"
+            numberChars[--start] = '-';
+        }
+        return start;
+    }
+
+    private int copyNumber(String text, int end) {
+        int start = end - text.length();
+        text.getChars(0, text.length(), numberChars, start);
+        return start;
+    }
+
     private static class FontMetrics {
 
         private final float actualHeightInPixels;
@@ -323,11 +1154,10 @@ public class Font {
             this.descentInPixels = descentInPixels;
         }
 
-        public static FontMetrics loadFromPaint(Paint paint) {
-            Paint.FontMetrics fm = paint.getFontMetrics();
-            float height = (float) ceil(abs(fm.bottom) + abs(fm.top));
-            float ascent = (float) ceil(abs(fm.ascent));
-            float descent = (float) ceil(abs(fm.descent));
+        public static FontMetrics loadFromRasterizer(GlyphRasterizer rasterizer) {
+            float height = (float) ceil(abs(rasterizer.getBottom()) + abs(rasterizer.getTop()));
+            float ascent = (float) ceil(abs(rasterizer.getAscent()));
+            float descent = (float) ceil(abs(rasterizer.getDescent()));
             return new FontMetrics(height, ascent, descent);
         }
     }
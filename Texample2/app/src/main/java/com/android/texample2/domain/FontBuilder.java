@@ -11,20 +11,47 @@ public class FontBuilder {
     private int size;
     private int paddingX = 0;
     private int paddingY = 0;
+    private RenderStats stats;
+    private GlyphRasterizer rasterizer;
+    private VertexFormat vertexFormat = VertexFormat.FLOAT;
+    private int lodLevels = 1;
 
     public static FontBuilder createFont() {
         return new FontBuilder();
     }
 
     public Font build() {
-        Font font = new Font(program);
-        // Load the font from file (set size + padding), creates the texture
+        Font font = prepare();
         // NOTE: after a successful call to this the font is ready for rendering!
-        Typeface typeface = Typeface.createFromAsset(assets, fontFile);  // Create the Typeface from Font File
-        font.load(typeface, size, paddingX, paddingY);
+        upload(font);
         return font;
     }
 
+    /**
+     * load the font from file (set size + padding) and draw its characters, without creating the texture
+     * NOTE: makes no GL calls, so it can run on any thread, see {@link FontPreloader}
+     */
+    Font prepare() {
+        Font font = new Font(program, stats != null ? stats : new RenderStats(), vertexFormat);
+        GlyphRasterizer glyphs = rasterizer;
+        if (glyphs == null) {
+            Typeface typeface = Typeface.createFromAsset(assets, fontFile);  // Create the Typeface from Font File
+            glyphs = new PaintGlyphRasterizer(typeface, size);
+        }
+        font.prepare(glyphs, paddingX, paddingY);
+        return font;
+    }
+
+    /**
+     * create the textures of a font returned by prepare(), on the GL thread
+     */
+    void upload(Font font) {
+        font.upload();
+        if (lodLevels > 1) {
+            font.createLodLevels(lodLevels);
+        }
+    }
+
     public FontBuilder program(FontProgram program) {
         this.program = program;
         return this;
@@ -50,4 +77,39 @@ public class FontBuilder {
         this.paddingY = paddingY;
         return this;
     }
+
+    /**
+     * measure and draw the characters with the specified rasterizer instead of a Typeface loaded from the assets
+     */
+    public FontBuilder rasterizer(GlyphRasterizer rasterizer) {
+        this.rasterizer = rasterizer;
+        return this;
+    }
+
+    /**
+     * the layout of the vertices uploaded for each batch, VertexFormat.PACKED uploads 60% fewer bytes than the default VertexFormat.FLOAT
+     */
+    public FontBuilder vertexFormat(VertexFormat vertexFormat) {
+        this.vertexFormat = vertexFormat;
+        return this;
+    }
+
+    /**
+     * keep lower resolution copies of the font texture for text that is small on screen, see Font.createLodLevels().
+     * needs a padding of at least Font.getLodPadding(lodLevels).
+     *
+     * @param lodLevels the number of texture levels including the full resolution, 1 for the full resolution only
+     */
+    public FontBuilder lodLevels(int lodLevels) {
+        this.lodLevels = lodLevels;
+        return this;
+    }
+
+    /**
+     * share a set of counters between fonts, so their work is reported together
+     */
+    public FontBuilder stats(RenderStats stats) {
+        this.stats = stats;
+        return this;
+    }
 }
@@ -0,0 +1,250 @@
+package com.android.texample2.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Loads many fonts at once: the characters of every font are measured and drawn in parallel on a pool of worker
+ * threads, which needs no GL context, and only the texture uploads are left for the GL thread.
+ * Finished fonts wait in a queue until the GL thread calls {@link #upload()} (e.g. once per frame, to keep showing a
+ * progress screen) or {@link #uploadAll()} (to block until every font is ready).
+ * <p>
+ * Usage:
+ * <pre>
+ * FontPreloader preloader = new FontPreloader(4);
+ * preloader.add(createFont().program(fontProgram).assets(assets).font("Roboto-Regular.ttf").size(60));
+ * preloader.add(createFont().program(fontProgram).assets(assets).font("Roboto-Bold.ttf").size(20));
+ * preloader.start(listener);
+ * ...
+ * preloader.upload();                    // on the GL thread, every frame until isDone()
+ * Font title = preloader.getFont(0);
+ * </pre>
+ * NOTE: upload() and uploadAll() must be called on the GL thread, the listener is called from them. Fonts that share
+ * RenderStats through FontBuilder.stats() are fine, the workers do not record into them.
+ */
+public class FontPreloader {
+
+    /**
+     * receives the progress of a preloader, on the GL thread
+     */
+    public interface Listener {
+
+        /**
+         * @param index  the index of the font in the order it was added
+         * @param loaded the number of fonts ready so far, including this one
+         * @param total  the number of fonts added
+         */
+        void onFontLoaded(int index, Font font, int loaded, int total);
+
+        /**
+         * @param elapsedNanos the wall-clock time from start() until the last font was uploaded
+         */
+        void onFinished(long elapsedNanos);
+    }
+
+    /**
+     * a font drawn by a worker, or the error that stopped it
+     */
+    private static class Result {
+
+        private final int index;
+        private final Font font;
+        private final Throwable error;
+        private final long rasterizeNanos;
+
+        Result(int index, Font font, Throwable error, long rasterizeNanos) {
+            this.index = index;
+            this.font = font;
+            this.error = error;
+            this.rasterizeNanos = rasterizeNanos;
+        }
+    }
+
+    private final int threads;
+    private final List<FontBuilder> builders = new ArrayList<FontBuilder>();
+    private final LinkedBlockingQueue<Result> finished = new LinkedBlockingQueue<Result>();
+    private ExecutorService executor;
+    private Listener listener;
+    private Font[] fonts;
+    private int loaded;
+    private long startTime;                                    // System.nanoTime() at start()
+    private long elapsedNanos;                                 // start() Until the Last Upload, 0 = Not Done
+    private long rasterizeNanos;                               // Sum of the Time Each Font Took on its Worker
+
+    /**
+     * @param threads the number of worker threads, e.g. Runtime.getRuntime().availableProcessors()
+     */
+    public FontPreloader(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid number of threads: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * add a font to load, in the state it has when start() is called
+     * NOTE: the builder must not be changed or used elsewhere until the font is loaded
+     */
+    public FontPreloader add(FontBuilder builder) {
+        if (executor != null) {
+            throw new IllegalStateException("Already started");
+        }
+        builders.add(builder);
+        return this;
+    }
+
+    /**
+     * start drawing the fonts on the worker threads
+     *
+     * @param listener receives the progress, or null
+     */
+    public void start(Listener listener) {
+        if (executor != null) {
+            throw new IllegalStateException("Already started");
+        }
+        this.listener = listener;
+        fonts = new Font[builders.size()];
+        startTime = System.nanoTime();
+        executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, builders.size())), new ThreadFactory() {
+            private int count;
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "FontPreloader " + ++count);
+                thread.setDaemon(true);                        // Never Keeps the App Alive
+                return thread;
+            }
+        });
+        for (int i = 0; i < builders.size(); i++) {
+            final int index = i;
+            final FontBuilder builder = builders.get(i);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    long start = System.nanoTime();
+                    try {
+                        Font font = builder.prepare();
+                        finished.add(new Result(index, font, null, System.nanoTime() - start));
+                    } catch (Throwable e) {
+                        // NOTE: Errors too (e.g. an OutOfMemoryError on a large atlas), a font that never arrives in
+                        // the queue would leave uploadAll() waiting forever
+                        finished.add(new Result(index, null, e, System.nanoTime() - start));
+                    }
+                }
+            });
+        }
+        executor.shutdown();                                   // Workers Exit When the Queue is Empty
+        if (builders.isEmpty()) {
+            finish();
+        }
+    }
+
+    /**
+     * upload the textures of the fonts the workers finished so far, without waiting for the others
+     *
+     * @return the number of fonts uploaded
+     * @throws IllegalStateException caused by the error a worker failed with, for the first font that failed
+     */
+    public int upload() {
+        checkStarted();
+        int count = 0;
+        Result result;
+        while ((result = finished.poll()) != null) {
+            upload(result);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * upload every font, waiting for the workers to finish them
+     *
+     * @throws IllegalStateException caused by the error a worker failed with, for the first font that failed
+     */
+    public void uploadAll() {
+        checkStarted();
+        while (!isDone()) {
+            try {
+                upload(finished.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading fonts", e);
+            }
+        }
+    }
+
+    private void checkStarted() {
+        if (executor == null) {
+            throw new IllegalStateException("Not started");
+        }
+    }
+
+    private void upload(Result result) {
+        rasterizeNanos += result.rasterizeNanos;
+        if (result.error != null) {
+            executor.shutdownNow();
+            throw new IllegalStateException("Failed to load font " + result.index, result.error);
+        }
+        builders.get(result.index).upload(result.font);
+        fonts[result.index] = result.font;
+        loaded++;
+        if (listener != null) {
+            listener.onFontLoaded(result.index, result.font, loaded, fonts.length);
+        }
+        if (loaded == fonts.length) {
+            finish();
+        }
+    }
+
+    private void finish() {
+        elapsedNanos = System.nanoTime() - startTime;
+        if (listener != null) {
+            listener.onFinished(elapsedNanos);
+        }
+    }
+
+    /**
+     * @return true once every font is uploaded
+     */
+    public boolean isDone() {
+        return fonts != null && loaded == fonts.length;
+    }
+
+    /**
+     * @return the number of fonts uploaded so far
+     */
+    public int getLoadedCount() {
+        return loaded;
+    }
+
+    public int getFontCount() {
+        return builders.size();
+    }
+
+    /**
+     * @param index the index of the font in the order it was added
+     * @return the font, or null if it is not uploaded yet
+     */
+    public Font getFont(int index) {
+        return fonts != null ? fonts[index] : null;
+    }
+
+    /**
+     * @return the wall-clock time from start() until the last font was uploaded, 0 until isDone()
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the time the fonts uploaded so far took to draw on their workers, added up: about the time loading them
+     * one after another would have taken, to compare with getElapsedNanos()
+     */
+    public long getRasterizeNanos() {
+        return rasterizeNanos;
+    }
+}
@@ -3,16 +3,41 @@ package com.android.texample2.domain;
 
 import com.android.texample2.AttributeVariable;
 import com.android.texample2.UniformVariable;
+import com.android.texample2.gl.GL;
 
-import static android.opengl.GLES20.*;
 import static com.android.texample2.UniformVariable.*;
 
 public class FontProgram {
 
+    private final GL gl;
     private int programHandle;
+    // NOTE: looked up once, glGetUniformLocation() is too slow to call on every begin()
+    private final int colorHandle;
+    private final int textureUniformHandle;
+    private final int mvpMatricesHandle;
+    private final int vertexScaleHandle;
+    private final int outlineColorHandle;
+    private final int outlineWidthHandle;
+    private final int shadowColorHandle;
+    private final int shadowOffsetHandle;
+    private final int premultipliedHandle;
 
-    public FontProgram(int programHandle) {
+    public FontProgram(GL gl, int programHandle) {
+        this.gl = gl;
         this.programHandle = programHandle;
+        colorHandle = getHandle(COLOR);
+        textureUniformHandle = getHandle(TEXTURE);
+        mvpMatricesHandle = getHandle(MVP_MATRIX);
+        vertexScaleHandle = getHandle(VERTEX_SCALE);
+        outlineColorHandle = getHandle(OUTLINE_COLOR);
+        outlineWidthHandle = getHandle(OUTLINE_WIDTH);
+        shadowColorHandle = getHandle(SHADOW_COLOR);
+        shadowOffsetHandle = getHandle(SHADOW_OFFSET);
+        premultipliedHandle = getHandle(PREMULTIPLIED);
+    }
+
+    public GL getGL() {
+        return gl;
     }
 
     public int getProgramHandle() {
@@ -20,22 +45,53 @@ public class FontProgram {
     }
 
     public int getColorHandle() {
-        return getHandle(COLOR);
+        return colorHandle;
     }
 
     public int getTextureUniformHandle() {
-        return getHandle(TEXTURE);
+        return textureUniformHandle;
     }
 
     public int getMvpMatricesHandle() {
-        return getHandle(MVP_MATRIX);
+        return mvpMatricesHandle;
+    }
+
+    /**
+     * @return the handle of the vec2 uniform of the units per position step and per texture coordinate step, -1 if
+     * the program does not use it
+     */
+    public int getVertexScaleHandle() {
+        return vertexScaleHandle;
+    }
+
+    public int getOutlineColorHandle() {
+        return outlineColorHandle;
+    }
+
+    public int getOutlineWidthHandle() {
+        return outlineWidthHandle;
+    }
+
+    public int getShadowColorHandle() {
+        return shadowColorHandle;
+    }
+
+    public int getShadowOffsetHandle() {
+        return shadowOffsetHandle;
+    }
+
+    /**
+     * @return the handle of the float uniform that is 1 to draw an RGBA texture with its own colors, 0 to draw glyphs
+     */
+    public int getPremultipliedHandle() {
+        return premultipliedHandle;
     }
 
     public int getHandle(UniformVariable uniformVariable) {
-        return glGetUniformLocation(programHandle, uniformVariable.getName());
+        return gl.glGetUniformLocation(programHandle, uniformVariable.getName());
     }
 
     public int getHandle(AttributeVariable attributeVariable) {
-        return glGetAttribLocation(programHandle, attributeVariable.getName());
+        return gl.glGetAttribLocation(programHandle, attributeVariable.getName());
     }
 }
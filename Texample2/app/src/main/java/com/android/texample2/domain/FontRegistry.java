@@ -0,0 +1,221 @@
+package com.android.texample2.domain;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.AssetManager;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static com.android.texample2.domain.FontBuilder.createFont;
+
+/**
+ * Hands out shared fonts, so every user of the same font file, size, padding and atlas levels draws with the same texture.
+ * Fonts are reference counted: every {@link #acquire} must be matched by a {@link #release}. A font without users
+ * keeps its texture, so acquiring it again is free, until {@link #trimMemory(int)} signals memory pressure.
+ * <p>
+ * Usage:
+ * <pre>
+ * FontRegistry fonts = new FontRegistry(program, context.getAssets());
+ * Font title = fonts.acquire("Roboto-Regular.ttf", 60);
+ * ...
+ * fonts.release(title);
+ * </pre>
+ * NOTE: must be used on the GL thread, forward ComponentCallbacks2.onTrimMemory() with GLSurfaceView.queueEvent().
+ * The textures of the fonts belong to the GL context, call {@link #restore(FontProgram)} when the context was recreated.
+ * Shared fonts also share their scale and spacing, a user that changes them should restore them after drawing.
+ * Anything that changes the texture of a shared font (e.g. Font.createLodLevels()) must be part of the acquire() instead.
+ */
+public class FontRegistry {
+
+    private static class Key {
+
+        private final String fontFile;
+        private final int size;
+        private final int paddingX, paddingY;
+        private final int lodLevels;
+
+        Key(String fontFile, int size, int paddingX, int paddingY, int lodLevels) {
+            this.fontFile = fontFile;
+            this.size = size;
+            this.paddingX = paddingX;
+            this.paddingY = paddingY;
+            this.lodLevels = lodLevels;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return size == key.size && paddingX == key.paddingX && paddingY == key.paddingY && lodLevels == key.lodLevels
+                    && fontFile.equals(key.fontFile);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = fontFile.hashCode();
+            result = 31 * result + size;
+            result = 31 * result + paddingX;
+            result = 31 * result + paddingY;
+            result = 31 * result + lodLevels;
+            return result;
+        }
+    }
+
+    private static class Entry {
+
+        private final Font font;
+        private int references;
+
+        Entry(Font font) {
+            this.font = font;
+        }
+    }
+
+    private FontProgram program;
+    private final AssetManager assets;
+    private final RenderStats stats;
+
+    private final Map<Key, Entry> entries = new HashMap<Key, Entry>();
+    private final Map<Font, Entry> entriesByFont = new IdentityHashMap<Font, Entry>();
+    private int loads;
+    private int releasedTextures;
+
+    public FontRegistry(FontProgram program, AssetManager assets) {
+        this(program, assets, new RenderStats());
+    }
+
+    /**
+     * @param stats the counters shared by all fonts of the registry
+     */
+    public FontRegistry(FontProgram program, AssetManager assets, RenderStats stats) {
+        this.program = program;
+        this.assets = assets;
+        this.stats = stats;
+    }
+
+    public Font acquire(String fontFile, int size) {
+        return acquire(fontFile, size, 0, 0);
+    }
+
+    public Font acquire(String fontFile, int size, int paddingX, int paddingY) {
+        return acquire(fontFile, size, paddingX, paddingY, 1);
+    }
+
+    /**
+     * get the font with the specified file, size, padding and atlas levels, loading it if no user has it yet
+     *
+     * @param lodLevels the number of atlas levels including the full resolution one, see FontBuilder.lodLevels()
+     */
+    public Font acquire(String fontFile, int size, int paddingX, int paddingY, int lodLevels) {
+        Key key = new Key(fontFile, size, paddingX, paddingY, lodLevels);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            Font font = createFont()
+                    .program(program)
+                    .assets(assets)
+                    .font(fontFile)
+                    .size(size)
+                    .padding(paddingX, paddingY)
+                    .lodLevels(lodLevels)
+                    .stats(stats)
+                    .build();
+            entry = new Entry(font);
+            entries.put(key, entry);
+            entriesByFont.put(font, entry);
+            loads++;
+        }
+        entry.references++;
+        return entry.font;
+    }
+
+    /**
+     * give up a font returned by acquire(). the font stays loaded without users until memory runs low.
+     */
+    public void release(Font font) {
+        Entry entry = entriesByFont.get(font);
+        if (entry == null || entry.references == 0) {
+            throw new IllegalArgumentException("Font was not acquired from this registry");
+        }
+        entry.references--;
+    }
+
+    /**
+     * free the textures of the fonts without users when the level signals memory pressure,
+     * pass the level of ComponentCallbacks2.onTrimMemory()
+     */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            releaseUnused();
+        }
+    }
+
+    /**
+     * free the textures of all fonts without users
+     */
+    public void releaseUnused() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.references == 0) {
+                iterator.remove();
+                entriesByFont.remove(entry.font);
+                entry.font.dispose();
+                releasedTextures++;
+            }
+        }
+    }
+
+    /**
+     * recreate the textures of all loaded fonts after the GL context was lost, from the pixels the fonts kept
+     *
+     * @param program the font program created in the new context, used for fonts loaded later too
+     */
+    public void restore(FontProgram program) {
+        this.program = program;
+        for (Entry entry : entries.values()) {
+            entry.font.restore(program);
+        }
+    }
+
+    public RenderStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return the number of loaded fonts, with or without users
+     */
+    public int getLoadedFonts() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of loaded fonts without users
+     */
+    public int getUnusedFonts() {
+        int unused = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.references == 0) {
+                unused++;
+            }
+        }
+        return unused;
+    }
+
+    /**
+     * @return the number of times a font was loaded, i.e. acquired without being shared
+     */
+    public int getLoads() {
+        return loads;
+    }
+
+    /**
+     * @return the number of font textures freed by releaseUnused() or trimMemory()
+     */
+    public int getReleasedTextures() {
+        return releasedTextures;
+    }
+}
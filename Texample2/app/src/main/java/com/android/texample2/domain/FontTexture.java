@@ -1,18 +1,21 @@
 package com.android.texample2.domain;
 
 
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import android.graphics.Paint;
 import android.opengl.Matrix;
 
-import static android.opengl.GLES20.GL_TEXTURE_2D;
-import static android.opengl.GLES20.glBindTexture;
+import com.android.texample2.gl.GL;
+
+import java.nio.ByteBuffer;
+
+import static com.android.texample2.gl.GL.GL_ALPHA;
+import static com.android.texample2.gl.GL.GL_TEXTURE_2D;
 import static com.android.texample2.domain.Font.CHAR_CNT;
 import static com.android.texample2.domain.Font.CHAR_END;
 import static com.android.texample2.domain.Font.CHAR_NONE;
 import static com.android.texample2.domain.Font.CHAR_START;
 import static java.lang.Math.ceil;
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.ByteOrder.nativeOrder;
 
 class FontTexture {
 
@@ -27,10 +30,17 @@ class FontTexture {
     private TextureRegion region;
     // Font Texture ID
     private int textureId;
+    // Pixels of the Texture (GL_ALPHA), Kept to Restore the Texture After the GL Context was Lost
+    private ByteBuffer pixels;
     // Region of Each Character (Texture Coordinates)
     private TextureRegion[] textureCoordinates;
+    // Pixels Covered by Each Character, Relative to its Cell (Left, Top, Right, Bottom; Right/Bottom Exclusive)
+    private int[] inkBounds;
+
+    private final GL gl;
 
-    public FontTexture(int cellWidth, int cellHeight) {
+    public FontTexture(GL gl, int cellWidth, int cellHeight) {
+        this.gl = gl;
         //get texture size based on max font size (width or height)
         this.size = calculateTextureSize(cellWidth, cellHeight);
         // calculate rows/columns
@@ -45,8 +55,90 @@ class FontTexture {
         textureCoordinates = initializeTextureCoordinates(cellWidth, cellHeight);
     }
 
-    public void buildFontMap(Paint paint, int cellWidth, int cellHeight, float xOffset, float yOffset) {
-        textureId = buildFontMap(paint, size, cellWidth, cellHeight, xOffset, yOffset);
+    /**
+     * create the next level of an atlas chain from the pixels of this one
+     */
+    private FontTexture(FontTexture source) {
+        this.gl = source.gl;
+        this.size = source.size / 2;
+        colCnt = source.colCnt;
+        rowCnt = source.rowCnt;
+        region = new TextureRegion(size, size, 0, 0, size, size);
+        // NOTE: the texture coordinates are normalized, so the character regions are the same at every resolution
+        textureCoordinates = source.textureCoordinates;
+        inkBounds = source.inkBounds;
+
+        pixels = downsample(source.pixels, source.size);
+        textureId = TextureHelper.loadTexture(gl, size, size, GL_ALPHA, pixels);
+    }
+
+    /**
+     * @return the same characters at half the resolution, each pixel the average of 2x2 pixels of this texture
+     */
+    public FontTexture createHalfResolution() {
+        return new FontTexture(this);
+    }
+
+    private static ByteBuffer downsample(ByteBuffer source, int sourceSize) {
+        int size = sourceSize / 2;
+        ByteBuffer result = allocateDirect(size * size).order(nativeOrder());
+        for (int y = 0; y < size; y++) {
+            int row = (2 * y) * sourceSize;                    // First of the two source rows
+            for (int x = 0; x < size; x++) {
+                int i = row + 2 * x;
+                int sum = (source.get(i) & 0xff) + (source.get(i + 1) & 0xff)
+                        + (source.get(i + sourceSize) & 0xff) + (source.get(i + sourceSize + 1) & 0xff);
+                result.put(y * size + x, (byte) ((sum + 2) / 4));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * draw the characters into the pixels of the texture, without creating the texture
+     * NOTE: makes no GL calls, so it can run on any thread, see {@link FontPreloader}
+     */
+    public void drawFontMap(GlyphRasterizer rasterizer, int cellWidth, int cellHeight, float xOffset, float yOffset) {
+        drawFontMap(rasterizer, size, cellWidth, cellHeight, xOffset, yOffset);
+        inkBounds = findInkBounds(cellWidth, cellHeight);
+    }
+
+    /**
+     * create the texture from the pixels drawn by drawFontMap()
+     */
+    public void uploadTexture() {
+        pixels.position(0);
+        textureId = TextureHelper.loadTexture(gl, size, size, GL_ALPHA, pixels);
+    }
+
+    /**
+     * find the smallest rectangle of each cell that contains all its non-transparent pixels
+     */
+    private int[] findInkBounds(int cellWidth, int cellHeight) {
+        int[] bounds = new int[CHAR_CNT * 4];
+        for (int characterIndex = 0; characterIndex < CHAR_CNT; characterIndex++) {
+            TextureRegion cell = textureCoordinates[characterIndex];
+            int cellX = (int) (cell.u1 * size);
+            int cellY = (int) (cell.v1 * size);
+            int left = cellWidth, top = cellHeight, right = 0, bottom = 0;
+            for (int y = 0; y < cellHeight && cellY + y < size; y++) {
+                int row = (cellY + y) * size + cellX;
+                for (int x = 0; x < cellWidth && cellX + x < size; x++) {
+                    if (pixels.get(row + x) != 0) {
+                        left = Math.min(left, x);
+                        right = Math.max(right, x + 1);
+                        top = Math.min(top, y);
+                        bottom = Math.max(bottom, y + 1);
+                    }
+                }
+            }
+            int i = characterIndex * 4;
+            bounds[i] = left;
+            bounds[i + 1] = top;
+            bounds[i + 2] = right;
+            bounds[i + 3] = bottom;
+        }
+        return bounds;
     }
 
     private int calculateTextureSize(int cellWidth, int cellHeight) {
@@ -70,28 +162,30 @@ class FontTexture {
         }
     }
 
-    private int buildFontMap(Paint paint, int textureSize, int cellWidth, int cellHeight, float xOffset, float yOffset) {
-        Bitmap bitmap = Bitmap.createBitmap(textureSize, textureSize, Bitmap.Config.ALPHA_8);
-        bitmap.eraseColor(0x00000000);
+    private void drawFontMap(GlyphRasterizer rasterizer, int textureSize, int cellWidth, int cellHeight, float xOffset, float yOffset) {
+        char[] characters = new char[CHAR_CNT];
+        float[] characterX = new float[CHAR_CNT];
+        float[] characterY = new float[CHAR_CNT];
 
-        Canvas canvas = new Canvas(bitmap);
         float x = xOffset;
         float y = yOffset;
 
-        char[] characterHolder = new char[1];
-        for (char c = CHAR_START; c <= CHAR_END; c++) {
-            characterHolder[0] = c;
-            canvas.drawText(characterHolder, 0, 1, x, y, paint);
+        int i = 0;
+        for (char c = CHAR_START; c <= CHAR_END; c++, i++) {
+            characters[i] = c;
+            characterX[i] = x;
+            characterY[i] = y;
             x += cellWidth;
             if ((x + cellWidth - xOffset) > textureSize) {
                 x = xOffset;
                 y += cellHeight;
             }
         }
-        characterHolder[0] = CHAR_NONE;
-        canvas.drawText(characterHolder, 0, 1, x, y, paint);
+        characters[i] = CHAR_NONE;
+        characterX[i] = x;
+        characterY[i] = y;
 
-        return TextureHelper.loadTexture(bitmap);
+        pixels = rasterizer.drawCharacters(textureSize, characters, characterX, characterY);
     }
 
     private TextureRegion[] initializeTextureCoordinates(int cellWidth, int cellHeight) {
@@ -117,12 +211,57 @@ class FontTexture {
         batch.drawSprite(x, y, size, size, region, idMatrix);
     }
 
+    /**
+     * @return the ink bounds of all characters, 4 values per character index: left, top, right and bottom pixel of
+     * the cell (right and bottom exclusive). right &lt;= left for characters without visible pixels.
+     */
+    public int[] getInkBounds() {
+        return inkBounds;
+    }
+
     public TextureRegion getTextureCoordinates(int characterIndex) {
         return textureCoordinates[characterIndex];
     }
 
+    /**
+     * @return the width and height of the texture (pixels)
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public int getTextureId() {
+        return textureId;
+    }
+
+    /**
+     * free the texture and its pixels, the font can not be drawn with afterwards
+     */
+    public void deleteTexture() {
+        if (textureId != 0) {
+            gl.glDeleteTextures(1, new int[]{textureId}, 0);
+            textureId = 0;
+        }
+        pixels = null;
+    }
+
+    /**
+     * upload the pixels again, into a new texture of the current GL context
+     * NOTE: the texture of the lost context is not deleted, it was destroyed with the context
+     */
+    public void restoreTexture() {
+        uploadTexture();
+    }
+
+    /**
+     * @return the size of the pixels kept on the CPU (bytes)
+     */
+    public int getPixelBytes() {
+        return pixels != null ? pixels.capacity() : 0;
+    }
+
     public void bindTexture() {
         // Bind the texture to this unit
-        glBindTexture(GL_TEXTURE_2D, textureId);
+        gl.glBindTexture(GL_TEXTURE_2D, textureId);
     }
 }
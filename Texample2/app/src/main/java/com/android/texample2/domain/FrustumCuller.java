@@ -0,0 +1,95 @@
+package com.android.texample2.domain;
+
+/**
+ * Tests the bounding rectangle of a string against the view frustum before its glyphs are batched.
+ * A string is culled when all corners of its rectangle are outside the same clip plane, or, with a minimum
+ * size set, when it covers less than that many pixels on screen.
+ * <p>
+ * Only math on the matrices, so the culling can be checked without a GL context.
+ */
+public class FrustumCuller {
+
+    public static final int VISIBLE = 0;
+    public static final int OUTSIDE = 1;                       // Outside the view frustum
+    public static final int TOO_SMALL = 2;                     // Smaller on screen than the minimum size
+
+    private int viewportWidth, viewportHeight;                 // Viewport Size (Pixels), 0 = Unknown (No Size Test)
+    private float minPixelSize;                                // 0 = No Size Test
+
+    private final float[] corners = new float[16];             // Clip Space Corners (X,Y,Z,W)
+
+    /**
+     * @param width  the width of the viewport (pixels)
+     * @param height the height of the viewport (pixels)
+     */
+    public void setViewport(int width, int height) {
+        this.viewportWidth = width;
+        this.viewportHeight = height;
+    }
+
+    /**
+     * @param minPixelSize the width or height a string must at least have on screen to be drawn (pixels), 0 to draw all sizes
+     */
+    public void setMinPixelSize(float minPixelSize) {
+        this.minPixelSize = minPixelSize;
+    }
+
+    public float getMinPixelSize() {
+        return minPixelSize;
+    }
+
+    /**
+     * @param mvpMatrix the MVP matrix the string is drawn with
+     * @return VISIBLE, OUTSIDE or TOO_SMALL for the rectangle (in model space, at z = 0)
+     */
+    public int test(float[] mvpMatrix, float left, float bottom, float right, float top) {
+        transform(mvpMatrix, left, bottom, 0);
+        transform(mvpMatrix, right, bottom, 4);
+        transform(mvpMatrix, right, top, 8);
+        transform(mvpMatrix, left, top, 12);
+
+        // outside if all corners are beyond one of the planes -w <= x, y, z <= w
+        for (int axis = 0; axis < 3; axis++) {
+            boolean allBelow = true, allAbove = true;
+            for (int i = 0; i < 16; i += 4) {
+                float w = corners[i + 3];
+                allBelow &= corners[i + axis] < -w;
+                allAbove &= corners[i + axis] > w;
+            }
+            if (allBelow || allAbove) {
+                return OUTSIDE;
+            }
+        }
+
+        if (minPixelSize > 0.0f && viewportWidth > 0 && viewportHeight > 0) {
+            float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+            for (int i = 0; i < 16; i += 4) {
+                float w = corners[i + 3];
+                if (w <= 0.0f) {
+                    return VISIBLE;                            // Crosses the Camera Plane, Size Unknown
+                }
+                float x = corners[i] / w;
+                float y = corners[i + 1] / w;
+                minX = Math.min(minX, x);
+                maxX = Math.max(maxX, x);
+                minY = Math.min(minY, y);
+                maxY = Math.max(maxY, y);
+            }
+            // normalized device coordinates span 2 units across the viewport
+            float width = (maxX - minX) * viewportWidth / 2.0f;
+            float height = (maxY - minY) * viewportHeight / 2.0f;
+            if (width < minPixelSize && height < minPixelSize) {
+                return TOO_SMALL;
+            }
+        }
+        return VISIBLE;
+    }
+
+    private void transform(float[] m, float x, float y, int offset) {
+        // column-major: clip = M * (x, y, 0, 1)
+        corners[offset] = m[0] * x + m[4] * y + m[12];
+        corners[offset + 1] = m[1] * x + m[5] * y + m[13];
+        corners[offset + 2] = m[2] * x + m[6] * y + m[14];
+        corners[offset + 3] = m[3] * x + m[7] * y + m[15];
+    }
+}
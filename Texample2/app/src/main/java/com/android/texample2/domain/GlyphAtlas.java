@@ -0,0 +1,192 @@
+package com.android.texample2.domain;
+
+import com.android.texample2.gl.GL;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.android.texample2.gl.GL.*;
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.ByteOrder.nativeOrder;
+
+/**
+ * A texture of glyphs keyed by glyph ID, filled on demand: a glyph is drawn by the {@link GlyphShaper} and uploaded
+ * with glTexSubImage2D() the first time it is drawn. Glyphs are packed in shelves, rows as high as their highest
+ * glyph. When the texture is full it is cleared and filled again with the glyphs drawn from then on.
+ * <p>
+ * The pixels are kept on the CPU too, so the texture can be restored after the GL context was lost.
+ * NOTE: must be used on the GL thread
+ */
+public class GlyphAtlas {
+
+    private static final int PADDING = 1;                      // Empty Pixels Between Glyphs, so Linear Filtering Does Not Bleed
+
+    /**
+     * a glyph in the atlas
+     */
+    public static class Glyph {
+
+        public final int left, top;                            // Of the Image Relative to the Pen Position (Pixels; Y Down)
+        public final int width, height;                        // Of the Image (Pixels), 0 = No Visible Pixels
+        public final float u1, v1, u2, v2;                     // Texture Coordinates of the Image
+
+        Glyph(int left, int top, int width, int height, float u1, float v1, float u2, float v2) {
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+            this.u1 = u1;
+            this.v1 = v1;
+            this.u2 = u2;
+            this.v2 = v2;
+        }
+    }
+
+    static final Glyph EMPTY = new Glyph(0, 0, 0, 0, 0.0f, 0.0f, 0.0f, 0.0f);
+
+    private final GL gl;
+    private final GlyphShaper shaper;
+    private final int size;                                    // Texture Size (Pixels)
+    private final ByteBuffer pixels;                           // Copy of the Texture (GL_ALPHA)
+    private int textureId;
+    private final Map<Integer, Glyph> glyphs = new HashMap<Integer, Glyph>();
+    private int generation;                                    // Incremented Every Time the Atlas is Cleared
+
+    // shelf packing
+    private int shelfY, shelfHeight, cursorX;
+
+    private final int[] bounds = new int[4];
+    private ByteBuffer upload = allocateDirect(64 * 64).order(nativeOrder());
+    private int uploads;
+
+    /**
+     * @param size the width and height of the texture (pixels)
+     */
+    public GlyphAtlas(GL gl, GlyphShaper shaper, int size) {
+        this.gl = gl;
+        this.shaper = shaper;
+        this.size = size;
+        pixels = allocateDirect(size * size).order(nativeOrder());
+        textureId = TextureHelper.loadTexture(gl, size, size, GL_ALPHA, pixels);
+    }
+
+    /**
+     * @return the glyph, drawn and uploaded first if it is not in the atlas yet, or null if the atlas is full
+     */
+    public Glyph get(int glyphId) {
+        Glyph glyph = glyphs.get(glyphId);
+        if (glyph == null) {
+            glyph = add(glyphId);
+            if (glyph != null) {
+                glyphs.put(glyphId, glyph);
+            }
+        }
+        return glyph;
+    }
+
+    private Glyph add(int glyphId) {
+        ByteBuffer image = shaper.drawGlyph(glyphId, bounds);
+        if (image == null || bounds[2] <= 0 || bounds[3] <= 0) {
+            return EMPTY;
+        }
+        int width = bounds[2], height = bounds[3];
+        // NOTE: rows are uploaded padded to 4 bytes, the default GL_UNPACK_ALIGNMENT
+        int rowBytes = (width + 3) & ~3;
+        if (rowBytes > size || height > size) {
+            return EMPTY;                                      // Can Never Fit, Leave it Out
+        }
+        if (cursorX + rowBytes > size) {
+            shelfY += shelfHeight + PADDING;                   // Start the Next Shelf
+            shelfHeight = 0;
+            cursorX = 0;
+        }
+        if (shelfY + height > size) {
+            return null;                                       // Full
+        }
+        int x = cursorX, y = shelfY;
+        cursorX += rowBytes + PADDING;
+        shelfHeight = Math.max(shelfHeight, height);
+
+        if (upload.capacity() < rowBytes * height) {
+            upload = allocateDirect(rowBytes * height).order(nativeOrder());
+        }
+        upload.clear();
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < rowBytes; column++) {
+                byte value = column < width ? image.get(row * width + column) : 0;
+                upload.put(value);
+                pixels.put((y + row) * size + x + column, value);
+            }
+        }
+        upload.flip();
+        gl.glBindTexture(GL_TEXTURE_2D, textureId);
+        gl.glTexSubImage2D(GL_TEXTURE_2D, 0, x, y, rowBytes, height, GL_ALPHA, GL_UNSIGNED_BYTE, upload);
+        uploads++;
+
+        return new Glyph(bounds[0], bounds[1], width, height,
+                (float) x / size, (float) y / size, (float) (x + width) / size, (float) (y + height) / size);
+    }
+
+    /**
+     * remove all glyphs, e.g. when the atlas is full
+     * NOTE: end the batch drawing with the atlas first, its glyphs are overwritten
+     */
+    public void clear() {
+        glyphs.clear();
+        shelfY = shelfHeight = cursorX = 0;
+        for (int i = 0; i < pixels.capacity(); i++) {
+            pixels.put(i, (byte) 0);
+        }
+        pixels.clear();
+        // NOTE: cleared as a whole, so no pixels of old glyphs are left in the padding of new ones
+        gl.glBindTexture(GL_TEXTURE_2D, textureId);
+        gl.glTexImage2D(GL_TEXTURE_2D, 0, GL_ALPHA, size, size, 0, GL_ALPHA, GL_UNSIGNED_BYTE, pixels);
+        generation++;
+    }
+
+    /**
+     * @return a number that changes every time the atlas is cleared, glyphs got from get() stay valid until it changes
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    public int getGlyphCount() {
+        return glyphs.size();
+    }
+
+    /**
+     * @return the number of glyphs uploaded since the atlas was created
+     */
+    public int getUploads() {
+        return uploads;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getTextureId() {
+        return textureId;
+    }
+
+    /**
+     * upload the pixels again, into a new texture of the current GL context
+     * NOTE: the texture of the lost context is not deleted, it was destroyed with the context
+     */
+    public void restore() {
+        pixels.clear();
+        textureId = TextureHelper.loadTexture(gl, size, size, GL_ALPHA, pixels);
+    }
+
+    /**
+     * delete the texture, the atlas can not be used afterwards
+     */
+    public void dispose() {
+        if (textureId != 0) {
+            gl.glDeleteTextures(1, new int[]{textureId}, 0);
+            textureId = 0;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.android.texample2.domain;
+
+/**
+ * The laid out character positions of lines of text, kept so taps and selections can be resolved without measuring
+ * the text again.
+ * Each line stores the x-position of every character (an interval array, searched with a binary search), and a grid
+ * of columns about one character wide that narrows the search to the few characters overlapping a column.
+ * <p>
+ * Positions are relative to the draw position of the lines, the same as {@link TextBlock#draw(float, float, float[])}:
+ * the last line starts at (0,0) and every line above it is one {@link Font#getScaledCharHeight()} higher.
+ * Character indexes count the characters of all lines as if they were joined with a line break, so a selection maps
+ * directly to the joined text.
+ * <p>
+ * Usage:
+ * <pre>
+ * GlyphIndex index = block.getGlyphIndex();
+ * int caret = index.getCaretAt(touchX - blockX, touchY - blockY);
+ * int count = index.getRangeBounds(selectionStart, caret, rects, 0);
+ * </pre>
+ * NOTE: built with the scale and spacing the font has when it is created, create a new index when they change.
+ */
+public class GlyphIndex {
+
+    private final int lineCount;
+    private final float lineHeight;
+    private final int[] lineStarts;                            // Index of the First Character of Each Line, Plus the End
+    private final float[] offsets;                             // Character X-Positions; Line Lengths + 1 per Line, at lineStarts
+    private final float columnWidth;                           // Grid Column Width (Units)
+    private final int[] gridStarts;                            // Index of the First Column of Each Line in grid, Plus the End
+    private final int[] grid;                                  // First Character (in the Line) Reaching Past the Column Start
+
+    /**
+     * measure the lines with the font
+     *
+     * @param lines the lines of text, from top to bottom
+     */
+    public GlyphIndex(Font font, CharSequence... lines) {
+        lineCount = lines.length;
+        lineHeight = font.getScaledCharHeight();
+        lineStarts = new int[lineCount + 1];
+        for (int line = 0; line < lineCount; line++) {
+            lineStarts[line + 1] = lineStarts[line] + lines[line].length() + 1;   // Line Break Counts as a Character
+        }
+        offsets = new float[lineStarts[lineCount]];
+
+        float totalLength = 0.0f;
+        for (int line = 0; line < lineCount; line++) {
+            font.getCharacterOffsets(lines[line], offsets, lineStarts[line]);
+            totalLength += offsets[lineStarts[line + 1] - 1];
+        }
+        int characters = lineStarts[lineCount] - lineCount;
+        columnWidth = characters > 0 && totalLength > 0.0f ? totalLength / characters : 1.0f;   // About One Character per Column
+
+        gridStarts = new int[lineCount + 1];
+        for (int line = 0; line < lineCount; line++) {
+            gridStarts[line + 1] = gridStarts[line] + (int) (getLineLength(line) / columnWidth) + 1;
+        }
+        grid = new int[gridStarts[lineCount]];
+        for (int line = 0; line < lineCount; line++) {
+            int start = lineStarts[line];
+            int length = lineStarts[line + 1] - start - 1;
+            int character = 0;
+            for (int column = gridStarts[line]; column < gridStarts[line + 1]; column++) {
+                float columnX = (column - gridStarts[line]) * columnWidth;
+                while (character < length - 1 && offsets[start + character + 1] <= columnX) {
+                    character++;
+                }
+                grid[column] = character;
+            }
+        }
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return the number of character indexes, including one line break after every line but the last
+     */
+    public int getLength() {
+        return lineCount > 0 ? lineStarts[lineCount] - 1 : 0;
+    }
+
+    /**
+     * @return the index of the first character of the line
+     */
+    public int getLineStart(int line) {
+        return lineStarts[line];
+    }
+
+    /**
+     * @return the index after the last character of the line, i.e. of its line break
+     */
+    public int getLineEnd(int line) {
+        return lineStarts[line + 1] - 1;
+    }
+
+    /**
+     * @param index a character index, from 0 to getLength()
+     * @return the line containing the character, or ending at the index
+     */
+    public int getLineOf(int index) {
+        if (index < 0 || index > getLength()) {
+            throw new IndexOutOfBoundsException("Invalid index: " + index + ", length: " + getLength());
+        }
+        int low = 0, high = lineCount - 1;
+        while (low < high) {                                   // Last Line Starting at or Before the Index
+            int middle = (low + high + 1) >>> 1;
+            if (lineStarts[middle] <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the line at the y-position, clamped to the first and last line
+     */
+    public int getLineAt(float y) {
+        int line = lineCount - 1 - (int) Math.floor(y / lineHeight);
+        return Math.max(0, Math.min(lineCount - 1, line));
+    }
+
+    /**
+     * @return the index of the character under the position, or -1 if no character is there
+     */
+    public int getCharacterAt(float x, float y) {
+        int line = lineCount - 1 - (int) Math.floor(y / lineHeight);
+        if (line < 0 || line >= lineCount || x < 0.0f || x >= getLineLength(line)) {
+            return -1;
+        }
+        return lineStarts[line] + findCharacter(line, x);
+    }
+
+    /**
+     * get the caret position closest to the position, e.g. to start or extend a selection.
+     * positions above or below the text are moved to the first or last line.
+     *
+     * @return the index of the character the caret is in front of, from 0 to getLength()
+     */
+    public int getCaretAt(float x, float y) {
+        if (lineCount == 0) {
+            return 0;
+        }
+        int line = getLineAt(y);
+        int start = lineStarts[line];
+        if (x <= 0.0f || getLineLength(line) == 0.0f) {
+            return start;
+        }
+        if (x >= getLineLength(line)) {
+            return getLineEnd(line);
+        }
+        int character = findCharacter(line, x);
+        float left = offsets[start + character];
+        float right = offsets[start + character + 1];
+        return start + (x - left < right - x ? character : character + 1);
+    }
+
+    /**
+     * @param index  the index of a character
+     * @param bounds receives left, bottom, right, top of the character
+     * @param offset index in bounds to write the 4 values at
+     */
+    public void getCharacterBounds(int index, float[] bounds, int offset) {
+        int line = getLineOf(index);
+        int end = Math.min(index + 1, getLineEnd(line));
+        setBounds(line, index, end, bounds, offset);
+    }
+
+    /**
+     * get the rectangles covering a range of characters, one per line the range spans
+     *
+     * @param start  the index of the first character of the range
+     * @param end    the index after the last character of the range, may be less than start
+     * @param bounds receives left, bottom, right, top of each rectangle, must have room for 4 values per line of the range
+     * @param offset index in bounds to write the first rectangle at
+     * @return the number of rectangles written
+     */
+    public int getRangeBounds(int start, int end, float[] bounds, int offset) {
+        if (end < start) {
+            int swap = start;
+            start = end;
+            end = swap;
+        }
+        if (start == end) {
+            return 0;
+        }
+        int firstLine = getLineOf(start);
+        int lastLine = getLineOf(end);
+        int count = 0;
+        for (int line = firstLine; line <= lastLine; line++) {
+            int from = Math.max(start, lineStarts[line]);
+            int to = Math.min(end, getLineEnd(line));
+            if (from < to) {                                   // Skip Lines Where Only the Line Break is Selected
+                setBounds(line, from, to, bounds, offset + count * 4);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void setBounds(int line, int from, int to, float[] bounds, int offset) {
+        float bottom = (lineCount - 1 - line) * lineHeight;
+        bounds[offset] = offsets[from];
+        bounds[offset + 1] = bottom;
+        bounds[offset + 2] = offsets[to];
+        bounds[offset + 3] = bottom + lineHeight;
+    }
+
+    private float getLineLength(int line) {
+        return offsets[lineStarts[line + 1] - 1];
+    }
+
+    /**
+     * @param x a position inside the line, 0 <= x < getLineLength(line)
+     * @return the index in the line of the character at x
+     */
+    private int findCharacter(int line, float x) {
+        int start = lineStarts[line];
+        int columns = gridStarts[line + 1] - gridStarts[line];
+        int column = Math.min((int) (x / columnWidth), columns - 1);
+        int low = grid[gridStarts[line] + column];
+        int high = column + 1 < columns ? grid[gridStarts[line] + column + 1] : lineStarts[line + 1] - start - 2;
+        while (low < high) {                                   // Last Character Starting at or Before x
+            int middle = (low + high + 1) >>> 1;
+            if (offsets[start + middle] <= x) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,39 @@
+package com.android.texample2.domain;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Measures and draws the characters of a single typeface at a single size.
+ * Font only depends on this interface to build its atlas, so the glyphs can come from
+ * android.graphics ({@link PaintGlyphRasterizer}) or from any other font engine.
+ */
+public interface GlyphRasterizer {
+
+    /**
+     * @return the font metrics in pixels, relative to the baseline (top/ascent negative, descent/bottom positive)
+     */
+    float getTop();
+
+    float getAscent();
+
+    float getDescent();
+
+    float getBottom();
+
+    /**
+     * @param character the character to measure
+     * @return the advance width of the character in pixels
+     */
+    float getCharWidth(char character);
+
+    /**
+     * draw white characters into a square 8-bit alpha image
+     *
+     * @param textureSize width and height of the image
+     * @param characters  the characters to draw
+     * @param x           the x-position of each character's baseline origin
+     * @param y           the y-position of each character's baseline origin (measured from the top of the image)
+     * @return the alpha of every pixel, one byte per pixel, row by row starting at the top row
+     */
+    ByteBuffer drawCharacters(int textureSize, char[] characters, float[] x, float[] y);
+}
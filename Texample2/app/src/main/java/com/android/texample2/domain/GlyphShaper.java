@@ -0,0 +1,40 @@
+package com.android.texample2.domain;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Shapes strings into glyph runs and draws single glyphs by glyph ID, for a single typeface at a single size.
+ * Unlike {@link GlyphRasterizer}, which measures and draws each character on its own, a shaper sees the whole
+ * string, so ligatures, kerning and complex scripts (e.g. Arabic, Devanagari) come out right.
+ */
+public interface GlyphShaper {
+
+    /**
+     * @return the font metrics in pixels, relative to the baseline (ascent negative, descent positive)
+     */
+    float getAscent();
+
+    float getDescent();
+
+    /**
+     * @return a number that changes whenever the shaper assigns its glyph IDs anew: runs shaped and glyphs drawn
+     * before are invalid then. Never changes for a shaper that uses the glyph IDs of the font.
+     */
+    int getGeneration();
+
+    /**
+     * shape a string of a single direction
+     */
+    ShapedRun shape(CharSequence text);
+
+    /**
+     * draw a single glyph in white into an 8-bit alpha image just large enough for its pixels
+     *
+     * @param glyphId a glyph ID returned by shape()
+     * @param bounds  receives the left and top of the image relative to the pen position (pixels, y down), then its
+     *                width and height
+     * @return the alpha of every pixel of the image, one byte per pixel, row by row starting at the top row, or null
+     * if the glyph has no visible pixels (eg. a space)
+     */
+    ByteBuffer drawGlyph(int glyphId, int[] bounds);
+}
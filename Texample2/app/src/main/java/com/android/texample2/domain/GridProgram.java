@@ -0,0 +1,59 @@
+package com.android.texample2.domain;
+
+
+import com.android.texample2.AttributeVariable;
+import com.android.texample2.UniformVariable;
+import com.android.texample2.gl.GL;
+
+/**
+ * The handles of the grid text program, which draws {@link CharacterGrid}s with a color per cell.
+ */
+public class GridProgram {
+
+    private final GL gl;
+    private final int programHandle;
+    // NOTE: looked up once, glGetUniformLocation() is too slow to call on every draw
+    private final int textureUniformHandle;
+    private final int mvpMatrixHandle;
+    private final int positionHandle;
+    private final int textureCoordinateHandle;
+    private final int colorHandle;
+
+    public GridProgram(GL gl, int programHandle) {
+        this.gl = gl;
+        this.programHandle = programHandle;
+        textureUniformHandle = gl.glGetUniformLocation(programHandle, UniformVariable.TEXTURE.getName());
+        mvpMatrixHandle = gl.glGetUniformLocation(programHandle, UniformVariable.MVP_MATRIX.getName());
+        positionHandle = gl.glGetAttribLocation(programHandle, AttributeVariable.POSITION.getName());
+        textureCoordinateHandle = gl.glGetAttribLocation(programHandle, AttributeVariable.TEXTURE_COORDINATE.getName());
+        colorHandle = gl.glGetAttribLocation(programHandle, AttributeVariable.COLOR.getName());
+    }
+
+    public GL getGL() {
+        return gl;
+    }
+
+    public int getProgramHandle() {
+        return programHandle;
+    }
+
+    public int getTextureUniformHandle() {
+        return textureUniformHandle;
+    }
+
+    public int getMvpMatrixHandle() {
+        return mvpMatrixHandle;
+    }
+
+    public int getPositionHandle() {
+        return positionHandle;
+    }
+
+    public int getTextureCoordinateHandle() {
+        return textureCoordinateHandle;
+    }
+
+    public int getColorHandle() {
+        return colorHandle;
+    }
+}
@@ -0,0 +1,91 @@
+package com.android.texample2.domain;
+
+/**
+ * Picks the level of a font atlas chain to draw a string with, from the size the string has on screen.
+ * Level 0 is the full resolution atlas, every next level has half the resolution of the previous one.
+ * The selected level is the smallest atlas that still has at least one atlas pixel per screen pixel, so text is
+ * never magnified by the level choice, and is minified by less than 2x.
+ * <p>
+ * Only math on the matrices, so the selection can be checked without a GL context.
+ */
+public class LodSelector {
+
+    private final int levels;
+    private int viewportWidth, viewportHeight;                 // Viewport Size (Pixels), 0 = Unknown (Always Level 0)
+
+    /**
+     * @param levels the number of atlas levels to choose from, including the full resolution level
+     */
+    public LodSelector(int levels) {
+        if (levels < 1) {
+            throw new IllegalArgumentException("Invalid number of levels: " + levels);
+        }
+        this.levels = levels;
+    }
+
+    public int getLevels() {
+        return levels;
+    }
+
+    /**
+     * @param width  the width of the viewport the text is drawn to (pixels)
+     * @param height the height of the viewport the text is drawn to (pixels)
+     */
+    public void setViewport(int width, int height) {
+        this.viewportWidth = width;
+        this.viewportHeight = height;
+    }
+
+    /**
+     * @param mvpMatrix   the MVP matrix the string is drawn with
+     * @param x           the x-position of the string in model space
+     * @param y           the y-position of the bottom of the string in model space
+     * @param height      the height of the glyph cells in model space
+     * @param atlasHeight the height of the glyph cells in the full resolution atlas (pixels)
+     * @return the level to draw the string with
+     */
+    public int selectLevel(float[] mvpMatrix, float x, float y, float height, float atlasHeight) {
+        if (levels == 1 || viewportWidth == 0 || viewportHeight == 0) {
+            return 0;
+        }
+        return selectLevel(atlasHeight, getProjectedSize(mvpMatrix, x, y, height));
+    }
+
+    /**
+     * @param atlasPixels     the size of the glyphs in the full resolution atlas (pixels)
+     * @param projectedPixels the size of the glyphs on screen (pixels)
+     * @return the level to draw the glyphs with
+     */
+    public int selectLevel(float atlasPixels, float projectedPixels) {
+        int level = 0;
+        float levelPixels = atlasPixels / 2.0f;                // Size in the next level
+        while (level < levels - 1 && levelPixels >= projectedPixels) {
+            level++;
+            levelPixels /= 2.0f;
+        }
+        return level;
+    }
+
+    /**
+     * project the vertical segment from (x, y) to (x, y + height) in model space to the screen
+     *
+     * @return the length of the projected segment (pixels), the full size if part of the segment is behind the camera
+     */
+    public float getProjectedSize(float[] mvpMatrix, float x, float y, float height) {
+        // column-major: clip = M * (x, y, 0, 1)
+        float bottomX = mvpMatrix[0] * x + mvpMatrix[4] * y + mvpMatrix[12];
+        float bottomY = mvpMatrix[1] * x + mvpMatrix[5] * y + mvpMatrix[13];
+        float bottomW = mvpMatrix[3] * x + mvpMatrix[7] * y + mvpMatrix[15];
+        float topX = bottomX + mvpMatrix[4] * height;
+        float topY = bottomY + mvpMatrix[5] * height;
+        float topW = bottomW + mvpMatrix[7] * height;
+        if (bottomW <= 0.0f || topW <= 0.0f) {
+            return Float.MAX_VALUE;
+        }
+
+        // normalized device coordinates span 2 units across the viewport
+        float dx = (topX / topW - bottomX / bottomW) * viewportWidth / 2.0f;
+        float dy = (topY / topW - bottomY / bottomW) * viewportHeight / 2.0f;
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+}
@@ -0,0 +1,315 @@
+package com.android.texample2.domain;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A UTF-8 text file of any size, memory mapped and read one line at a time, so only the lines being shown are ever
+ * decoded into chars.
+ * Line offsets are found by a background thread after {@link #startIndexing()}; lines can be read as soon as they are
+ * indexed, while the rest of the file is still being scanned.
+ * <p>
+ * Only the start of every {@link #LINES_PER_CHECKPOINT}th line is kept, the lines in between are found by scanning
+ * forward from it, so the index needs 8 bytes per 64 lines. The start of a line after a line longer than
+ * {@link #LONG_LINE_BYTES} is kept too, so finding a line never scans more than 64 short lines, however long the lines
+ * of the file are. The file is mapped in windows of {@link #WINDOW_SIZE} bytes, so a file larger than the address space
+ * can still be read.
+ * <p>
+ * Usage:
+ * <pre>
+ * MappedDocument document = new MappedDocument(new File(path));
+ * document.startIndexing();
+ * DocumentView view = new DocumentView(font, document, 200);
+ * ...
+ * document.close();
+ * </pre>
+ * NOTE: readLine() must be called from one thread at a time, usually the GL thread. The file must not change while open.
+ */
+public class MappedDocument {
+
+    public static final int LINES_PER_CHECKPOINT = 64;
+    public static final int LONG_LINE_BYTES = 1024;           // Lines Longer Than This Also Index the Start of the Next Line
+    public static final int WINDOW_SIZE = 64 * 1024 * 1024;   // Bytes Mapped at Once (per Thread)
+
+    private static final int BYTES_PER_CHAR = 4;              // Maximum UTF-8 Bytes Decoded per Char of the Target
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final long size;
+
+    // written by the indexing thread, checkpoints under the lock
+    private final Object indexLock = new Object();
+    private long[] checkpoints = new long[1024];               // Start of Line i * LINES_PER_CHECKPOINT
+    private int[] longLineNext = new int[16];                  // Lines After a Long Line, Ascending
+    private long[] longLineNextStarts = new long[16];          // and Their Starts
+    private int longLines;
+    private volatile int lineCount;                            // Lines with an Indexed Start
+    private volatile long indexedBytes;
+    private volatile boolean indexed;
+    private volatile IOException indexError;
+    private volatile boolean closed;
+    private Thread indexThread;
+
+    // used by readLine()
+    private MappedByteBuffer window;
+    private long windowStart;                                  // File Position of the Window
+    private int cursorLine = -1;                               // Last Line Read and Its Start, to Read the Next Line Without Scanning
+    private long cursorStart;
+    private byte[] lineBytes = new byte[256];
+    private final CharsetDecoder decoder = Charset.forName("UTF-8").newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    public MappedDocument(File file) throws IOException {
+        this.file = file;
+        this.randomAccessFile = new RandomAccessFile(file, "r");
+        this.channel = randomAccessFile.getChannel();
+        this.size = channel.size();
+        if (size > 0) {
+            lineCount = 1;                                     // Line 0 Starts at 0
+        }
+    }
+
+    /**
+     * start finding the line offsets on a background thread, getLineCount() grows while it runs
+     */
+    public synchronized void startIndexing() {
+        if (indexThread != null) {
+            return;
+        }
+        indexThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    index();
+                } catch (IOException e) {
+                    indexError = e;
+                }
+            }
+        }, "MappedDocument " + file.getName());
+        indexThread.setDaemon(true);
+        indexThread.setPriority(Thread.MIN_PRIORITY);          // Rendering Comes First
+        indexThread.start();
+    }
+
+    private void index() throws IOException {
+        int lines = lineCount;
+        long currentStart = 0;                                 // Start of the Line Being Scanned
+        for (long start = 0; start < size && !closed; start += WINDOW_SIZE) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, size - start));
+            int limit = buffer.limit();
+            for (int i = 0; i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    long lineStart = start + i + 1;
+                    if (lineStart == size) {
+                        break;                                 // Newline at the End, No Line After It
+                    }
+                    if (lines % LINES_PER_CHECKPOINT == 0) {
+                        addCheckpoint(lines / LINES_PER_CHECKPOINT, lineStart);
+                    } else if (lineStart - currentStart > LONG_LINE_BYTES) {
+                        addLongLine(lines, lineStart);         // Not Scanned Past to Find the Lines After It
+                    }
+                    currentStart = lineStart;
+                    lines++;
+                }
+            }
+            // NOTE: the checkpoints are added before the count is published, so every counted line can be found
+            lineCount = lines;
+            indexedBytes = start + limit;
+        }
+        indexed = !closed;
+    }
+
+    private void addCheckpoint(int checkpoint, long lineStart) {
+        synchronized (indexLock) {
+            if (checkpoint == checkpoints.length) {
+                long[] grown = new long[checkpoints.length * 2];
+                System.arraycopy(checkpoints, 0, grown, 0, checkpoints.length);
+                checkpoints = grown;
+            }
+            checkpoints[checkpoint] = lineStart;
+        }
+    }
+
+    private void addLongLine(int nextLine, long nextLineStart) {
+        synchronized (indexLock) {
+            if (longLines == longLineNext.length) {
+                int[] grownLines = new int[longLines * 2];
+                long[] grownStarts = new long[longLines * 2];
+                System.arraycopy(longLineNext, 0, grownLines, 0, longLines);
+                System.arraycopy(longLineNextStarts, 0, grownStarts, 0, longLines);
+                longLineNext = grownLines;
+                longLineNextStarts = grownStarts;
+            }
+            longLineNext[longLines] = nextLine;
+            longLineNextStarts[longLines] = nextLineStart;
+            longLines++;
+        }
+    }
+
+    private long getCheckpoint(int checkpoint) {
+        synchronized (indexLock) {
+            return checkpoints[checkpoint];
+        }
+    }
+
+    /**
+     * decode a line into the target, without its line break
+     *
+     * @param line   the index of the line, less than getLineCount()
+     * @param target receives the chars of the line, a longer line is cut off at target.length chars
+     * @return the number of chars written to target
+     */
+    public int readLine(int line, char[] target) throws IOException {
+        if (line < 0 || line >= lineCount) {
+            throw new IndexOutOfBoundsException("Invalid line: " + line + ", lines: " + lineCount);
+        }
+        long start = findLineStart(line);
+
+        // copy the bytes of the line, up to the most the target can hold
+        // NOTE: the rest of a longer line is not scanned, the next line is found from the index instead
+        int maxBytes = target.length * BYTES_PER_CHAR;
+        if (lineBytes.length < maxBytes) {
+            lineBytes = new byte[maxBytes];
+        }
+        int length = 0;
+        long position = start;
+        boolean lineBreak = false;
+        while (position < size && length < maxBytes) {
+            byte value = byteAt(position);
+            if (value == '\n') {
+                lineBreak = true;
+                break;
+            }
+            lineBytes[length++] = value;
+            position++;
+        }
+        if (lineBreak || position == size) {
+            cursorLine = line + 1;                             // Next Line Starts After the Line Break
+            cursorStart = position + 1;
+        } else {
+            cursorLine = -1;
+        }
+        if (lineBreak && length > 0 && lineBytes[length - 1] == '\r') {
+            length--;                                          // Windows Line Break
+        }
+
+        CharBuffer chars = CharBuffer.wrap(target);
+        decoder.reset();
+        decoder.decode(ByteBuffer.wrap(lineBytes, 0, length), chars, true);  // NOTE: stops when target is full
+        return chars.position();
+    }
+
+    private long findLineStart(int line) throws IOException {
+        int current = line - line % LINES_PER_CHECKPOINT;
+        long position = getCheckpoint(line / LINES_PER_CHECKPOINT);
+        synchronized (indexLock) {
+            int longLine = findLongLine(line);
+            if (longLine >= 0 && longLineNext[longLine] > current) {
+                current = longLineNext[longLine];              // Closer, After a Long Line
+                position = longLineNextStarts[longLine];
+            }
+        }
+        if (cursorLine >= current && cursorLine <= line) {
+            position = cursorStart;                            // Continue From the Last Line Read
+            current = cursorLine;
+        }
+        while (current < line) {
+            if (byteAt(position++) == '\n') {
+                current++;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * @return the index of the last line after a long line at or before the line, -1 if there is none
+     * NOTE: must hold indexLock
+     */
+    private int findLongLine(int line) {
+        int low = 0, high = longLines - 1, found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (longLineNext[middle] <= line) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    private byte byteAt(long position) throws IOException {
+        if (window == null || position < windowStart || position >= windowStart + window.limit()) {
+            windowStart = position - position % WINDOW_SIZE;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(WINDOW_SIZE, size - windowStart));
+        }
+        return window.get((int) (position - windowStart));
+    }
+
+    /**
+     * @return the number of lines that can be read so far, all lines once isIndexed()
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return true if the whole file has been indexed
+     */
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    /**
+     * @return the number of bytes of the file scanned for line breaks so far
+     */
+    public long getIndexedBytes() {
+        return indexedBytes;
+    }
+
+    /**
+     * @return the error that stopped indexing, or null
+     */
+    public IOException getIndexError() {
+        return indexError;
+    }
+
+    /**
+     * @return the size of the file (bytes)
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * stop indexing and close the file
+     * NOTE: the mapped windows are unmapped by the garbage collector, Java has no way to unmap them explicitly
+     */
+    public void close() throws IOException {
+        closed = true;
+        Thread thread;
+        synchronized (this) {
+            thread = indexThread;
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        window = null;
+        randomAccessFile.close();
+    }
+}
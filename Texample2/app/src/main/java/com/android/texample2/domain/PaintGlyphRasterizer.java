@@ -0,0 +1,76 @@
+package com.android.texample2.domain;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.ByteOrder.nativeOrder;
+
+/**
+ * {@link GlyphRasterizer} backed by android.graphics: measures with Paint and draws with a Canvas on an ALPHA_8 Bitmap.
+ */
+public class PaintGlyphRasterizer implements GlyphRasterizer {
+
+    private final Paint paint;
+    private final Paint.FontMetrics fontMetrics;
+    private final char[] characterHolder = new char[1];
+    private final float[] widthHolder = new float[1];
+
+    public PaintGlyphRasterizer(Typeface typeface, int size) {
+        int opaqueWhite = 0xffffffff;
+        paint = new Paint();
+        paint.setAntiAlias(true);
+        paint.setTextSize(size);
+        paint.setColor(opaqueWhite);
+        paint.setTypeface(typeface);
+        fontMetrics = paint.getFontMetrics();
+    }
+
+    @Override
+    public float getTop() {
+        return fontMetrics.top;
+    }
+
+    @Override
+    public float getAscent() {
+        return fontMetrics.ascent;
+    }
+
+    @Override
+    public float getDescent() {
+        return fontMetrics.descent;
+    }
+
+    @Override
+    public float getBottom() {
+        return fontMetrics.bottom;
+    }
+
+    @Override
+    public float getCharWidth(char character) {
+        characterHolder[0] = character;
+        paint.getTextWidths(characterHolder, 0, 1, widthHolder);
+        return widthHolder[0];
+    }
+
+    @Override
+    public ByteBuffer drawCharacters(int textureSize, char[] characters, float[] x, float[] y) {
+        Bitmap bitmap = Bitmap.createBitmap(textureSize, textureSize, Bitmap.Config.ALPHA_8);
+        bitmap.eraseColor(0x00000000);
+
+        Canvas canvas = new Canvas(bitmap);
+        for (int i = 0; i < characters.length; i++) {
+            canvas.drawText(characters, i, 1, x[i], y[i], paint);
+        }
+
+        ByteBuffer pixels = allocateDirect(bitmap.getByteCount()).order(nativeOrder());
+        bitmap.copyPixelsToBuffer(pixels);
+        pixels.flip();
+        bitmap.recycle();
+        return pixels;
+    }
+}
@@ -0,0 +1,198 @@
+package com.android.texample2.domain;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+import java.nio.ByteBuffer;
+import java.text.Bidi;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.ByteOrder.nativeOrder;
+
+/**
+ * {@link GlyphShaper} backed by android.graphics, for the API levels without a public shaping API (TextShaper and
+ * Canvas.drawGlyphs() need API 31). Paint exposes no glyph IDs, so the "glyphs" of a run are whole words: each word is
+ * drawn with Canvas.drawText(), which shapes it, so ligatures and the joining of scripts like Arabic are kept within a
+ * word. The string is split into directional runs with java.text.Bidi and laid out in visual order, a right-to-left
+ * run from right to left.
+ * <p>
+ * <p>
+ * A glyph ID is assigned to every distinct word shaped. When the table of words is full it is started over and the
+ * generation changes, so text that keeps changing (counters, clocks, input) does not grow it without bound.
+ * NOTE: words are far wider than glyphs, size the atlas for the longest word, and use it for labels and messages
+ * rather than documents.
+ */
+public class PaintGlyphShaper implements GlyphShaper {
+
+    public static final int DEFAULT_MAX_WORDS = 1024;
+
+    private final Paint paint;
+    private final Paint.FontMetrics fontMetrics;
+    private final Map<String, Integer> wordIds = new HashMap<String, Integer>();
+    private final List<String> words = new ArrayList<String>();   // By Glyph ID
+    private final int maxWords;
+    private int generation;                                    // Incremented Every Time the Words are Started Over
+
+    public PaintGlyphShaper(Typeface typeface, int size) {
+        this(typeface, size, DEFAULT_MAX_WORDS);
+    }
+
+    /**
+     * @param maxWords the number of distinct words given a glyph ID before the IDs are assigned anew
+     */
+    public PaintGlyphShaper(Typeface typeface, int size, int maxWords) {
+        if (maxWords < 1) {
+            throw new IllegalArgumentException("Invalid number of words: " + maxWords);
+        }
+        this.maxWords = maxWords;
+        int opaqueWhite = 0xffffffff;
+        paint = new Paint();
+        paint.setAntiAlias(true);
+        paint.setTextSize(size);
+        paint.setColor(opaqueWhite);
+        paint.setTypeface(typeface);
+        fontMetrics = paint.getFontMetrics();
+    }
+
+    @Override
+    public float getAscent() {
+        return fontMetrics.ascent;
+    }
+
+    @Override
+    public float getDescent() {
+        return fontMetrics.descent;
+    }
+
+    @Override
+    public int getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public ShapedRun shape(CharSequence text) {
+        if (words.size() >= maxWords) {
+            // NOTE: before the IDs of this string are assigned, so its run is valid in the new generation
+            words.clear();
+            wordIds.clear();
+            generation++;
+        }
+        String string = text.toString();
+        Bidi bidi = new Bidi(string, Bidi.DIRECTION_DEFAULT_LEFT_TO_RIGHT);
+        int runCount = bidi.getRunCount();
+        byte[] levels = new byte[runCount];
+        Integer[] runs = new Integer[runCount];
+        for (int run = 0; run < runCount; run++) {
+            levels[run] = (byte) bidi.getRunLevel(run);
+            runs[run] = run;
+        }
+        if (runCount > 1) {
+            Bidi.reorderVisually(levels, 0, runs, 0, runCount);  // Runs From Left to Right
+        }
+
+        List<String> glyphs = new ArrayList<String>();
+        List<Float> glyphX = new ArrayList<Float>();
+        List<Integer> glyphClusters = new ArrayList<Integer>();
+        float x = 0.0f;
+        for (int visual = 0; visual < runCount; visual++) {
+            int run = runs[visual];
+            int runStart = bidi.getRunStart(run);
+            int runLimit = bidi.getRunLimit(run);
+            boolean rightToLeft = (bidi.getRunLevel(run) & 1) != 0;
+            // the words and spaces of the run, a right-to-left run from its last word
+            int index = rightToLeft ? runLimit : runStart;
+            while (rightToLeft ? index > runStart : index < runLimit) {
+                int start = rightToLeft ? wordStart(string, runStart, index) : index;
+                int limit = rightToLeft ? index : wordLimit(string, index, runLimit);
+                String word = string.substring(start, limit);
+                if (!Character.isWhitespace(word.codePointAt(0))) {
+                    glyphs.add(word);
+                    glyphX.add(x);
+                    glyphClusters.add(start);
+                }
+                x += paint.measureText(word);
+                index = rightToLeft ? start : limit;
+            }
+        }
+
+        int count = glyphs.size();
+        int[] glyphIds = new int[count];
+        float[] positions = new float[count * 2];
+        int[] clusters = new int[count];
+        for (int glyph = 0; glyph < count; glyph++) {
+            glyphIds[glyph] = getWordId(glyphs.get(glyph));
+            positions[glyph * 2] = glyphX.get(glyph);
+            clusters[glyph] = glyphClusters.get(glyph);
+        }
+        return new ShapedRun(glyphIds, positions, clusters, x);
+    }
+
+    /**
+     * @return the end of the word or of the spaces starting at the index
+     */
+    private static int wordLimit(String string, int index, int limit) {
+        boolean space = Character.isWhitespace(string.codePointAt(index));
+        while (index < limit && Character.isWhitespace(string.codePointAt(index)) == space) {
+            index += Character.charCount(string.codePointAt(index));
+        }
+        return index;
+    }
+
+    /**
+     * @return the start of the word or of the spaces ending at the index
+     */
+    private static int wordStart(String string, int start, int index) {
+        boolean space = Character.isWhitespace(string.codePointBefore(index));
+        while (index > start && Character.isWhitespace(string.codePointBefore(index)) == space) {
+            index -= Character.charCount(string.codePointBefore(index));
+        }
+        return index;
+    }
+
+    private int getWordId(String word) {
+        Integer id = wordIds.get(word);
+        if (id == null) {
+            id = words.size();
+            wordIds.put(word, id);
+            words.add(word);
+        }
+        return id;
+    }
+
+    /**
+     * draw the word the glyph ID was assigned to, shaped as a whole
+     */
+    @Override
+    public ByteBuffer drawGlyph(int glyphId, int[] bounds) {
+        String word = words.get(glyphId);
+        float advance = paint.measureText(word);
+        // the image is the advance plus a margin for overhanging ink, by the full line height
+        int margin = (int) Math.ceil(paint.getTextSize() / 4);
+        int width = ((int) Math.ceil(advance) + 2 * margin + 3) & ~3;  // Rows of Whole Words, Bitmap Rows are Not Padded Then
+        int top = (int) Math.floor(fontMetrics.top);
+        int height = (int) Math.ceil(fontMetrics.bottom) - top;
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8);
+        bitmap.eraseColor(0x00000000);
+        new Canvas(bitmap).drawText(word, margin, -top, paint);
+        ByteBuffer pixels = allocateDirect(bitmap.getByteCount()).order(nativeOrder());
+        bitmap.copyPixelsToBuffer(pixels);
+        pixels.flip();
+        bitmap.recycle();
+
+        bounds[0] = -margin;
+        bounds[1] = top;
+        bounds[2] = width;
+        bounds[3] = height;
+        return pixels;
+    }
+}
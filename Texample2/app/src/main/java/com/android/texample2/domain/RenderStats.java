@@ -0,0 +1,231 @@
+package com.android.texample2.domain;
+
+/**
+ * Counters for the work done by the text renderer.
+ * A font records into its own instance unless one is shared through {@link FontBuilder#stats(RenderStats)}.
+ * Counters accumulate until {@link #reset()} is called, typically once per frame.
+ */
+public class RenderStats {
+
+    private int drawCalls;                                     // glDrawElements/glDrawArrays calls issued
+    private int batches;                                       // Number of begin()/end() pairs
+    private int glyphs;                                        // Number of characters batched
+    private int overflowFlushes;                               // Batches forced out by a full sprite buffer
+    private long vertexBytes;                                  // Bytes uploaded through Vertices.setVertices()
+    private long uniformBytes;                                 // Bytes uploaded through glUniform*()
+    private long batchingNanos;                                // CPU time spent laying out and batching glyphs
+    private long cellArea;                                     // Area of the full glyph cells (atlas pixels)
+    private long quadArea;                                     // Area of the quads drawn for the glyphs (atlas pixels)
+    private int drawnStrings;                                  // Strings that passed culling
+    private int culledStrings;                                 // Strings skipped outside the view frustum
+    private int subPixelStrings;                               // Strings skipped for being smaller than the minimum size
+
+    void recordDrawCall() {
+        drawCalls++;
+    }
+
+    void recordBatch() {
+        batches++;
+    }
+
+    void recordGlyphs(int count) {
+        glyphs += count;
+    }
+
+    void recordOverflowFlush() {
+        overflowFlushes++;
+    }
+
+    void recordVertexBytes(int bytes) {
+        vertexBytes += bytes;
+    }
+
+    void recordUniformBytes(int bytes) {
+        uniformBytes += bytes;
+    }
+
+    void recordBatchingTime(long nanos) {
+        batchingNanos += nanos;
+    }
+
+    /**
+     * @param cellArea the area the glyph would have as a full cell quad (atlas pixels)
+     * @param quadArea the area of the quad drawn for the glyph (atlas pixels)
+     */
+    void recordGlyphArea(int cellArea, int quadArea) {
+        this.cellArea += cellArea;
+        this.quadArea += quadArea;
+    }
+
+    void recordDrawnString() {
+        drawnStrings++;
+    }
+
+    void recordCulledString() {
+        culledStrings++;
+    }
+
+    void recordSubPixelString() {
+        subPixelStrings++;
+    }
+
+    public void reset() {
+        drawCalls = 0;
+        batches = 0;
+        glyphs = 0;
+        overflowFlushes = 0;
+        vertexBytes = 0;
+        uniformBytes = 0;
+        batchingNanos = 0;
+        cellArea = 0;
+        quadArea = 0;
+        drawnStrings = 0;
+        culledStrings = 0;
+        subPixelStrings = 0;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(drawCalls, batches, glyphs, overflowFlushes, vertexBytes, uniformBytes, batchingNanos, cellArea, quadArea, drawnStrings, culledStrings, subPixelStrings);
+    }
+
+    /**
+     * copy the current counters into an existing snapshot, so it can be done every frame without allocating
+     *
+     * @param target the snapshot to overwrite
+     */
+    public void snapshot(Snapshot target) {
+        target.drawCalls = drawCalls;
+        target.batches = batches;
+        target.glyphs = glyphs;
+        target.overflowFlushes = overflowFlushes;
+        target.vertexBytes = vertexBytes;
+        target.uniformBytes = uniformBytes;
+        target.batchingNanos = batchingNanos;
+        target.cellArea = cellArea;
+        target.quadArea = quadArea;
+        target.drawnStrings = drawnStrings;
+        target.culledStrings = culledStrings;
+        target.subPixelStrings = subPixelStrings;
+    }
+
+    public static class Snapshot {
+
+        private int drawCalls;
+        private int batches;
+        private int glyphs;
+        private int overflowFlushes;
+        private long vertexBytes;
+        private long uniformBytes;
+        private long batchingNanos;
+        private long cellArea;
+        private long quadArea;
+        private int drawnStrings;
+        private int culledStrings;
+        private int subPixelStrings;
+
+        public Snapshot() {
+        }
+
+        Snapshot(int drawCalls, int batches, int glyphs, int overflowFlushes, long vertexBytes, long uniformBytes, long batchingNanos, long cellArea, long quadArea,
+                 int drawnStrings, int culledStrings, int subPixelStrings) {
+            this.drawCalls = drawCalls;
+            this.batches = batches;
+            this.glyphs = glyphs;
+            this.overflowFlushes = overflowFlushes;
+            this.vertexBytes = vertexBytes;
+            this.uniformBytes = uniformBytes;
+            this.batchingNanos = batchingNanos;
+            this.cellArea = cellArea;
+            this.quadArea = quadArea;
+            this.drawnStrings = drawnStrings;
+            this.culledStrings = culledStrings;
+            this.subPixelStrings = subPixelStrings;
+        }
+
+        public int getDrawCalls() {
+            return drawCalls;
+        }
+
+        public int getBatches() {
+            return batches;
+        }
+
+        public int getGlyphs() {
+            return glyphs;
+        }
+
+        public int getOverflowFlushes() {
+            return overflowFlushes;
+        }
+
+        public long getVertexBytes() {
+            return vertexBytes;
+        }
+
+        public long getUniformBytes() {
+            return uniformBytes;
+        }
+
+        public long getBatchingNanos() {
+            return batchingNanos;
+        }
+
+        /**
+         * @return the area the glyphs would have covered as full cell quads (atlas pixels)
+         */
+        public long getCellArea() {
+            return cellArea;
+        }
+
+        /**
+         * @return the area of the quads drawn for the glyphs (atlas pixels)
+         */
+        public long getQuadArea() {
+            return quadArea;
+        }
+
+        /**
+         * @return the fraction of the full cell area not drawn thanks to tight glyph quads, 0 if nothing was drawn
+         */
+        public float getQuadAreaReduction() {
+            return cellArea > 0 ? 1.0f - (float) quadArea / cellArea : 0.0f;
+        }
+
+        /**
+         * @return the number of strings that passed culling and had their glyphs batched
+         */
+        public int getDrawnStrings() {
+            return drawnStrings;
+        }
+
+        /**
+         * @return the number of strings skipped for being outside the view frustum
+         */
+        public int getCulledStrings() {
+            return culledStrings;
+        }
+
+        /**
+         * @return the number of strings skipped for being smaller on screen than the minimum size
+         */
+        public int getSubPixelStrings() {
+            return subPixelStrings;
+        }
+
+        @Override
+        public String toString() {
+            return "drawCalls=" + drawCalls
+                    + ", batches=" + batches
+                    + ", glyphs=" + glyphs
+                    + ", overflowFlushes=" + overflowFlushes
+                    + ", vertexBytes=" + vertexBytes
+                    + ", uniformBytes=" + uniformBytes
+                    + ", batchingNanos=" + batchingNanos
+                    + ", cellArea=" + cellArea
+                    + ", quadArea=" + quadArea
+                    + ", drawnStrings=" + drawnStrings
+                    + ", culledStrings=" + culledStrings
+                    + ", subPixelStrings=" + subPixelStrings;
+        }
+    }
+}
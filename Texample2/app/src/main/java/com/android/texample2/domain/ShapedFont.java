@@ -0,0 +1,187 @@
+package com.android.texample2.domain;
+
+import com.android.texample2.gl.GL;
+
+import static com.android.texample2.gl.GL.GL_TEXTURE0;
+import static com.android.texample2.gl.GL.GL_TEXTURE_2D;
+
+/**
+ * Draws shaped text: strings are shaped into glyph runs by a {@link GlyphShaper}, and the glyphs come from a
+ * {@link GlyphAtlas} keyed by glyph ID instead of by character. Unlike {@link Font}, which draws every character
+ * with its own glyph, this draws ligatures, kerning and complex scripts (e.g. Arabic, Devanagari) correctly.
+ * <p>
+ * Shaping is slow, so the runs of recently drawn strings are kept in a {@link ShapedRunCache}: a string drawn every
+ * frame is shaped once, and each of its glyphs is looked up in the atlas once. Drawing is then as cheap as drawing
+ * with a Font, in batches with the same program.
+ * <p>
+ * Usage:
+ * <pre>
+ * ShapedFont arabic = new ShapedFont(fontProgram, shaper, 1024, 256, new RenderStats());
+ * arabic.begin(0.0f, 0.0f, 0.0f, 1.0f, orthoMatrix);
+ * arabic.draw(getString(R.string.greeting), 10, 100);
+ * arabic.end();
+ * </pre>
+ * NOTE: must be used on the GL thread. Positions are in pixels of the shaper's size, there is no scale. The atlas
+ * texture belongs to the GL context, call {@link #restore(FontProgram)} when the context was recreated.
+ */
+public class ShapedFont {
+
+    private FontProgram program;
+    private final GL gl;
+    private final GlyphShaper shaper;
+    private final RenderStats stats;
+    private final GlyphAtlas atlas;
+    private final ShapedRunCache cache;
+    private int shaperGeneration;                              // Of the Glyph IDs in the Atlas
+    private SpriteBatch batch;
+    private float[] vpMatrix;                                  // Passed to the Current begin()
+    private final float[] color = new float[4];
+    private static final float[] NO_COLOR = new float[4];
+
+    /**
+     * @param atlasSize the width and height of the glyph atlas texture (pixels)
+     * @param maxRuns   the number of strings kept shaped
+     */
+    public ShapedFont(FontProgram program, GlyphShaper shaper, int atlasSize, int maxRuns, RenderStats stats) {
+        this.program = program;
+        this.gl = program.getGL();
+        this.shaper = shaper;
+        this.stats = stats;
+        atlas = new GlyphAtlas(gl, shaper, atlasSize);
+        cache = new ShapedRunCache(shaper, maxRuns);
+        shaperGeneration = shaper.getGeneration();
+        batch = new SpriteBatch(Font.CHAR_BATCH_SIZE, program, stats, VertexFormat.FLOAT);
+    }
+
+    public void begin(float[] vpMatrix) {
+        begin(1.0f, 1.0f, 1.0f, 1.0f, vpMatrix);
+    }
+
+    public void begin(float red, float green, float blue, float alpha, float[] vpMatrix) {
+        gl.glUseProgram(program.getProgramHandle());
+
+        color[0] = red;
+        color[1] = green;
+        color[2] = blue;
+        color[3] = alpha;
+        gl.glUniform4fv(program.getColorHandle(), 1, color, 0);
+
+        gl.glActiveTexture(GL_TEXTURE0);
+        gl.glBindTexture(GL_TEXTURE_2D, atlas.getTextureId());
+        gl.glUniform1i(program.getTextureUniformHandle(), 0);
+        gl.glUniform2f(program.getVertexScaleHandle(), 1.0f, 1.0f);  // Float Positions and Texture Coordinates
+
+        // NOTE: set on every begin, the program is shared with fonts that have effects
+        gl.glUniform1f(program.getOutlineWidthHandle(), 0.0f);
+        gl.glUniform4fv(program.getOutlineColorHandle(), 1, NO_COLOR, 0);
+        gl.glUniform4fv(program.getShadowColorHandle(), 1, NO_COLOR, 0);
+        gl.glUniform2f(program.getShadowOffsetHandle(), 0.0f, 0.0f);
+        gl.glUniform1f(program.getPremultipliedHandle(), 0.0f);  // Glyph Coverage
+        stats.recordUniformBytes(16 + 4 + 8 + 4 + 16 + 16 + 8 + 4);
+        stats.recordBatch();
+
+        this.vpMatrix = vpMatrix;
+        batch.beginBatch(vpMatrix);
+    }
+
+    /**
+     * draw the string
+     * NOTE: MUST be called after begin(), and before end()!
+     *
+     * @param x the x-position of the text (left of the run)
+     * @param y the y-position of the text (bottom of text; including descent)
+     */
+    public void draw(CharSequence text, float x, float y) {
+        ShapedRun run = cache.get(text);
+        if (shaperGeneration != shaper.getGeneration()) {
+            // the shaper assigned its glyph IDs anew: draw what was batched, then drop the glyphs of the old IDs
+            batch.endBatch();
+            batch.beginBatch(vpMatrix);
+            atlas.clear();
+            shaperGeneration = shaper.getGeneration();
+        }
+        GlyphAtlas.Glyph[] glyphs = getAtlasGlyphs(run);
+        float baseline = y + shaper.getDescent();
+        for (int i = 0; i < glyphs.length; i++) {
+            GlyphAtlas.Glyph glyph = glyphs[i];
+            if (glyph.width == 0) {
+                continue;                                      // No Visible Pixels
+            }
+            float left = x + run.getX(i) + glyph.left;
+            float top = baseline - run.getY(i) - glyph.top;    // Glyph Offsets Go Down
+            batch.drawSpriteMvp(left + glyph.width / 2.0f, top - glyph.height / 2.0f, glyph.width, glyph.height,
+                    glyph.u1, glyph.v1, glyph.u2, glyph.v2, vpMatrix);
+        }
+        stats.recordGlyphs(glyphs.length);
+    }
+
+    /**
+     * @return the atlas entries of the glyphs of the run, adding the glyphs not in the atlas yet
+     */
+    private GlyphAtlas.Glyph[] getAtlasGlyphs(ShapedRun run) {
+        if (run.atlasGeneration == atlas.getGeneration()) {
+            return run.atlasGlyphs;                            // Looked Up Since the Atlas was Last Cleared
+        }
+        int count = run.getGlyphCount();
+        if (run.atlasGlyphs == null) {
+            run.atlasGlyphs = new GlyphAtlas.Glyph[count];
+        }
+        boolean cleared = false;
+        for (int i = 0; i < count; i++) {
+            GlyphAtlas.Glyph glyph = atlas.get(run.getGlyphId(i));
+            if (glyph == null && !cleared) {
+                // the atlas is full: draw what was batched with the old glyphs, then start over with this run
+                batch.endBatch();
+                batch.beginBatch(vpMatrix);
+                atlas.clear();
+                cleared = true;
+                i = -1;
+                continue;
+            }
+            run.atlasGlyphs[i] = glyph != null ? glyph : GlyphAtlas.EMPTY;  // More Glyphs Than the Atlas Holds
+        }
+        run.atlasGeneration = atlas.getGeneration();
+        return run.atlasGlyphs;
+    }
+
+    public void end() {
+        batch.endBatch();
+    }
+
+    /**
+     * @return the width of the string (pixels), shaping it if it is not in the cache
+     */
+    public float getLength(CharSequence text) {
+        return cache.get(text).getAdvance();
+    }
+
+    /**
+     * @return the height of a line, from the ascent to the descent (pixels)
+     */
+    public float getHeight() {
+        return shaper.getDescent() - shaper.getAscent();
+    }
+
+    public ShapedRunCache getCache() {
+        return cache;
+    }
+
+    public GlyphAtlas getAtlas() {
+        return atlas;
+    }
+
+    /**
+     * recreate the GL objects after the GL context was lost, the atlas is uploaded from the pixels it kept
+     *
+     * @param program the font program created in the new context
+     */
+    public void restore(FontProgram program) {
+        this.program = program;
+        batch = new SpriteBatch(Font.CHAR_BATCH_SIZE, program, stats, VertexFormat.FLOAT);
+        atlas.restore();
+    }
+
+    public void dispose() {
+        atlas.dispose();
+    }
+}
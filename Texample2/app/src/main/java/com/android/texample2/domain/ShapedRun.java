@@ -0,0 +1,64 @@
+package com.android.texample2.domain;
+
+/**
+ * A string shaped into glyphs: the glyph IDs of the font and their positions, after ligatures, kerning and the
+ * reordering and joining of complex scripts were applied. Produced by a {@link GlyphShaper}, kept in a
+ * {@link ShapedRunCache} so a string is shaped once, not every frame.
+ */
+public class ShapedRun {
+
+    private final int[] glyphIds;
+    private final float[] positions;                           // X, Y of Each Glyph's Pen Position (Pixels; Y Down From the Baseline)
+    private final int[] clusters;                              // Index of the First Character of Each Glyph in the Text
+    private final float advance;                               // Pen Position After the Last Glyph (Pixels)
+
+    // entries of the glyphs in a GlyphAtlas, looked up once per atlas generation instead of once per draw
+    GlyphAtlas.Glyph[] atlasGlyphs;
+    int atlasGeneration = -1;
+
+    /**
+     * @param glyphIds  the glyphs, in visual order (left to right)
+     * @param positions the pen position of each glyph, 2 values per glyph: x, y (pixels, y down from the baseline)
+     * @param clusters  the index of the first character of each glyph in the text
+     * @param advance   the width of the run (pixels)
+     */
+    public ShapedRun(int[] glyphIds, float[] positions, int[] clusters, float advance) {
+        if (positions.length < glyphIds.length * 2 || clusters.length < glyphIds.length) {
+            throw new IllegalArgumentException("Invalid run: " + glyphIds.length + " glyphs, " + positions.length + " positions, " + clusters.length + " clusters");
+        }
+        this.glyphIds = glyphIds;
+        this.positions = positions;
+        this.clusters = clusters;
+        this.advance = advance;
+    }
+
+    public int getGlyphCount() {
+        return glyphIds.length;
+    }
+
+    public int getGlyphId(int glyph) {
+        return glyphIds[glyph];
+    }
+
+    public float getX(int glyph) {
+        return positions[glyph * 2];
+    }
+
+    public float getY(int glyph) {
+        return positions[glyph * 2 + 1];
+    }
+
+    /**
+     * @return the index in the text of the first character the glyph was shaped from, e.g. for hit testing
+     */
+    public int getCluster(int glyph) {
+        return clusters[glyph];
+    }
+
+    /**
+     * @return the width of the run (pixels)
+     */
+    public float getAdvance() {
+        return advance;
+    }
+}
@@ -0,0 +1,97 @@
+package com.android.texample2.domain;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the most recently drawn strings shaped, so a string drawn every frame is shaped once.
+ * When full, the least recently drawn run is evicted.
+ * NOTE: not thread safe, use it from the thread that draws
+ */
+public class ShapedRunCache {
+
+    private final GlyphShaper shaper;
+    private final int maxRuns;
+    private final LinkedHashMap<String, ShapedRun> runs;
+    private int hits, misses, evictions;
+    private int generation;                                    // Of the Shaper the Runs Were Shaped In
+
+    /**
+     * @param maxRuns the number of strings kept shaped
+     */
+    public ShapedRunCache(GlyphShaper shaper, int maxRuns) {
+        if (maxRuns < 1) {
+            throw new IllegalArgumentException("Invalid cache size: " + maxRuns);
+        }
+        this.shaper = shaper;
+        this.maxRuns = maxRuns;
+        generation = shaper.getGeneration();
+        // NOTE: in access order, so the eldest entry is the least recently used one
+        runs = new LinkedHashMap<String, ShapedRun>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ShapedRun> eldest) {
+                if (size() > ShapedRunCache.this.maxRuns) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param text the string, pass a String to look it up without copying it
+     * @return the shaped run of the string, shaped now if it is not in the cache
+     */
+    public ShapedRun get(CharSequence text) {
+        String key = text.toString();
+        checkGeneration();
+        ShapedRun run = runs.get(key);
+        if (run != null) {
+            hits++;
+            return run;
+        }
+        misses++;
+        run = shaper.shape(key);
+        checkGeneration();
+        runs.put(key, run);
+        return run;
+    }
+
+    /**
+     * drop the runs shaped with glyph IDs the shaper has assigned anew since
+     */
+    private void checkGeneration() {
+        if (generation != shaper.getGeneration()) {
+            runs.clear();
+            generation = shaper.getGeneration();
+        }
+    }
+
+    public void clear() {
+        runs.clear();
+    }
+
+    public int size() {
+        return runs.size();
+    }
+
+    public int getMaxRuns() {
+        return maxRuns;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of strings shaped because they were not in the cache
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    public int getEvictions() {
+        return evictions;
+    }
+}
@@ -2,22 +2,24 @@ package com.android.texample2.domain;
 
 import android.opengl.Matrix;
 
-import com.android.texample2.programs.Program;
+import com.android.texample2.gl.GL;
 
-import java.util.List;
-
-import static android.opengl.GLES20.*;
-import static java.util.Arrays.asList;
+import static com.android.texample2.gl.GL.*;
 
 class SpriteBatch {
 
     private final static int VERTEX_SIZE = 5;                  // Vertex Size (in Components) ie. (X,Y,U,V,M), M is MVP matrix index
+    private final static int PACKED_VERTEX_SIZE = 4;           // Packed Vertex Size (in Shorts) ie. (X,Y,U+M,V+M)
+    private final static int PACKED_INDEX_BITS = 3;            // Bits of the MVP Matrix Index in Each Packed Texture Coordinate
+    private final static int PACKED_INDEX_MASK = (1 << PACKED_INDEX_BITS) - 1;
     private final static int VERTICES_PER_SPRITE = 4;          // Vertices Per Sprite
     private final static int INDICES_PER_SPRITE = 6;           // Indices Per Sprite
     private static final String TAG = "SpriteBatch";
 
     private Vertices vertices;                                 // Vertices Instance Used for Rendering
-    private float[] vertexBuffer;                              // Vertex Buffer
+    private float[] vertexBuffer;                              // Vertex Buffer (VertexFormat.FLOAT)
+    private short[] packedVertexBuffer;                        // Vertex Buffer (VertexFormat.PACKED)
+    private final boolean packed;
     private int bufferIndex;                                   // Vertex Buffer Start Index
     private int maxSprites;                                    // Maximum Sprites Allowed in Buffer
     private int numSprites;                                    // Number of Sprites Currently in Buffer
@@ -25,27 +27,37 @@ class SpriteBatch {
     private float[] uMVPMatrices; // MVP matrix array to pass to shader
     private int mMVPMatricesHandle;                            // shader handle of the MVP matrix array
     private float[] mMVPMatrix = new float[16];                // used to calculate MVP matrix of each sprite
+    private final RenderStats stats;                           // Counters for draw calls, uploads and flushes
+    private final GL gl;
 
 
     /**
      * Prepare the sprite batcher for specified maximum number of sprites
      *
-     * @param maxSprites the maximum allowed sprites per batch
-     * @param mvpMatricesHandle
+     * @param maxSprites   the maximum allowed sprites per batch
+     * @param stats        the counters to record uploads and flushes in
+     * @param vertexFormat the layout of the vertices to upload
      */
-    public SpriteBatch(int maxSprites, FontProgram program) {
+    public SpriteBatch(int maxSprites, FontProgram program, RenderStats stats, VertexFormat vertexFormat) {
+        this.stats = stats;
+        this.gl = program.getGL();
         uMVPMatrices  = new float[maxSprites * 16];
-        this.vertexBuffer = new float[maxSprites * VERTICES_PER_SPRITE * VERTEX_SIZE];  // Create Vertex Buffer
+        this.packed = vertexFormat == VertexFormat.PACKED;
+        if (packed) {
+            this.packedVertexBuffer = new short[maxSprites * VERTICES_PER_SPRITE * PACKED_VERTEX_SIZE];  // Create Vertex Buffer
+        } else {
+            this.vertexBuffer = new float[maxSprites * VERTICES_PER_SPRITE * VERTEX_SIZE];  // Create Vertex Buffer
+        }
         this.bufferIndex = 0;                           // Reset Buffer Index
         this.maxSprites = maxSprites;                   // Save Maximum Sprites
         this.numSprites = 0;                            // Clear Sprite Counter
 
-        initializeVertices(maxSprites, program);
+        initializeVertices(maxSprites, program, vertexFormat);
         mMVPMatricesHandle = program.getMvpMatricesHandle();
     }
 
-    private void initializeVertices(int maxSprites, FontProgram program) {
-        this.vertices = new Vertices(maxSprites * VERTICES_PER_SPRITE, maxSprites * INDICES_PER_SPRITE, program);  // Create Rendering Vertices
+    private void initializeVertices(int maxSprites, FontProgram program, VertexFormat vertexFormat) {
+        this.vertices = new Vertices(maxSprites * VERTICES_PER_SPRITE, maxSprites * INDICES_PER_SPRITE, program, stats, vertexFormat);  // Create Rendering Vertices
         short[] indices = new short[maxSprites * INDICES_PER_SPRITE];  // Create Temp Index Buffer
         int len = indices.length;                       // Get Index Buffer Length
         short j = 0;
@@ -60,6 +72,10 @@ class SpriteBatch {
         vertices.setIndices(indices, 0, len);         // Set Index Buffer for Rendering
     }
 
+    public float[] getViewProjectionMatrix() {
+        return viewProjectionMatrix;
+    }
+
     public void beginBatch(float[] vpMatrix) {
         numSprites = 0;                                 // Empty Sprite Counter
         bufferIndex = 0;                                // Reset Buffer Index (Empty)
@@ -72,10 +88,14 @@ class SpriteBatch {
     public void endBatch() {
         if (numSprites > 0) {                        // IF Any Sprites to Render
             // bind MVP matrices array to shader
-            glUniformMatrix4fv(mMVPMatricesHandle, numSprites, false, uMVPMatrices, 0);
-            glEnableVertexAttribArray(mMVPMatricesHandle);
-
-            vertices.setVertices(vertexBuffer, 0, bufferIndex);
+            gl.glUniformMatrix4fv(mMVPMatricesHandle, numSprites, false, uMVPMatrices, 0);
+            stats.recordUniformBytes(numSprites * 16 * 4);
+
+            if (packed) {
+                vertices.setVertices(packedVertexBuffer, 0, bufferIndex);
+            } else {
+                vertices.setVertices(vertexBuffer, 0, bufferIndex);
+            }
             vertices.bind();
             vertices.draw(GL_TRIANGLES, 0, numSprites * INDICES_PER_SPRITE);  // Render Batched Sprites
             vertices.unbind();
@@ -97,7 +117,33 @@ class SpriteBatch {
      * @param modelMatrix the model matrix to assign to the sprite
      */
     public void drawSprite(float x, float y, float width, float height, TextureRegion region, float[] modelMatrix) {
+        // the sprite mvp matrix
+        Matrix.multiplyMM(mMVPMatrix, 0, viewProjectionMatrix, 0, modelMatrix, 0);
+
+        drawSpriteMvp(x, y, width, height, region, mMVPMatrix);
+    }
+
+    /**
+     * Draw Sprite to Batch with a precomputed MVP matrix
+     * same as drawSprite(), for sprites that share a model matrix, so the MVP matrix is computed once for all of them
+     *
+     * @param mvpMatrix the MVP matrix to assign to the sprite
+     */
+    public void drawSpriteMvp(float x, float y, float width, float height, TextureRegion region, float[] mvpMatrix) {
+        drawSpriteMvp(x, y, width, height, region.u1, region.v1, region.u2, region.v2, mvpMatrix);
+    }
+
+    /**
+     * Draw Sprite to Batch with a precomputed MVP matrix and texture coordinates
+     *
+     * @param u1 the left texture coordinate
+     * @param v1 the top texture coordinate
+     * @param u2 the right texture coordinate
+     * @param v2 the bottom texture coordinate
+     */
+    public void drawSpriteMvp(float x, float y, float width, float height, float u1, float v1, float u2, float v2, float[] mvpMatrix) {
         if (numSprites == maxSprites) {              // IF Sprite Buffer is Full
+            stats.recordOverflowFlush();
             endBatch();                                  // End Batch
             // NOTE: leave current texture bound!!
             numSprites = 0;                              // Empty Sprite Counter
@@ -111,48 +157,44 @@ class SpriteBatch {
         float rightX = x + halfWidth;
         float topY = y + halfHeight;
 
-        List<Vertex> vertices = asList(
-                new Vertex(leftX, bottomY, region.u1, region.v2, numSprites),
-                new Vertex(rightX, bottomY, region.u2, region.v2, numSprites),
-                new Vertex(rightX, topY, region.u2, region.v1, numSprites),
-                new Vertex(leftX, topY, region.u1, region.v1, numSprites)
-        );
-
-        for (int i = 0; i < vertices.size(); i++) {
-            vertices.get(i).addTo(vertexBuffer, bufferIndex);
-            bufferIndex += VERTEX_SIZE;
-        }
+        addVertex(leftX, bottomY, u1, v2);
+        addVertex(rightX, bottomY, u2, v2);
+        addVertex(rightX, topY, u2, v1);
+        addVertex(leftX, topY, u1, v1);
 
         // add the sprite mvp matrix to uMVPMatrices array
-        Matrix.multiplyMM(mMVPMatrix, 0, viewProjectionMatrix, 0, modelMatrix, 0);
-
-        //TODO: make sure numSprites < 24
-        System.arraycopy(mMVPMatrix, 0, uMVPMatrices, numSprites * 16, 16);
+        System.arraycopy(mvpMatrix, 0, uMVPMatrices, numSprites * 16, 16);
 
         numSprites++;
     }
 
-    private class Vertex {
-        float x;
-        float y;
-        float u;
-        float v;
-        int numberOfSprites;
-
-        public Vertex(float x, float y, float u, float v, int numberOfSprites) {
-            this.x = x;
-            this.y = y;
-            this.u = u;
-            this.v = v;
-            this.numberOfSprites = numberOfSprites;
+    private void addVertex(float x, float y, float u, float v) {
+        if (packed) {
+            packedVertexBuffer[bufferIndex] = toFixed(x);
+            packedVertexBuffer[bufferIndex + 1] = toFixed(y);
+            packedVertexBuffer[bufferIndex + 2] = toPackedTexCoord(u, numSprites & PACKED_INDEX_MASK);  // Low Bits of the MVP Matrix Index
+            packedVertexBuffer[bufferIndex + 3] = toPackedTexCoord(v, numSprites >> PACKED_INDEX_BITS);  // High Bits
+            bufferIndex += PACKED_VERTEX_SIZE;
+            return;
         }
+        vertexBuffer[bufferIndex] = x;
+        vertexBuffer[bufferIndex + 1] = y;
+        vertexBuffer[bufferIndex + 2] = u;
+        vertexBuffer[bufferIndex + 3] = v;
+        vertexBuffer[bufferIndex + 4] = numSprites;   // MVP matrix index of the sprite
+        bufferIndex += VERTEX_SIZE;
+    }
 
-        public void addTo(float[] vertexBuffer, int offset) {
-            vertexBuffer[offset] = x;
-            vertexBuffer[offset + 1] = y;
-            vertexBuffer[offset + 2] = u;
-            vertexBuffer[offset + 3] = v;
-            vertexBuffer[offset + 4] = numSprites;
-        }
+    /**
+     * @return the texture coordinate in 1/8192 steps in the upper 13 bits, and the index bits in the lower 3 (unsigned bits)
+     */
+    private static short toPackedTexCoord(float coordinate, int indexBits) {
+        int steps = Math.max(0, Math.min(8191, Math.round(coordinate * 8192.0f)));
+        return (short) (steps << PACKED_INDEX_BITS | indexBits);
+    }
+
+    private static short toFixed(float position) {
+        float fixed = position * VertexFormat.PACKED_POSITION_SCALE;
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(fixed)));
     }
 }
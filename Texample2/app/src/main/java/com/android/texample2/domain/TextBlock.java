@@ -0,0 +1,123 @@
+package com.android.texample2.domain;
+
+/**
+ * Static lines of text that are rendered once into a texture and then drawn as a single quad.
+ * The text is rendered again only after {@link #invalidate()} (or {@link #setText(CharSequence...)}),
+ * or after the texture was evicted by its {@link TextBlockCache} to stay within the memory budget.
+ * <p>
+ * The text is rendered in white with the outline and shadow of the font, and drawn multiplied by a color that can
+ * change from frame to frame without rendering it again. Changing the effects of the font needs an invalidate().
+ * It is rendered at one pixel per unit, so it looks best with an orthographic projection of the screen.
+ */
+public class TextBlock {
+
+    private final TextBlockCache cache;
+    private CharSequence[] lines;
+    private boolean valid;                                     // Texture contains the current lines
+    private GlyphIndex glyphIndex;                             // Character positions of the current lines, null = Not Built Yet
+
+    // set by the cache
+    int textureId;                                             // 0 if no texture is allocated
+    int textureWidth, textureHeight;                           // Texture size (pixels)
+    float left, bottom;                                        // Offset of the texture from the draw position
+    TextureRegion region;
+
+    TextBlock(TextBlockCache cache, CharSequence[] lines) {
+        this.cache = cache;
+        this.lines = lines;
+    }
+
+    /**
+     * replace the lines, they are rendered the next time the block is drawn
+     *
+     * @param lines the lines of text, from top to bottom
+     */
+    public void setText(CharSequence... lines) {
+        this.lines = lines;
+        invalidate();
+    }
+
+    CharSequence[] getLines() {
+        return lines;
+    }
+
+    /**
+     * render the text again the next time the block is drawn, e.g. after a CharSequence passed to setText() changed
+     */
+    public void invalidate() {
+        valid = false;
+        glyphIndex = null;
+    }
+
+    /**
+     * render the text again the next time the block is drawn, the lines did not change
+     */
+    void invalidateTexture() {
+        valid = false;
+    }
+
+    void validate() {
+        valid = true;
+    }
+
+    /**
+     * @return true if the block can be drawn without rendering the text first
+     */
+    public boolean isCached() {
+        return valid && textureId != 0;
+    }
+
+    /**
+     * draw the block in the colors it was rendered with
+     * NOTE: must not be called between Font.begin() and Font.end()
+     */
+    public void draw(float x, float y, float[] vpMatrix) {
+        draw(x, y, 1.0f, 1.0f, 1.0f, 1.0f, vpMatrix);
+    }
+
+    /**
+     * draw the block at the specified x,y position (bottom left of the last line; including descent), the same
+     * position the lines would have with Font.draw()
+     * NOTE: the colors of the text and of the font's outline and shadow are kept, multiplied by the specified color.
+     * must not be called between Font.begin() and Font.end()
+     */
+    public void draw(float x, float y, float red, float green, float blue, float alpha, float[] vpMatrix) {
+        cache.prepare(this);
+        if (textureId != 0) {
+            cache.getFont().drawQuad(textureId, region, x + left, y + bottom, textureWidth, textureHeight, red, green, blue, alpha, vpMatrix);
+        }
+    }
+
+    /**
+     * get the positions of the characters of the block, relative to the draw position, e.g. to hit-test taps or to
+     * highlight a selection. measured the first time it is needed after the lines changed, then kept with the block.
+     * NOTE: the texture is not needed, so this also works for a block that is not cached
+     */
+    public GlyphIndex getGlyphIndex() {
+        if (glyphIndex == null) {
+            glyphIndex = new GlyphIndex(cache.getFont(), lines);
+        }
+        return glyphIndex;
+    }
+
+    /**
+     * free the texture of the block, it is rendered again if the block is drawn later
+     */
+    public void release() {
+        cache.release(this);
+    }
+
+    /**
+     * @return the width of the texture (pixels), 0 if the block has not been rendered
+     */
+    public int getTextureWidth() {
+        return textureWidth;
+    }
+
+    /**
+     * @return the height of the texture (pixels), 0 if the block has not been rendered
+     */
+    public int getTextureHeight() {
+        return textureHeight;
+    }
+}
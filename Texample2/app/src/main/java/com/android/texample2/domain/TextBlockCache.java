@@ -0,0 +1,289 @@
+package com.android.texample2.domain;
+
+import android.opengl.Matrix;
+
+import com.android.texample2.gl.GL;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import static com.android.texample2.gl.GL.*;
+
+/**
+ * Creates {@link TextBlock}s for a font and owns their textures.
+ * Blocks are rendered into their texture through a framebuffer object the first time they are drawn.
+ * When the textures would need more than the memory budget, the least recently drawn blocks are evicted;
+ * an evicted block is rendered again the next time it is drawn.
+ * <p>
+ * Usage:
+ * <pre>
+ * TextBlockCache cache = new TextBlockCache(font, 4 * 1024 * 1024);
+ * TextBlock menu = cache.createBlock("New Game", "Options", "Quit");
+ * ...
+ * menu.draw(100, 300, orthoMatrix);    // every frame, renders the text only once
+ * </pre>
+ * NOTE: must be used on the GL thread. Rendering uses the current blend state, the same as drawing text directly.
+ * The textures belong to the GL context: once the font was restored after the context was lost, the blocks are
+ * rendered again into new textures the next time they are drawn (see {@link #restore()}).
+ */
+public class TextBlockCache {
+
+    private static final int BYTES_PER_PIXEL = 4;             // Blocks are rendered into GL_RGBA textures
+
+    private final Font font;
+    private final GL gl;
+    private final int budgetBytes;                             // Maximum total size of the block textures
+
+    // NOTE: iterates in access order, least recently drawn block first
+    private final LinkedHashMap<TextBlock, TextBlock> blocks = new LinkedHashMap<TextBlock, TextBlock>(16, 0.75f, true);
+    private int bytesInUse;
+    private int framebuffer;                                   // Shared by all blocks, the block texture is attached to render it
+    private int fontRestores;                                  // Font.getRestores() When the Textures Were Created
+    private int renders;
+    private int evictions;
+
+    private final int[] names = new int[1];
+    private final int[] savedFramebuffer = new int[1];
+    private final int[] savedViewport = new int[4];
+    private final float[] savedClearColor = new float[4];
+    private final float[] bounds = new float[4];
+    private final float[] projectionMatrix = new float[16];
+
+    /**
+     * @param font        the font to render the blocks with
+     * @param budgetBytes the maximum total size of the textures of all blocks (bytes)
+     */
+    public TextBlockCache(Font font, int budgetBytes) {
+        this.font = font;
+        this.gl = font.getGL();
+        this.budgetBytes = budgetBytes;
+        this.fontRestores = font.getRestores();
+    }
+
+    /**
+     * @param lines the lines of text, from top to bottom
+     */
+    public TextBlock createBlock(CharSequence... lines) {
+        return new TextBlock(this, lines);
+    }
+
+    Font getFont() {
+        return font;
+    }
+
+    /**
+     * make sure the texture of the block is allocated and contains its current text
+     */
+    void prepare(TextBlock block) {
+        if (fontRestores != font.getRestores()) {
+            restore();                                         // The Font Moved to a New Context, the Textures Are Gone
+        }
+        if (block.isCached()) {
+            blocks.get(block);                                 // Mark as Most Recently Used
+            return;
+        }
+
+        measure(block);
+        int width = (int) Math.ceil(bounds[2] - bounds[0]);
+        int height = (int) Math.ceil(bounds[3] - bounds[1]);
+        if (block.textureId != 0 && (width != block.textureWidth || height != block.textureHeight)) {
+            release(block);
+        }
+        if (width <= 0 || height <= 0) {
+            return;                                            // Nothing to draw
+        }
+        block.left = bounds[0];
+        block.bottom = bounds[1];
+
+        if (block.textureId == 0) {
+            allocate(block, width, height);
+        } else {
+            blocks.get(block);                                 // Mark as Most Recently Used
+        }
+        render(block);
+    }
+
+    /**
+     * free the texture of the block
+     */
+    void release(TextBlock block) {
+        if (blocks.remove(block) != null) {
+            releaseTexture(block);
+        }
+    }
+
+    /**
+     * free the textures of all blocks and the framebuffer. the blocks stay usable and are rendered again when drawn.
+     */
+    public void clear() {
+        Iterator<TextBlock> iterator = blocks.keySet().iterator();
+        while (iterator.hasNext()) {
+            TextBlock block = iterator.next();
+            iterator.remove();
+            releaseTexture(block);
+        }
+        if (framebuffer != 0) {
+            names[0] = framebuffer;
+            gl.glDeleteFramebuffers(1, names, 0);
+            framebuffer = 0;
+        }
+    }
+
+    /**
+     * forget the textures of all blocks and the framebuffer after the GL context was lost, without deleting them: they
+     * were destroyed with the context. the blocks are rendered again into new textures when drawn.
+     * NOTE: called by the cache itself the first time a block is drawn after its font was restored
+     */
+    public void restore() {
+        for (TextBlock block : blocks.keySet()) {
+            block.textureId = 0;
+            block.textureWidth = 0;
+            block.textureHeight = 0;
+            block.invalidateTexture();
+        }
+        blocks.clear();
+        bytesInUse = 0;
+        framebuffer = 0;
+        fontRestores = font.getRestores();
+    }
+
+    public int getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public int getBytesInUse() {
+        return bytesInUse;
+    }
+
+    public int getCachedBlocks() {
+        return blocks.size();
+    }
+
+    /**
+     * @return the number of times a block was rendered into its texture
+     */
+    public int getRenders() {
+        return renders;
+    }
+
+    /**
+     * @return the number of textures freed to stay within the budget
+     */
+    public int getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * compute the area covered by the lines, relative to the draw position of the block
+     */
+    private void measure(TextBlock block) {
+        CharSequence[] lines = block.getLines();
+        float lineHeight = font.getScaledCharHeight();
+        float left = 0.0f, bottom = 0.0f, right = 0.0f, top = 0.0f;
+        boolean empty = true;
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].length() == 0) {
+                continue;
+            }
+            float lineY = (lines.length - 1 - i) * lineHeight;
+            font.getBounds(lines[i], bounds, 0);
+            if (empty) {
+                left = bounds[0];
+                right = bounds[2];
+                bottom = lineY + bounds[1];
+                top = lineY + bounds[3];
+                empty = false;
+            } else {
+                left = Math.min(left, bounds[0]);
+                right = Math.max(right, bounds[2]);
+                bottom = Math.min(bottom, lineY + bounds[1]);
+                top = Math.max(top, lineY + bounds[3]);
+            }
+        }
+        float margin = empty ? 0.0f : font.getEffectMargin();  // Room for the outline and shadow
+        bounds[0] = left - margin;
+        bounds[1] = bottom - margin;
+        bounds[2] = right + margin;
+        bounds[3] = top + margin;
+    }
+
+    private void allocate(TextBlock block, int width, int height) {
+        int bytes = width * height * BYTES_PER_PIXEL;
+        Iterator<TextBlock> iterator = blocks.keySet().iterator();
+        while (bytesInUse + bytes > budgetBytes && iterator.hasNext()) {  // Evict Least Recently Used Blocks
+            TextBlock evicted = iterator.next();
+            iterator.remove();
+            releaseTexture(evicted);
+            evictions++;
+        }
+        // NOTE: a block larger than the whole budget is still rendered, after evicting all others
+
+        block.textureId = TextureHelper.loadTexture(gl, width, height, GL_RGBA, null);
+        block.textureWidth = width;
+        block.textureHeight = height;
+        // NOTE: the texture is rendered bottom up, so the top of the block is at v = 1
+        block.region = new TextureRegion(width, height, 0, height, width, -height);
+        bytesInUse += bytes;
+        blocks.put(block, block);
+    }
+
+    private void releaseTexture(TextBlock block) {
+        names[0] = block.textureId;
+        gl.glDeleteTextures(1, names, 0);
+        bytesInUse -= block.textureWidth * block.textureHeight * BYTES_PER_PIXEL;
+        block.textureId = 0;
+        block.textureWidth = 0;
+        block.textureHeight = 0;
+        block.invalidateTexture();
+    }
+
+    private void render(TextBlock block) {
+        // save the state changed for rendering into the texture
+        gl.glGetIntegerv(GL_FRAMEBUFFER_BINDING, savedFramebuffer, 0);
+        gl.glGetIntegerv(GL_VIEWPORT, savedViewport, 0);
+        gl.glGetFloatv(GL_COLOR_CLEAR_VALUE, savedClearColor, 0);
+
+        if (framebuffer == 0) {
+            gl.glGenFramebuffers(1, names, 0);
+            framebuffer = names[0];
+        }
+        gl.glBindFramebuffer(GL_FRAMEBUFFER, framebuffer);
+        gl.glFramebufferTexture2D(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_TEXTURE_2D, block.textureId, 0);
+
+        int status = gl.glCheckFramebufferStatus(GL_FRAMEBUFFER);
+        if (status == GL_FRAMEBUFFER_COMPLETE) {
+            gl.glViewport(0, 0, block.textureWidth, block.textureHeight);
+            gl.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+            gl.glClear(GL_COLOR_BUFFER_BIT);
+
+            // one unit per pixel, with the bottom left of the texture at the bottom left of the block bounds
+            Matrix.orthoM(projectionMatrix, 0, block.left, block.left + block.textureWidth, block.bottom, block.bottom + block.textureHeight, -1, 1);
+
+            // cull and select the atlas level against the texture, not the screen the font usually draws to
+            int viewportWidth = font.getViewportWidth();
+            int viewportHeight = font.getViewportHeight();
+            font.setViewport(block.textureWidth, block.textureHeight);
+
+            CharSequence[] lines = block.getLines();
+            float lineHeight = font.getScaledCharHeight();
+            font.begin(projectionMatrix);
+            {
+                for (int i = 0; i < lines.length; i++) {
+                    font.draw(lines[i], 0.0f, (lines.length - 1 - i) * lineHeight);
+                }
+            }
+            font.end();
+            font.setViewport(viewportWidth, viewportHeight);
+        }
+
+        gl.glBindFramebuffer(GL_FRAMEBUFFER, savedFramebuffer[0]);
+        gl.glViewport(savedViewport[0], savedViewport[1], savedViewport[2], savedViewport[3]);
+        gl.glClearColor(savedClearColor[0], savedClearColor[1], savedClearColor[2], savedClearColor[3]);
+
+        if (status != GL_FRAMEBUFFER_COMPLETE) {
+            throw new RuntimeException("Error rendering text block, framebuffer status: 0x" + Integer.toHexString(status));
+        }
+        block.validate();
+        renders++;
+    }
+}
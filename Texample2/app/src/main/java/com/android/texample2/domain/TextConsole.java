@@ -0,0 +1,293 @@
+package com.android.texample2.domain;
+
+import android.opengl.Matrix;
+
+import com.android.texample2.AttributeVariable;
+import com.android.texample2.gl.GL;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+import static com.android.texample2.gl.GL.*;
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.ByteOrder.nativeOrder;
+
+/**
+ * An append-only log of lines, drawn from a vertex buffer that every line is laid out into once, when it is appended.
+ * Appending uploads only the quads of the new line with glBufferSubData(). Scrolling only changes the matrix the
+ * buffer is drawn with. Drawing is at most two draw calls however many lines are in view.
+ * <p>
+ * The buffer is a ring of glyph quads: when a line does not fit at the end, writing continues at the start, and the
+ * oldest lines are dropped as their quads are overwritten. Lines are positioned relative to the first line of their
+ * pass through the ring, so positions stay small however many lines were appended, and each pass is drawn with its
+ * own translation.
+ * <p>
+ * Usage:
+ * <pre>
+ * TextConsole console = new TextConsole(font, 8192, 1000);
+ * console.setHeight(screenHeight);
+ * console.append("Connected");        // on the GL thread, e.g. through GLSurfaceView.queueEvent()
+ * ...
+ * console.draw(0, screenHeight, orthoMatrix);
+ * </pre>
+ * NOTE: must be used on the GL thread. The buffers belong to the GL context, create a new console after it was lost.
+ * Lines are laid out with the scale, spacing and effects the font has when they are appended.
+ */
+public class TextConsole {
+
+    private static final int VERTICES_PER_GLYPH = 4;
+    private static final int INDICES_PER_GLYPH = 6;
+    private static final int FLOATS_PER_VERTEX = 5;            // X, Y, U, V, MVP Matrix Index (VertexFormat.FLOAT)
+    private static final int VERTEX_SIZE = FLOATS_PER_VERTEX * 4;
+    private static final int GLYPH_SIZE = VERTICES_PER_GLYPH * VERTEX_SIZE;
+    private static final int MAX_GLYPHS = 65536 / VERTICES_PER_GLYPH;  // Vertices Must Fit Short Indices
+
+    private final Font font;
+    private final GL gl;
+    private final RenderStats stats;
+    private final int maxGlyphs;                               // Ring Size (Quads)
+    private final int maxLines;                                // Lines Kept, Including Lines Without Quads
+    private final int[] names = new int[2];
+    private int vertexBuffer, indexBuffer;
+    private final int positionHandle, textureCoordinateHandle, mvpIndexHandle;
+    private final int mvpMatricesHandle, vertexScaleHandle;
+
+    // lines, line n is kept at index n % maxLines
+    private final int[] lineStarts;                            // First Quad of the Line in the Ring
+    private final int[] lineGlyphs;                            // Number of Quads of the Line
+    private final int[] linePasses;                            // Pass Through the Ring the Line Was Written In
+    private int firstLine;                                     // Oldest Line Kept
+    private int nextLine;                                      // Number of Lines Ever Appended
+    private int head;                                          // Quad the Next Line is Written At
+    private int pass;                                          // Current Pass Through the Ring
+    private final int[] passFirstLines = new int[2];           // First Line of the Current and Previous Pass, by Pass & 1
+
+    private float height;
+    private int visibleLines;                                  // Lines Needed to Fill the Height, Including a Partly Visible One
+    private float scrollBack;                                  // Lines Scrolled Up From the Newest Line, 0 = Follow Output
+
+    private float[] layout = new float[64 * VERTICES_PER_GLYPH * FLOATS_PER_VERTEX];
+    private FloatBuffer upload;
+    private final float[] translatedMatrix = new float[16];
+    private final float[] mvpMatrix = new float[16];
+
+    /**
+     * @param maxGlyphs the number of glyph quads the vertex buffer holds (at most 16384), longer lines are cut off
+     * @param maxLines  the number of lines kept at most, older lines are dropped
+     */
+    public TextConsole(Font font, int maxGlyphs, int maxLines) {
+        if (maxGlyphs < 1 || maxGlyphs > MAX_GLYPHS || maxLines < 1) {
+            throw new IllegalArgumentException("Invalid size: " + maxGlyphs + " glyphs, " + maxLines + " lines");
+        }
+        this.font = font;
+        this.gl = font.getGL();
+        this.stats = font.getStats();
+        this.maxGlyphs = maxGlyphs;
+        this.maxLines = maxLines;
+        lineStarts = new int[maxLines];
+        lineGlyphs = new int[maxLines];
+        linePasses = new int[maxLines];
+        upload = allocateDirect(layout.length * 4).order(nativeOrder()).asFloatBuffer();
+
+        FontProgram program = font.getProgram();
+        positionHandle = program.getHandle(AttributeVariable.POSITION);
+        textureCoordinateHandle = program.getHandle(AttributeVariable.TEXTURE_COORDINATE);
+        mvpIndexHandle = program.getHandle(AttributeVariable.MVP_MATRIX);
+        mvpMatricesHandle = program.getMvpMatricesHandle();
+        vertexScaleHandle = program.getVertexScaleHandle();
+
+        gl.glGenBuffers(2, names, 0);
+        vertexBuffer = names[0];
+        indexBuffer = names[1];
+
+        gl.glBindBuffer(GL_ARRAY_BUFFER, vertexBuffer);
+        gl.glBufferData(GL_ARRAY_BUFFER, maxGlyphs * GLYPH_SIZE, null, GL_DYNAMIC_DRAW);
+        gl.glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+        // the indices never change, the same quad pattern as SpriteBatch
+        ShortBuffer indices = allocateDirect(maxGlyphs * INDICES_PER_GLYPH * 2).order(nativeOrder()).asShortBuffer();
+        for (int glyph = 0; glyph < maxGlyphs; glyph++) {
+            short vertex = (short) (glyph * VERTICES_PER_GLYPH);
+            indices.put(vertex).put((short) (vertex + 1)).put((short) (vertex + 2))
+                    .put((short) (vertex + 2)).put((short) (vertex + 3)).put(vertex);
+        }
+        indices.flip();
+        gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexBuffer);
+        gl.glBufferData(GL_ELEMENT_ARRAY_BUFFER, maxGlyphs * INDICES_PER_GLYPH * 2, indices, GL_STATIC_DRAW);
+        gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * @param height the height of the view (units of the projection the console is drawn with)
+     */
+    public void setHeight(float height) {
+        this.height = height;
+        visibleLines = (int) Math.ceil(height / font.getScaledCharHeight()) + 1;
+    }
+
+    public float getHeight() {
+        return height;
+    }
+
+    /**
+     * lay out the line and upload its glyph quads, dropping the oldest lines if the buffer is full
+     */
+    public void append(CharSequence line) {
+        int capacity = Math.min(line.length(), maxGlyphs) * VERTICES_PER_GLYPH * FLOATS_PER_VERTEX;
+        if (layout.length < capacity) {
+            layout = new float[capacity];
+            upload = allocateDirect(capacity * 4).order(nativeOrder()).asFloatBuffer();
+        }
+        CharSequence text = line.length() > maxGlyphs ? line.subSequence(0, maxGlyphs) : line;
+
+        if (nextLine - firstLine == maxLines) {
+            firstLine++;
+        }
+        int lineIndex = nextLine - passFirstLines[pass & 1];   // Position in the Current Pass
+        int glyphs = font.layoutGlyphs(text, 0.0f, -(lineIndex + 1) * font.getScaledCharHeight(), layout, 0);
+
+        if (head + glyphs > maxGlyphs) {
+            // start the next pass at the start of the ring, lines of the previous pass are all overwritten by now
+            while (firstLine < nextLine && linePasses[firstLine % maxLines] != pass) {
+                firstLine++;
+            }
+            pass++;
+            passFirstLines[pass & 1] = nextLine;
+            head = 0;
+            glyphs = font.layoutGlyphs(text, 0.0f, -font.getScaledCharHeight(), layout, 0);
+        }
+        // drop the lines of the previous pass the new quads overwrite
+        while (firstLine < nextLine && linePasses[firstLine % maxLines] != pass
+                && lineStarts[firstLine % maxLines] < head + glyphs) {
+            firstLine++;
+        }
+
+        if (glyphs > 0) {
+            int floats = glyphs * VERTICES_PER_GLYPH * FLOATS_PER_VERTEX;
+            upload.clear();
+            upload.put(layout, 0, floats).flip();
+            gl.glBindBuffer(GL_ARRAY_BUFFER, vertexBuffer);
+            gl.glBufferSubData(GL_ARRAY_BUFFER, head * GLYPH_SIZE, glyphs * GLYPH_SIZE, upload);
+            gl.glBindBuffer(GL_ARRAY_BUFFER, 0);
+            stats.recordVertexBytes(glyphs * GLYPH_SIZE);
+        }
+        int index = nextLine % maxLines;
+        lineStarts[index] = head;
+        lineGlyphs[index] = glyphs;
+        linePasses[index] = pass;
+        head += glyphs;
+        nextLine++;
+    }
+
+    /**
+     * @param lines the number of lines to scroll up from the newest line, 0 to follow new output
+     */
+    public void setScrollBack(float lines) {
+        scrollBack = lines;
+    }
+
+    public void scrollBy(float lines) {
+        scrollBack += lines;
+    }
+
+    /**
+     * @return the lines scrolled up from the newest line, clamped to the lines kept
+     */
+    public float getScrollBack() {
+        scrollBack = Math.max(0.0f, Math.min(scrollBack, nextLine - firstLine - visibleLines + 1));
+        return scrollBack;
+    }
+
+    /**
+     * @return the number of lines kept
+     */
+    public int getLineCount() {
+        return nextLine - firstLine;
+    }
+
+    /**
+     * @return the number of lines appended since the console was created, including dropped lines
+     */
+    public int getAppendedLines() {
+        return nextLine;
+    }
+
+    public void draw(float x, float top, float[] vpMatrix) {
+        draw(x, top, 1.0f, 1.0f, 1.0f, 1.0f, vpMatrix);
+    }
+
+    /**
+     * draw the lines in view, the newest line at the bottom unless scrolled back
+     * NOTE: must not be called between Font.begin() and Font.end()
+     *
+     * @param x   the x-position of the left of the lines
+     * @param top the y-position of the top of the view
+     */
+    public void draw(float x, float top, float red, float green, float blue, float alpha, float[] vpMatrix) {
+        float lineHeight = font.getScaledCharHeight();
+        // the top of the view is this many lines above the end of the newest line
+        // NOTE: kept relative to the newest line, line numbers get too large for float positions
+        float linesAbove = getScrollBack() + height / lineHeight;
+        int lastVisible = nextLine - 1 - (int) getScrollBack();
+        int firstVisible = Math.max(firstLine, nextLine - (int) Math.ceil(linesAbove));
+        if (lastVisible < firstVisible) {
+            return;
+        }
+
+        font.initDraw(red, green, blue, alpha);
+        gl.glBindBuffer(GL_ARRAY_BUFFER, vertexBuffer);
+        gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexBuffer);
+        bindAttributes();
+        gl.glUniform2f(vertexScaleHandle, 1.0f, 1.0f);        // Float Positions and Texture Coordinates
+        stats.recordUniformBytes(8);
+
+        // the visible lines are in at most two passes, each is one contiguous range of quads
+        int line = firstVisible;
+        while (line <= lastVisible) {
+            int linePass = linePasses[line % maxLines];
+            int start = lineStarts[line % maxLines];
+            int end = start;
+            while (line <= lastVisible && linePasses[line % maxLines] == linePass) {
+                end = lineStarts[line % maxLines] + lineGlyphs[line % maxLines];
+                line++;
+            }
+            if (end > start) {
+                // lines of the pass are positioned below its first line, move that line to its place in the view
+                float passTop = top - (passFirstLines[linePass & 1] - nextLine + linesAbove) * lineHeight;
+                Matrix.setIdentityM(translatedMatrix, 0);
+                Matrix.translateM(translatedMatrix, 0, x, passTop, 0.0f);
+                Matrix.multiplyMM(mvpMatrix, 0, vpMatrix, 0, translatedMatrix, 0);
+                gl.glUniformMatrix4fv(mvpMatricesHandle, 1, false, mvpMatrix, 0);
+                stats.recordUniformBytes(16 * 4);
+                gl.glDrawElements(GL_TRIANGLES, (end - start) * INDICES_PER_GLYPH, GL_UNSIGNED_SHORT, start * INDICES_PER_GLYPH * 2);
+                stats.recordDrawCall();
+                stats.recordGlyphs(end - start);
+            }
+        }
+
+        // SpriteBatch draws from client-side arrays, which only works with no buffers bound
+        gl.glBindBuffer(GL_ARRAY_BUFFER, 0);
+        gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+        font.end();
+    }
+
+    private void bindAttributes() {
+        gl.glVertexAttribPointer(positionHandle, 2, GL_FLOAT, false, VERTEX_SIZE, 0);
+        gl.glEnableVertexAttribArray(positionHandle);
+        gl.glVertexAttribPointer(textureCoordinateHandle, 2, GL_FLOAT, false, VERTEX_SIZE, 2 * 4);
+        gl.glEnableVertexAttribArray(textureCoordinateHandle);
+        gl.glVertexAttribPointer(mvpIndexHandle, 1, GL_FLOAT, false, VERTEX_SIZE, 4 * 4);
+        gl.glEnableVertexAttribArray(mvpIndexHandle);
+    }
+
+    /**
+     * delete the vertex and index buffers, the console can not be used afterwards
+     */
+    public void dispose() {
+        names[0] = vertexBuffer;
+        names[1] = indexBuffer;
+        gl.glDeleteBuffers(2, names, 0);
+        vertexBuffer = 0;
+        indexBuffer = 0;
+    }
+}
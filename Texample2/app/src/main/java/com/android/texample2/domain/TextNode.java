@@ -0,0 +1,192 @@
+package com.android.texample2.domain;
+
+import android.opengl.Matrix;
+
+/**
+ * Retained text with a position, rotation, scale and optional parent node.
+ * The local, world and MVP matrices are cached and only recomputed when the node, one of its parents or
+ * the {@link ViewProjection} changed, so drawing a static node costs no matrix math.
+ * <p>
+ * Usage:
+ * <pre>
+ * TextNode label = new TextNode(font, "Score");
+ * label.setPosition(100, 50);
+ * ...
+ * viewProjection.set(projectionMatrix, viewMatrix);  // only when the camera moved
+ * font.begin(viewProjection);
+ * label.draw();
+ * font.end();
+ * </pre>
+ * A node without text only groups its children, e.g. to move or rotate them together.
+ * The origin of a node is the bottom left of its text (including descent), rotations are applied around it.
+ */
+public class TextNode {
+
+    private final Font font;
+    private CharSequence text;
+    private TextNode parent;
+
+    private float x, y, z;
+    private float angleDegX, angleDegY, angleDegZ;
+    private float scaleX = 1.0f, scaleY = 1.0f;
+
+    private final float[] localMatrix = new float[16];
+    private final float[] worldMatrix = new float[16];         // parent world matrix * local matrix
+    private final float[] mvpMatrix = new float[16];
+    private boolean localDirty = true;
+    private int worldVersion;                                  // Incremented whenever the world matrix changes
+    private boolean worldComputed;
+    private TextNode worldParent;                              // Parent and its world version the world matrix was computed with
+    private int worldParentVersion;
+    private ViewProjection mvpViewProjection;                  // View-projection and versions the MVP matrix was computed with
+    private int mvpViewProjectionVersion;
+    private int mvpWorldVersion;
+
+    /**
+     * create a node that only groups other nodes
+     */
+    public TextNode() {
+        this(null, null);
+    }
+
+    public TextNode(Font font, CharSequence text) {
+        this.font = font;
+        this.text = text;
+    }
+
+    public CharSequence getText() {
+        return text;
+    }
+
+    public void setText(CharSequence text) {
+        if (font == null && text != null) {
+            throw new IllegalStateException("Node was created without a font");
+        }
+        this.text = text;
+    }
+
+    public TextNode getParent() {
+        return parent;
+    }
+
+    /**
+     * @param parent the node this node is positioned relative to, or null
+     */
+    public void setParent(TextNode parent) {
+        for (TextNode node = parent; node != null; node = node.parent) {
+            if (node == this) {
+                throw new IllegalArgumentException("Node can not be its own ancestor");
+            }
+        }
+        this.parent = parent;
+    }
+
+    public void setPosition(float x, float y) {
+        setPosition(x, y, z);
+    }
+
+    public void setPosition(float x, float y, float z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        localDirty = true;
+    }
+
+    public void setRotationZ(float angleDegZ) {
+        setRotation(angleDegX, angleDegY, angleDegZ);
+    }
+
+    public void setRotation(float angleDegX, float angleDegY, float angleDegZ) {
+        this.angleDegX = angleDegX;
+        this.angleDegY = angleDegY;
+        this.angleDegZ = angleDegZ;
+        localDirty = true;
+    }
+
+    public void setScale(float scale) {
+        setScale(scale, scale);
+    }
+
+    public void setScale(float scaleX, float scaleY) {
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        localDirty = true;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public float getZ() {
+        return z;
+    }
+
+    /**
+     * @return the world matrix of the node, up to date with the node and its parents
+     */
+    public float[] getWorldMatrix() {
+        updateWorldMatrix();
+        return worldMatrix;
+    }
+
+    /**
+     * draw the text of the node
+     * NOTE: MUST be called between begin() and end() of the node's font. The MVP matrix is only cached
+     * when the font was begun with a {@link ViewProjection}.
+     */
+    public void draw() {
+        if (text == null) {
+            return;
+        }
+        updateWorldMatrix();
+
+        ViewProjection viewProjection = font.getViewProjection();
+        if (viewProjection == null) {
+            Matrix.multiplyMM(mvpMatrix, 0, font.getViewProjectionMatrix(), 0, worldMatrix, 0);
+            mvpViewProjection = null;
+        } else if (viewProjection != mvpViewProjection || viewProjection.getVersion() != mvpViewProjectionVersion || worldVersion != mvpWorldVersion) {
+            Matrix.multiplyMM(mvpMatrix, 0, viewProjection.getMatrix(), 0, worldMatrix, 0);
+            mvpViewProjection = viewProjection;
+            mvpViewProjectionVersion = viewProjection.getVersion();
+            mvpWorldVersion = worldVersion;
+        }
+
+        font.draw(text, mvpMatrix);
+    }
+
+    private void updateWorldMatrix() {
+        boolean worldDirty = !worldComputed;
+        if (localDirty) {
+            Matrix.setIdentityM(localMatrix, 0);
+            Matrix.translateM(localMatrix, 0, x, y, z);
+            Matrix.rotateM(localMatrix, 0, angleDegZ, 0, 0, 1);
+            Matrix.rotateM(localMatrix, 0, angleDegX, 1, 0, 0);
+            Matrix.rotateM(localMatrix, 0, angleDegY, 0, 1, 0);
+            Matrix.scaleM(localMatrix, 0, scaleX, scaleY, 1.0f);
+            localDirty = false;
+            worldDirty = true;
+        }
+        if (parent != null) {
+            parent.updateWorldMatrix();
+            worldDirty |= parent != worldParent || parent.worldVersion != worldParentVersion;
+        } else {
+            worldDirty |= worldParent != null;
+        }
+
+        if (worldDirty) {
+            if (parent != null) {
+                Matrix.multiplyMM(worldMatrix, 0, parent.worldMatrix, 0, localMatrix, 0);
+                worldParentVersion = parent.worldVersion;
+            } else {
+                System.arraycopy(localMatrix, 0, worldMatrix, 0, 16);
+            }
+            worldParent = parent;
+            worldComputed = true;
+            worldVersion++;
+        }
+    }
+}
@@ -3,39 +3,67 @@ package com.android.texample2.domain;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
-import android.opengl.GLUtils;
 
-import static android.opengl.GLES20.*;
+import com.android.texample2.gl.GL;
+
+import java.nio.ByteBuffer;
+
+import static com.android.texample2.gl.GL.*;
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.ByteOrder.nativeOrder;
 
 class TextureHelper {
 
-    public static int loadTexture(final Context context, final int resourceId) {
+    public static int loadTexture(GL gl, final Context context, final int resourceId) {
         final BitmapFactory.Options options = new BitmapFactory.Options();
         options.inScaled = false; // No pre-scaling
         final Bitmap bitmap = BitmapFactory.decodeResource(context.getResources(), resourceId, options);
 
-        return loadTexture(bitmap);
+        return loadTexture(gl, bitmap);
     }
 
-    public static int loadTexture(Bitmap bitmap) {
+    public static int loadTexture(GL gl, Bitmap bitmap) {
+        // NOTE: ALPHA_8 bitmaps (font maps) are uploaded as GL_ALPHA, everything else as GL_RGBA
+        int format = bitmap.getConfig() == Bitmap.Config.ALPHA_8 ? GL_ALPHA : GL_RGBA;
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        ByteBuffer pixels = allocateDirect(bitmap.getByteCount()).order(nativeOrder());
+        bitmap.copyPixelsToBuffer(pixels);
+        pixels.flip();
+
+        // Recycle the bitmap, since its data has been copied out.
+        bitmap.recycle();
+
+        return loadTexture(gl, width, height, format, pixels);
+    }
+
+    /**
+     * create a texture from raw pixels
+     *
+     * @param format the pixel format, GL_ALPHA (1 byte per pixel) or GL_RGBA (4 bytes per pixel)
+     * @param pixels the pixels, row by row starting at the top row of the image, or null to allocate the texture without initializing it
+     */
+    public static int loadTexture(GL gl, int width, int height, int format, ByteBuffer pixels) {
         final int[] textureHandle = new int[1];
 
-        glGenTextures(1, textureHandle, 0);
+        gl.glGenTextures(1, textureHandle, 0);
 
         if (textureHandle[0] != 0) {
-            glBindTexture(GL_TEXTURE_2D, textureHandle[0]);
+            gl.glBindTexture(GL_TEXTURE_2D, textureHandle[0]);
 
             // Set filtering
-            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
-            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
-            glTexParameterf(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);  // Set U Wrapping
-            glTexParameterf(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);  // Set V Wrapping
-
-            // Load the bitmap into the bound texture.
-            GLUtils.texImage2D(GL_TEXTURE_2D, 0, bitmap, 0);
+            gl.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+            gl.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+            gl.glTexParameterf(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);  // Set U Wrapping
+            gl.glTexParameterf(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);  // Set V Wrapping
 
-            // Recycle the bitmap, since its data has been loaded into OpenGL.
-            bitmap.recycle();
+            // Load the pixels into the bound texture.
+            try {
+                gl.glTexImage2D(GL_TEXTURE_2D, 0, format, width, height, 0, format, GL_UNSIGNED_BYTE, pixels);
+            } catch (RuntimeException e) {
+                gl.glDeleteTextures(1, textureHandle, 0);  // e.g. a ResourceTrackingGL budget was exceeded
+                throw e;
+            }
         }
 
         if (textureHandle[0] == 0) {
@@ -0,0 +1,38 @@
+package com.android.texample2.domain;
+
+/**
+ * Layout of the glyph vertices a font uploads every batch, selected with {@link FontBuilder#vertexFormat(VertexFormat)}.
+ */
+public enum VertexFormat {
+
+    /**
+     * X, Y, U, V and MVP matrix index as floats: 20 bytes per vertex
+     */
+    FLOAT(20),
+
+    /**
+     * X, Y as 16-bit fixed point with {@link #PACKED_POSITION_SCALE} steps per unit, and U, V as unsigned 16-bit
+     * values whose upper 13 bits are the texture coordinate in 1/8192 steps and whose lower 3 bits each hold half of
+     * the MVP matrix index, which the vertex shader takes apart: 8 bytes per vertex.
+     * NOTE: positions are relative to the start of each string, so a string can be up to 8191 units (pixels) long;
+     * positions beyond that are clamped. Texture coordinates are exact on atlases up to 8192 pixels, except that 1.0
+     * is drawn as 8191/8192.
+     */
+    PACKED(8);
+
+    public static final float PACKED_POSITION_SCALE = 4.0f;   // Steps Per Unit (ie. Quarter Pixel Precision)
+    public static final float PACKED_TEXCOORD_STEPS = 65536.0f;  // Steps of the Packed U, V Values Per Texture Coordinate Unit
+
+    private final int vertexSize;
+
+    VertexFormat(int vertexSize) {
+        this.vertexSize = vertexSize;
+    }
+
+    /**
+     * @return the size of a vertex (bytes)
+     */
+    public int getVertexSize() {
+        return vertexSize;
+    }
+}
@@ -1,11 +1,13 @@
 package com.android.texample2.domain;
 
 import com.android.texample2.AttributeVariable;
+import com.android.texample2.gl.GL;
 
+import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
 
-import static android.opengl.GLES20.*;
+import static com.android.texample2.gl.GL.*;
 import static java.nio.ByteBuffer.allocateDirect;
 import static java.nio.ByteOrder.nativeOrder;
 
@@ -21,6 +23,9 @@ class Vertices {
 
     private final static int INDEX_SIZE = Short.SIZE / 8;      // Index Byte Size (Short.SIZE = bits)
 
+    // VertexFormat.PACKED: byte offset of the texture coordinates, which also carry the MVP matrix index
+    private static final int PACKED_TEXCOORD_OFFSET = 4;
+
     private static final String TAG = "Vertices";
 
     //--Members--//
@@ -28,7 +33,10 @@ class Vertices {
     public final int positionCnt;                      // Number of Position Components (2=2D, 3=3D)
     public final int vertexStride;                     // Vertex Stride (Element Size of a Single Vertex)
     public final int vertexSize;                       // Bytesize of a Single Vertex
-    private final IntBuffer vertices;                          // Vertex Buffer
+    private final VertexFormat vertexFormat;
+    private final ByteBuffer vertexBytes;                      // Vertex Buffer
+    private final IntBuffer vertices;                          // Vertex Buffer as Float Bits (VertexFormat.FLOAT)
+    private final ShortBuffer packedVertices;                  // Vertex Buffer as Shorts (VertexFormat.PACKED)
     private final ShortBuffer indices;                         // Index Buffer
     public int numVertices;                            // Number of Vertices in Buffer
     public int numIndices;                             // Number of Indices in Buffer
@@ -36,19 +44,28 @@ class Vertices {
     private int mTextureCoordinateHandle;
     private int mPositionHandle;
     private int mMVPIndexHandle;
+    private final RenderStats stats;
+    private final GL gl;
 
     /**
      * create the vertices/indices as specified (for 2d/3d)
      *
      * @param maxVertices maximum vertices allowed in buffer
      * @param maxIndices  maximum indices allowed in buffer
+     * @param stats       the counters to record uploads and draw calls in
+     * @param vertexFormat the layout of the vertices
      */
-    public Vertices(int maxVertices, int maxIndices, FontProgram program) {
+    public Vertices(int maxVertices, int maxIndices, FontProgram program, RenderStats stats, VertexFormat vertexFormat) {
+        this.stats = stats;
+        this.gl = program.getGL();
+        this.vertexFormat = vertexFormat;
         this.positionCnt = POSITION_CNT_2D;  // Set Position Component Count
         this.vertexStride = this.positionCnt + TEXCOORD_CNT + MVP_MATRIX_INDEX_CNT;  // Calculate Vertex Stride
-        this.vertexSize = this.vertexStride * 4;        // Calculate Vertex Byte Size
+        this.vertexSize = vertexFormat.getVertexSize();  // Vertex Byte Size
 
-        this.vertices = allocateDirect(maxVertices * vertexSize).order(nativeOrder()).asIntBuffer();
+        this.vertexBytes = allocateDirect(maxVertices * vertexSize).order(nativeOrder());
+        this.vertices = vertexBytes.asIntBuffer();
+        this.packedVertices = vertexBytes.asShortBuffer();
 
         if (maxIndices > 0) {                        // IF Indices Required
             this.indices = allocateDirect(maxIndices * INDEX_SIZE).order(nativeOrder()).asShortBuffer();
@@ -59,7 +76,7 @@ class Vertices {
         numVertices = 0;                                // Zero Vertices in Buffer
         numIndices = 0;                                 // Zero Indices in Buffer
 
-        this.tmpBuffer = new int[maxVertices * vertexSize / 4];  // Create Temp Buffer
+        this.tmpBuffer = vertexFormat == VertexFormat.FLOAT ? new int[maxVertices * vertexSize / 4] : null;  // Create Temp Buffer
 
         // initialize the shader attribute handles
         mTextureCoordinateHandle = program.getHandle(AttributeVariable.TEXTURE_COORDINATE);
@@ -84,6 +101,21 @@ class Vertices {
         this.vertices.put(tmpBuffer, 0, length);      // Set New Vertices
         this.vertices.flip();                           // Flip Vertex Buffer
         this.numVertices = length / this.vertexStride;  // Save Number of Vertices
+        stats.recordVertexBytes(length * 4);
+    }
+
+    /**
+     * set the specified vertices in the vertex buffer, for VertexFormat.PACKED
+     *
+     * @param vertices array of packed vertices (shorts) to set
+     * @param offset   offset to first vertex in array
+     * @param length   number of shorts in the vertex array (total)
+     */
+    public void setVertices(short[] vertices, int offset, int length) {
+        packedVertices.clear();
+        packedVertices.put(vertices, offset, length).flip();
+        this.numVertices = length * 2 / vertexSize;   // Save Number of Vertices
+        stats.recordVertexBytes(length * 2);
     }
 
     /**
@@ -104,17 +136,34 @@ class Vertices {
      * USAGE: call once before calling draw() multiple times for this buffer.
      */
     public void bind() {
+        if (vertexFormat == VertexFormat.PACKED) {
+            bindPacked();
+            return;
+        }
         vertices.position(0);                         // Set Vertex Buffer to Position
-        glVertexAttribPointer(mPositionHandle, positionCnt, GL_FLOAT, false, vertexSize, vertices);
-        glEnableVertexAttribArray(mPositionHandle);
+        gl.glVertexAttribPointer(mPositionHandle, positionCnt, GL_FLOAT, false, vertexSize, vertices);
+        gl.glEnableVertexAttribArray(mPositionHandle);
 
         vertices.position(positionCnt);  // Set Vertex Buffer to Texture Coords (NOTE: position based on whether color is also specified)
-        glVertexAttribPointer(mTextureCoordinateHandle, TEXCOORD_CNT, GL_FLOAT, false, vertexSize, vertices);
-        glEnableVertexAttribArray(mTextureCoordinateHandle);
+        gl.glVertexAttribPointer(mTextureCoordinateHandle, TEXCOORD_CNT, GL_FLOAT, false, vertexSize, vertices);
+        gl.glEnableVertexAttribArray(mTextureCoordinateHandle);
 
         vertices.position(positionCnt + TEXCOORD_CNT);
-        glVertexAttribPointer(mMVPIndexHandle, MVP_MATRIX_INDEX_CNT, GL_FLOAT, false, vertexSize, vertices);
-        glEnableVertexAttribArray(mMVPIndexHandle);
+        gl.glVertexAttribPointer(mMVPIndexHandle, MVP_MATRIX_INDEX_CNT, GL_FLOAT, false, vertexSize, vertices);
+        gl.glEnableVertexAttribArray(mMVPIndexHandle);
+    }
+
+    private void bindPacked() {
+        vertexBytes.position(0);
+        gl.glVertexAttribPointer(mPositionHandle, positionCnt, GL_SHORT, false, vertexSize, vertexBytes);
+        gl.glEnableVertexAttribArray(mPositionHandle);
+
+        vertexBytes.position(PACKED_TEXCOORD_OFFSET);
+        gl.glVertexAttribPointer(mTextureCoordinateHandle, TEXCOORD_CNT, GL_UNSIGNED_SHORT, false, vertexSize, vertexBytes);
+        gl.glEnableVertexAttribArray(mTextureCoordinateHandle);
+
+        // NOTE: the index is in the low bits of the texture coordinates, the disabled attribute reads as 0
+        gl.glDisableVertexAttribArray(mMVPIndexHandle);
     }
 
     /**
@@ -129,11 +178,12 @@ class Vertices {
         if (indices != null) {                       // IF Indices Exist
             indices.position(offset);                  // Set Index Buffer to Specified Offset
             //draw indexed
-            glDrawElements(primitiveType, numVertices, GL_UNSIGNED_SHORT, indices);
+            gl.glDrawElements(primitiveType, numVertices, GL_UNSIGNED_SHORT, indices);
         } else {                                         // ELSE No Indices Exist
             //draw direct
-            glDrawArrays(primitiveType, offset, numVertices);
+            gl.glDrawArrays(primitiveType, offset, numVertices);
         }
+        stats.recordDrawCall();
     }
 
     /**
@@ -141,6 +191,6 @@ class Vertices {
      * USAGE: call once before calling draw() multiple times for this buffer.
      */
     public void unbind() {
-        glDisableVertexAttribArray(mTextureCoordinateHandle);
+        gl.glDisableVertexAttribArray(mTextureCoordinateHandle);
     }
 }
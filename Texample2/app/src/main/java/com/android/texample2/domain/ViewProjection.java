@@ -0,0 +1,42 @@
+package com.android.texample2.domain;
+
+import android.opengl.Matrix;
+
+/**
+ * A view-projection matrix with a version that changes whenever the matrix does,
+ * so {@link TextNode}s recompute their MVP matrix only after the camera or projection changed.
+ */
+public class ViewProjection {
+
+    private final float[] matrix = new float[16];
+    private int version;
+
+    public ViewProjection() {
+        Matrix.setIdentityM(matrix, 0);
+    }
+
+    public void set(float[] vpMatrix) {
+        System.arraycopy(vpMatrix, 0, matrix, 0, 16);
+        markDirty();
+    }
+
+    public void set(float[] projectionMatrix, float[] viewMatrix) {
+        Matrix.multiplyMM(matrix, 0, projectionMatrix, 0, viewMatrix, 0);
+        markDirty();
+    }
+
+    /**
+     * NOTE: call markDirty() after changing the returned matrix in place
+     */
+    public float[] getMatrix() {
+        return matrix;
+    }
+
+    public void markDirty() {
+        version++;
+    }
+
+    int getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,173 @@
+package com.android.texample2.gl;
+
+import java.nio.Buffer;
+
+/**
+ * The OpenGL ES 2.0 calls made by the text engine.
+ * Method names and signatures follow android.opengl.GLES20, so code written against the static API
+ * only needs a "gl." prefix. Implementations: {@link AndroidGL} on a device, {@link NullGL} without a context,
+ * {@link RecordingGL} to log what any of them is asked to do and {@link ResourceTrackingGL} to account for the
+ * objects they create.
+ */
+public interface GL {
+
+    int GL_NO_ERROR = 0;
+    int GL_ONE = 1;
+    int GL_TRIANGLES = 0x0004;
+    int GL_ONE_MINUS_SRC_ALPHA = 0x0303;
+    int GL_COLOR_BUFFER_BIT = 0x00004000;
+    int GL_BLEND = 0x0BE2;
+    int GL_VIEWPORT = 0x0BA2;
+    int GL_COLOR_CLEAR_VALUE = 0x0C22;
+    int GL_TEXTURE_2D = 0x0DE1;
+    int GL_UNSIGNED_BYTE = 0x1401;
+    int GL_SHORT = 0x1402;
+    int GL_UNSIGNED_SHORT = 0x1403;
+    int GL_FLOAT = 0x1406;
+    int GL_ALPHA = 0x1906;
+    int GL_RGB = 0x1907;
+    int GL_RGBA = 0x1908;
+    int GL_LUMINANCE = 0x1909;
+    int GL_LUMINANCE_ALPHA = 0x190A;
+    int GL_LINEAR = 0x2601;
+    int GL_TEXTURE_MAG_FILTER = 0x2800;
+    int GL_TEXTURE_MIN_FILTER = 0x2801;
+    int GL_TEXTURE_WRAP_S = 0x2802;
+    int GL_TEXTURE_WRAP_T = 0x2803;
+    int GL_CLAMP_TO_EDGE = 0x812F;
+    int GL_TEXTURE0 = 0x84C0;
+    int GL_ARRAY_BUFFER = 0x8892;
+    int GL_ELEMENT_ARRAY_BUFFER = 0x8893;
+    int GL_STREAM_DRAW = 0x88E0;
+    int GL_STATIC_DRAW = 0x88E4;
+    int GL_DYNAMIC_DRAW = 0x88E8;
+    int GL_FRAGMENT_SHADER = 0x8B30;
+    int GL_VERTEX_SHADER = 0x8B31;
+    int GL_COMPILE_STATUS = 0x8B81;
+    int GL_LINK_STATUS = 0x8B82;
+    int GL_FRAMEBUFFER_BINDING = 0x8CA6;
+    int GL_FRAMEBUFFER_COMPLETE = 0x8CD5;
+    int GL_COLOR_ATTACHMENT0 = 0x8CE0;
+    int GL_FRAMEBUFFER = 0x8D40;
+
+    // Programs and shaders
+
+    int glCreateProgram();
+
+    void glAttachShader(int program, int shader);
+
+    void glBindAttribLocation(int program, int index, String name);
+
+    void glLinkProgram(int program);
+
+    void glGetProgramiv(int program, int pname, int[] params, int offset);
+
+    String glGetProgramInfoLog(int program);
+
+    void glDeleteProgram(int program);
+
+    void glUseProgram(int program);
+
+    int glCreateShader(int type);
+
+    void glShaderSource(int shader, String string);
+
+    void glCompileShader(int shader);
+
+    void glGetShaderiv(int shader, int pname, int[] params, int offset);
+
+    String glGetShaderInfoLog(int shader);
+
+    void glDeleteShader(int shader);
+
+    int glGetUniformLocation(int program, String name);
+
+    int glGetAttribLocation(int program, String name);
+
+    // Uniforms
+
+    void glUniform1i(int location, int x);
+
+    void glUniform1f(int location, float x);
+
+    void glUniform2f(int location, float x, float y);
+
+    void glUniform3f(int location, float x, float y, float z);
+
+    void glUniform4fv(int location, int count, float[] v, int offset);
+
+    void glUniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset);
+
+    // Vertex attributes and drawing
+
+    void glEnableVertexAttribArray(int index);
+
+    void glDisableVertexAttribArray(int index);
+
+    void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, Buffer ptr);
+
+    // NOTE: the buffer object offset overloads need API 9 on Android, the reason for minSdkVersion 9
+    void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, int offset);
+
+    void glDrawElements(int mode, int count, int type, Buffer indices);
+
+    void glDrawElements(int mode, int count, int type, int offset);
+
+    void glDrawArrays(int mode, int first, int count);
+
+    // Textures
+
+    void glActiveTexture(int texture);
+
+    void glGenTextures(int n, int[] textures, int offset);
+
+    void glDeleteTextures(int n, int[] textures, int offset);
+
+    void glBindTexture(int target, int texture);
+
+    void glTexParameteri(int target, int pname, int param);
+
+    void glTexParameterf(int target, int pname, float param);
+
+    void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels);
+
+    void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels);
+
+    // Buffers
+
+    void glGenBuffers(int n, int[] buffers, int offset);
+
+    void glDeleteBuffers(int n, int[] buffers, int offset);
+
+    void glBindBuffer(int target, int buffer);
+
+    void glBufferData(int target, int size, Buffer data, int usage);
+
+    void glBufferSubData(int target, int offset, int size, Buffer data);
+
+    // Framebuffers
+
+    void glGenFramebuffers(int n, int[] framebuffers, int offset);
+
+    void glDeleteFramebuffers(int n, int[] framebuffers, int offset);
+
+    void glBindFramebuffer(int target, int framebuffer);
+
+    void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level);
+
+    int glCheckFramebufferStatus(int target);
+
+    void glViewport(int x, int y, int width, int height);
+
+    void glClearColor(float red, float green, float blue, float alpha);
+
+    void glClear(int mask);
+
+    void glFinish();
+
+    // State queries
+
+    void glGetIntegerv(int pname, int[] params, int offset);
+
+    void glGetFloatv(int pname, float[] params, int offset);
+}
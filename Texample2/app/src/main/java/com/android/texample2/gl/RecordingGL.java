@@ -0,0 +1,602 @@
+package com.android.texample2.gl;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link GL} decorator that logs every call with the number of bytes it passes to GL, and tracks
+ * binding state to tell real state changes from redundant ones. Calls are forwarded to the wrapped GL.
+ * <p>
+ * Typical use is an assertion on the work done for a scene, e.g. that drawing 500 glyphs in one color
+ * issues no more than 21 draw calls:
+ * <pre>
+ * RecordingGL gl = new RecordingGL(new NullGL());
+ * ... build the font with gl and draw ...
+ * assert gl.getDrawCalls() &lt;= 21;
+ * </pre>
+ */
+public class RecordingGL implements GL {
+
+    public static class Call {
+
+        private final String name;
+        private final int bytes;
+
+        Call(String name, int bytes) {
+            this.name = name;
+            this.bytes = bytes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public String toString() {
+            return bytes > 0 ? name + " (" + bytes + " bytes)" : name;
+        }
+    }
+
+    private final GL gl;
+
+    private final List<Call> calls = new ArrayList<Call>();
+    private final Map<String, Integer> callCounts = new HashMap<String, Integer>();
+    private final Map<String, Long> callBytes = new HashMap<String, Long>();
+    private boolean logging = true;
+
+    private int stateChanges;
+    private int redundantStateChanges;
+    private int currentProgram;
+    private int currentTextureUnit = GL_TEXTURE0;
+    private int currentFramebuffer;
+    private final Map<Integer, Integer> boundBuffers = new HashMap<Integer, Integer>();
+    private final Map<Integer, Integer> boundTextures = new HashMap<Integer, Integer>();
+    private final Map<Integer, Boolean> enabledAttributes = new HashMap<Integer, Boolean>();
+    private final Map<Integer, ClientArray> clientArrays = new HashMap<Integer, ClientArray>();
+    private long vertexBytes;                                  // Read From Client-Side Arrays by the Draw Calls
+
+    /**
+     * a vertex attribute read from client memory, set with glVertexAttribPointer(..., Buffer)
+     */
+    private static class ClientArray {
+
+        private final Buffer buffer;
+        private final int stride;                              // Bytes From One Vertex to the Next
+
+        ClientArray(Buffer buffer, int stride) {
+            this.buffer = buffer;
+            this.stride = stride;
+        }
+    }
+
+    public RecordingGL(GL gl) {
+        this.gl = gl;
+    }
+
+    /**
+     * keep counters but stop appending to the call log, for long runs where only the totals matter
+     */
+    public void setLogging(boolean logging) {
+        this.logging = logging;
+    }
+
+    public void reset() {
+        calls.clear();
+        callCounts.clear();
+        callBytes.clear();
+        vertexBytes = 0;
+        stateChanges = 0;
+        redundantStateChanges = 0;
+    }
+
+    public List<Call> getCalls() {
+        return Collections.unmodifiableList(calls);
+    }
+
+    public int getCallCount(String name) {
+        Integer count = callCounts.get(name);
+        return count != null ? count : 0;
+    }
+
+    public long getBytes(String name) {
+        Long bytes = callBytes.get(name);
+        return bytes != null ? bytes : 0;
+    }
+
+    public int getDrawCalls() {
+        return getCallCount("glDrawElements") + getCallCount("glDrawArrays");
+    }
+
+    public int getUniformUploads() {
+        return getCallCount("glUniform1i") + getCallCount("glUniform1f") + getCallCount("glUniform2f") + getCallCount("glUniform3f") + getCallCount("glUniform4fv") + getCallCount("glUniformMatrix4fv");
+    }
+
+    public long getUniformBytes() {
+        return getBytes("glUniform1i") + getBytes("glUniform1f") + getBytes("glUniform2f") + getBytes("glUniform3f") + getBytes("glUniform4fv") + getBytes("glUniformMatrix4fv");
+    }
+
+    /**
+     * @return the bytes of client-side vertex arrays read by the draw calls: the vertices each draw references times the
+     * stride, once per array (interleaved attributes share one array). Buffer objects are counted by getBufferBytes().
+     */
+    public long getVertexBytes() {
+        return vertexBytes;
+    }
+
+    public long getTextureBytes() {
+        return getBytes("glTexImage2D") + getBytes("glTexSubImage2D");
+    }
+
+    /**
+     * @return the bytes uploaded into buffer objects, by glBufferData() and glBufferSubData()
+     */
+    public long getBufferBytes() {
+        return getBytes("glBufferData") + getBytes("glBufferSubData");
+    }
+
+    public int getFramebufferBinds() {
+        return getCallCount("glBindFramebuffer");
+    }
+
+    /**
+     * @return the number of program, texture, buffer, framebuffer and vertex attribute state changes that changed the state
+     */
+    public int getStateChanges() {
+        return stateChanges;
+    }
+
+    /**
+     * @return the number of program, texture, buffer, framebuffer and vertex attribute state changes that set the state it already had
+     */
+    public int getRedundantStateChanges() {
+        return redundantStateChanges;
+    }
+
+    private void record(String name, int bytes) {
+        if (logging) {
+            calls.add(new Call(name, bytes));
+        }
+        Integer count = callCounts.get(name);
+        callCounts.put(name, count != null ? count + 1 : 1);
+        if (bytes > 0) {
+            Long total = callBytes.get(name);
+            callBytes.put(name, total != null ? total + bytes : bytes);
+        }
+    }
+
+    private void stateChange(boolean changed) {
+        if (changed) {
+            stateChanges++;
+        } else {
+            redundantStateChanges++;
+        }
+    }
+
+    private void attributeArray(int index, boolean enabled) {
+        Boolean current = enabledAttributes.get(index);
+        stateChange(current == null || current != enabled);
+        enabledAttributes.put(index, enabled);
+    }
+
+    /**
+     * add the bytes a draw reads from the enabled client-side arrays
+     *
+     * @param vertices the number of vertices the draw references
+     */
+    private void drawVertices(int vertices) {
+        List<Buffer> counted = new ArrayList<Buffer>(clientArrays.size());
+        for (Map.Entry<Integer, ClientArray> entry : clientArrays.entrySet()) {
+            Boolean enabled = enabledAttributes.get(entry.getKey());
+            ClientArray array = entry.getValue();
+            if (enabled == null || !enabled || containsSame(counted, array.buffer)) {
+                continue;                                      // Not Read, or Interleaved With One Already Counted
+            }
+            counted.add(array.buffer);
+            vertexBytes += (long) vertices * array.stride;
+        }
+    }
+
+    private static boolean containsSame(List<Buffer> buffers, Buffer buffer) {
+        for (int i = 0; i < buffers.size(); i++) {
+            if (buffers.get(i) == buffer) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of vertices from the lowest to the highest index drawn, 0 if the indices are not readable
+     */
+    private static int indexedVertices(int count, int type, Buffer indices) {
+        if (count <= 0 || !(indices instanceof ShortBuffer) || type != GL_UNSIGNED_SHORT) {
+            return 0;
+        }
+        ShortBuffer shorts = (ShortBuffer) indices;
+        int start = shorts.position();
+        int min = Integer.MAX_VALUE, max = -1;
+        for (int i = 0; i < count && start + i < shorts.limit(); i++) {
+            int index = shorts.get(start + i) & 0xFFFF;
+            min = Math.min(min, index);
+            max = Math.max(max, index);
+        }
+        return max >= 0 ? max - min + 1 : 0;
+    }
+
+    private static int elementSize(int type) {
+        switch (type) {
+            case GL_FLOAT:
+                return 4;
+            case GL_SHORT:
+            case GL_UNSIGNED_SHORT:
+                return 2;
+            default:
+                return 1;
+        }
+    }
+
+    private static int bytes(Buffer buffer) {
+        if (buffer == null) {
+            return 0;
+        }
+        if (buffer instanceof ByteBuffer) {
+            return buffer.remaining();
+        }
+        if (buffer instanceof ShortBuffer) {
+            return buffer.remaining() * 2;
+        }
+        return buffer.remaining() * 4;
+    }
+
+    @Override
+    public int glCreateProgram() {
+        record("glCreateProgram", 0);
+        return gl.glCreateProgram();
+    }
+
+    @Override
+    public void glAttachShader(int program, int shader) {
+        record("glAttachShader", 0);
+        gl.glAttachShader(program, shader);
+    }
+
+    @Override
+    public void glBindAttribLocation(int program, int index, String name) {
+        record("glBindAttribLocation", 0);
+        gl.glBindAttribLocation(program, index, name);
+    }
+
+    @Override
+    public void glLinkProgram(int program) {
+        record("glLinkProgram", 0);
+        gl.glLinkProgram(program);
+    }
+
+    @Override
+    public void glGetProgramiv(int program, int pname, int[] params, int offset) {
+        record("glGetProgramiv", 0);
+        gl.glGetProgramiv(program, pname, params, offset);
+    }
+
+    @Override
+    public String glGetProgramInfoLog(int program) {
+        record("glGetProgramInfoLog", 0);
+        return gl.glGetProgramInfoLog(program);
+    }
+
+    @Override
+    public void glDeleteProgram(int program) {
+        record("glDeleteProgram", 0);
+        gl.glDeleteProgram(program);
+    }
+
+    @Override
+    public void glUseProgram(int program) {
+        record("glUseProgram", 0);
+        stateChange(program != currentProgram);
+        currentProgram = program;
+        gl.glUseProgram(program);
+    }
+
+    @Override
+    public int glCreateShader(int type) {
+        record("glCreateShader", 0);
+        return gl.glCreateShader(type);
+    }
+
+    @Override
+    public void glShaderSource(int shader, String string) {
+        record("glShaderSource", string.length());
+        gl.glShaderSource(shader, string);
+    }
+
+    @Override
+    public void glCompileShader(int shader) {
+        record("glCompileShader", 0);
+        gl.glCompileShader(shader);
+    }
+
+    @Override
+    public void glGetShaderiv(int shader, int pname, int[] params, int offset) {
+        record("glGetShaderiv", 0);
+        gl.glGetShaderiv(shader, pname, params, offset);
+    }
+
+    @Override
+    public String glGetShaderInfoLog(int shader) {
+        record("glGetShaderInfoLog", 0);
+        return gl.glGetShaderInfoLog(shader);
+    }
+
+    @Override
+    public void glDeleteShader(int shader) {
+        record("glDeleteShader", 0);
+        gl.glDeleteShader(shader);
+    }
+
+    @Override
+    public int glGetUniformLocation(int program, String name) {
+        record("glGetUniformLocation", 0);
+        return gl.glGetUniformLocation(program, name);
+    }
+
+    @Override
+    public int glGetAttribLocation(int program, String name) {
+        record("glGetAttribLocation", 0);
+        return gl.glGetAttribLocation(program, name);
+    }
+
+    @Override
+    public void glUniform1i(int location, int x) {
+        record("glUniform1i", 4);
+        gl.glUniform1i(location, x);
+    }
+
+    @Override
+    public void glUniform1f(int location, float x) {
+        record("glUniform1f", 4);
+        gl.glUniform1f(location, x);
+    }
+
+    @Override
+    public void glUniform2f(int location, float x, float y) {
+        record("glUniform2f", 8);
+        gl.glUniform2f(location, x, y);
+    }
+
+    @Override
+    public void glUniform3f(int location, float x, float y, float z) {
+        record("glUniform3f", 12);
+        gl.glUniform3f(location, x, y, z);
+    }
+
+    @Override
+    public void glUniform4fv(int location, int count, float[] v, int offset) {
+        record("glUniform4fv", count * 4 * 4);
+        gl.glUniform4fv(location, count, v, offset);
+    }
+
+    @Override
+    public void glUniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset) {
+        record("glUniformMatrix4fv", count * 16 * 4);
+        gl.glUniformMatrix4fv(location, count, transpose, value, offset);
+    }
+
+    @Override
+    public void glEnableVertexAttribArray(int index) {
+        record("glEnableVertexAttribArray", 0);
+        attributeArray(index, true);
+        gl.glEnableVertexAttribArray(index);
+    }
+
+    @Override
+    public void glDisableVertexAttribArray(int index) {
+        record("glDisableVertexAttribArray", 0);
+        attributeArray(index, false);
+        gl.glDisableVertexAttribArray(index);
+    }
+
+    @Override
+    public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, Buffer ptr) {
+        // NOTE: nothing is read until a draw call, which counts the vertices it uses: remaining() would count the
+        // rest of the array once per attribute
+        record("glVertexAttribPointer", 0);
+        if (ptr != null) {
+            clientArrays.put(indx, new ClientArray(ptr, stride != 0 ? stride : size * elementSize(type)));
+        } else {
+            clientArrays.remove(indx);
+        }
+        gl.glVertexAttribPointer(indx, size, type, normalized, stride, ptr);
+    }
+
+    @Override
+    public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, int offset) {
+        record("glVertexAttribPointer", 0);
+        clientArrays.remove(indx);                             // Read From the Bound Array Buffer
+        gl.glVertexAttribPointer(indx, size, type, normalized, stride, offset);
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, Buffer indices) {
+        record("glDrawElements", count * (type == GL_UNSIGNED_SHORT ? 2 : 1));
+        drawVertices(indexedVertices(count, type, indices));
+        gl.glDrawElements(mode, count, type, indices);
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, int offset) {
+        record("glDrawElements", 0);                          // Indices Read From the Bound Element Buffer
+        gl.glDrawElements(mode, count, type, offset);
+    }
+
+    @Override
+    public void glDrawArrays(int mode, int first, int count) {
+        record("glDrawArrays", 0);
+        drawVertices(count);
+        gl.glDrawArrays(mode, first, count);
+    }
+
+    @Override
+    public void glActiveTexture(int texture) {
+        record("glActiveTexture", 0);
+        stateChange(texture != currentTextureUnit);
+        currentTextureUnit = texture;
+        gl.glActiveTexture(texture);
+    }
+
+    @Override
+    public void glGenTextures(int n, int[] textures, int offset) {
+        record("glGenTextures", 0);
+        gl.glGenTextures(n, textures, offset);
+    }
+
+    @Override
+    public void glDeleteTextures(int n, int[] textures, int offset) {
+        record("glDeleteTextures", 0);
+        gl.glDeleteTextures(n, textures, offset);
+    }
+
+    @Override
+    public void glBindTexture(int target, int texture) {
+        record("glBindTexture", 0);
+        Integer current = boundTextures.get(currentTextureUnit);
+        stateChange(current == null || current != texture);
+        boundTextures.put(currentTextureUnit, texture);
+        gl.glBindTexture(target, texture);
+    }
+
+    @Override
+    public void glTexParameteri(int target, int pname, int param) {
+        record("glTexParameteri", 0);
+        gl.glTexParameteri(target, pname, param);
+    }
+
+    @Override
+    public void glTexParameterf(int target, int pname, float param) {
+        record("glTexParameterf", 0);
+        gl.glTexParameterf(target, pname, param);
+    }
+
+    @Override
+    public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels) {
+        record("glTexImage2D", bytes(pixels));
+        gl.glTexImage2D(target, level, internalformat, width, height, border, format, type, pixels);
+    }
+
+    @Override
+    public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels) {
+        record("glTexSubImage2D", bytes(pixels));
+        gl.glTexSubImage2D(target, level, xoffset, yoffset, width, height, format, type, pixels);
+    }
+
+    @Override
+    public void glGenBuffers(int n, int[] buffers, int offset) {
+        record("glGenBuffers", 0);
+        gl.glGenBuffers(n, buffers, offset);
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, int[] buffers, int offset) {
+        record("glDeleteBuffers", 0);
+        gl.glDeleteBuffers(n, buffers, offset);
+    }
+
+    @Override
+    public void glBindBuffer(int target, int buffer) {
+        record("glBindBuffer", 0);
+        Integer current = boundBuffers.get(target);
+        stateChange(current == null || current != buffer);
+        boundBuffers.put(target, buffer);
+        gl.glBindBuffer(target, buffer);
+    }
+
+    @Override
+    public void glBufferData(int target, int size, Buffer data, int usage) {
+        record("glBufferData", data != null ? size : 0);
+        gl.glBufferData(target, size, data, usage);
+    }
+
+    @Override
+    public void glBufferSubData(int target, int offset, int size, Buffer data) {
+        record("glBufferSubData", size);
+        gl.glBufferSubData(target, offset, size, data);
+    }
+
+    @Override
+    public void glGenFramebuffers(int n, int[] framebuffers, int offset) {
+        record("glGenFramebuffers", 0);
+        gl.glGenFramebuffers(n, framebuffers, offset);
+    }
+
+    @Override
+    public void glDeleteFramebuffers(int n, int[] framebuffers, int offset) {
+        record("glDeleteFramebuffers", 0);
+        gl.glDeleteFramebuffers(n, framebuffers, offset);
+    }
+
+    @Override
+    public void glBindFramebuffer(int target, int framebuffer) {
+        record("glBindFramebuffer", 0);
+        stateChange(framebuffer != currentFramebuffer);
+        currentFramebuffer = framebuffer;
+        gl.glBindFramebuffer(target, framebuffer);
+    }
+
+    @Override
+    public void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level) {
+        record("glFramebufferTexture2D", 0);
+        gl.glFramebufferTexture2D(target, attachment, textarget, texture, level);
+    }
+
+    @Override
+    public int glCheckFramebufferStatus(int target) {
+        record("glCheckFramebufferStatus", 0);
+        return gl.glCheckFramebufferStatus(target);
+    }
+
+    @Override
+    public void glViewport(int x, int y, int width, int height) {
+        record("glViewport", 0);
+        gl.glViewport(x, y, width, height);
+    }
+
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {
+        record("glClearColor", 0);
+        gl.glClearColor(red, green, blue, alpha);
+    }
+
+    @Override
+    public void glClear(int mask) {
+        record("glClear", 0);
+        gl.glClear(mask);
+    }
+
+    @Override
+    public void glFinish() {
+        record("glFinish", 0);
+        gl.glFinish();
+    }
+
+    @Override
+    public void glGetIntegerv(int pname, int[] params, int offset) {
+        record("glGetIntegerv", 0);
+        gl.glGetIntegerv(pname, params, offset);
+    }
+
+    @Override
+    public void glGetFloatv(int pname, float[] params, int offset) {
+        record("glGetFloatv", 0);
+        gl.glGetFloatv(pname, params, offset);
+    }
+}
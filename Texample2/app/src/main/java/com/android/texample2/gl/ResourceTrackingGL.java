@@ -0,0 +1,558 @@
+package com.android.texample2.gl;
+
+import android.util.Log;
+
+import java.nio.Buffer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link GL} decorator that keeps track of the textures, buffers, framebuffers, programs and shaders created through it,
+ * with the estimated memory of the textures and buffers and the code that created each object.
+ * Calls are forwarded to the wrapped GL.
+ * <p>
+ * Use it to report the GPU memory in use, to fail fast when an optional budget would be exceeded, and to find objects
+ * that were never deleted:
+ * <pre>
+ * ResourceTrackingGL gl = new ResourceTrackingGL(new AndroidGL());
+ * gl.setBudgetBytes(16 * 1024 * 1024);
+ * ... create fonts with gl, draw, dispose them ...
+ * gl.reportLeaks();                    // logs every object that is still alive
+ * </pre>
+ * NOTE: finding the creating code walks the stack for every object created, meant for debug builds.
+ * Programs, shaders and framebuffers are counted with 0 bytes, their memory is not known to the application.
+ */
+public class ResourceTrackingGL implements GL {
+
+    private static final String TAG = "ResourceTrackingGL";
+    private static final int OWNER_FRAMES = 3;                 // Stack frames (outside this package) recorded as the owner
+    private static final int MAX_LEVELS = 16;                  // Mipmap levels of a 32768x32768 texture
+    private static final String PACKAGE = GL.class.getName().substring(0, GL.class.getName().lastIndexOf('.') + 1);
+
+    public enum Type {
+        TEXTURE, BUFFER, FRAMEBUFFER, PROGRAM, SHADER
+    }
+
+    public static class Resource {
+
+        private final Type type;
+        private final int name;
+        private final String owner;
+        private final long[] levelBytes;                       // Bytes of each mipmap level, a buffer only has level 0
+        private long bytes;
+
+        Resource(Type type, int name, String owner) {
+            this.type = type;
+            this.name = name;
+            this.owner = owner;
+            this.levelBytes = new long[type == Type.TEXTURE ? MAX_LEVELS : 1];
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public int getName() {
+            return name;
+        }
+
+        /**
+         * @return the innermost stack frames outside the gl package at creation, e.g. "TextureHelper.loadTexture:58 &lt; FontTexture.uploadTexture:111"
+         */
+        public String getOwner() {
+            return owner;
+        }
+
+        /**
+         * @return the estimated memory of the object (bytes)
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + name + " (" + bytes + " bytes) created by " + owner;
+        }
+    }
+
+    private final GL gl;
+
+    private final Map<Type, Map<Integer, Resource>> resources = new EnumMap<Type, Map<Integer, Resource>>(Type.class);
+    private final Map<Type, Long> bytesByType = new EnumMap<Type, Long>(Type.class);
+    private long totalBytes;
+    private long peakBytes;
+    private long budgetBytes;                                  // 0 for no budget
+
+    private int currentTextureUnit = GL_TEXTURE0;
+    private final Map<Integer, Integer> boundTextures = new HashMap<Integer, Integer>();
+    private final Map<Integer, Integer> boundBuffers = new HashMap<Integer, Integer>();
+
+    public ResourceTrackingGL(GL gl) {
+        this.gl = gl;
+        for (Type type : Type.values()) {
+            resources.put(type, new LinkedHashMap<Integer, Resource>());
+            bytesByType.put(type, 0L);
+        }
+    }
+
+    /**
+     * @param budgetBytes the maximum memory of all textures and buffers (bytes), 0 for no budget. an upload that
+     *                    would exceed it throws an IllegalStateException instead of being passed to GL.
+     */
+    public void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * @return the estimated memory of all live textures and buffers (bytes)
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * @return the highest total memory since the tracker was created (bytes)
+     */
+    public long getPeakBytes() {
+        return peakBytes;
+    }
+
+    public long getBytes(Type type) {
+        return bytesByType.get(type);
+    }
+
+    /**
+     * @return the number of live objects of the type
+     */
+    public int getCount(Type type) {
+        return resources.get(type).size();
+    }
+
+    /**
+     * @return all live objects, in order of creation per type
+     */
+    public List<Resource> getResources() {
+        List<Resource> live = new ArrayList<Resource>();
+        for (Map<Integer, Resource> ofType : resources.values()) {
+            live.addAll(ofType.values());
+        }
+        return live;
+    }
+
+    /**
+     * log every live object as a leak. call it when all objects should have been deleted, e.g. after disposing
+     * all fonts and programs.
+     *
+     * @return the number of leaked objects
+     */
+    public int reportLeaks() {
+        List<Resource> leaks = getResources();
+        for (Resource leak : leaks) {
+            Log.w(TAG, "Leaked " + leak);
+        }
+        if (!leaks.isEmpty()) {
+            Log.w(TAG, leaks.size() + " objects leaked, " + totalBytes + " bytes");
+        }
+        return leaks.size();
+    }
+
+    /**
+     * forget all objects without reporting them, after the GL context was lost they were destroyed with it
+     */
+    public void contextLost() {
+        for (Type type : Type.values()) {
+            resources.get(type).clear();
+            bytesByType.put(type, 0L);
+        }
+        totalBytes = 0;
+        currentTextureUnit = GL_TEXTURE0;
+        boundTextures.clear();
+        boundBuffers.clear();
+    }
+
+    private void create(Type type, int name) {
+        if (name != 0) {
+            resources.get(type).put(name, new Resource(type, name, owner()));
+        }
+    }
+
+    private void delete(Type type, int name) {
+        Resource resource = resources.get(type).remove(name);
+        if (resource != null) {
+            addBytes(type, -resource.bytes);
+        }
+    }
+
+    private void resize(Resource resource, int level, long bytes) {
+        long delta = bytes - resource.levelBytes[level];
+        if (budgetBytes > 0 && delta > 0 && totalBytes + delta > budgetBytes) {
+            throw new IllegalStateException("GPU memory budget of " + budgetBytes + " bytes exceeded by "
+                    + (totalBytes + delta - budgetBytes) + " bytes, uploading into " + resource);
+        }
+        resource.levelBytes[level] = bytes;
+        resource.bytes += delta;
+        addBytes(resource.type, delta);
+    }
+
+    private void addBytes(Type type, long delta) {
+        bytesByType.put(type, bytesByType.get(type) + delta);
+        totalBytes += delta;
+        peakBytes = Math.max(peakBytes, totalBytes);
+    }
+
+    private static void unbind(Map<Integer, Integer> bindings, int name) {
+        for (Map.Entry<Integer, Integer> binding : bindings.entrySet()) {
+            if (binding.getValue() == name) {
+                binding.setValue(0);
+            }
+        }
+    }
+
+    private static int bytesPerPixel(int format, int type) {
+        if (type != GL_UNSIGNED_BYTE) {
+            return 2;                                          // GL_UNSIGNED_SHORT_5_6_5, _4_4_4_4 and _5_5_5_1
+        }
+        switch (format) {
+            case GL_ALPHA:
+            case GL_LUMINANCE:
+                return 1;
+            case GL_LUMINANCE_ALPHA:
+                return 2;
+            case GL_RGB:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+
+    private static String owner() {
+        StringBuilder owner = new StringBuilder();
+        int frames = 0;
+        for (StackTraceElement frame : new Throwable().getStackTrace()) {
+            String className = frame.getClassName();
+            if (className.startsWith(PACKAGE)) {
+                continue;
+            }
+            if (frames > 0) {
+                owner.append(" < ");
+            }
+            owner.append(className.substring(className.lastIndexOf('.') + 1)).append('.').append(frame.getMethodName())
+                    .append(':').append(frame.getLineNumber());
+            if (++frames == OWNER_FRAMES) {
+                break;
+            }
+        }
+        return owner.toString();
+    }
+
+    @Override
+    public int glCreateProgram() {
+        int program = gl.glCreateProgram();
+        create(Type.PROGRAM, program);
+        return program;
+    }
+
+    @Override
+    public void glAttachShader(int program, int shader) {
+        gl.glAttachShader(program, shader);
+    }
+
+    @Override
+    public void glBindAttribLocation(int program, int index, String name) {
+        gl.glBindAttribLocation(program, index, name);
+    }
+
+    @Override
+    public void glLinkProgram(int program) {
+        gl.glLinkProgram(program);
+    }
+
+    @Override
+    public void glGetProgramiv(int program, int pname, int[] params, int offset) {
+        gl.glGetProgramiv(program, pname, params, offset);
+    }
+
+    @Override
+    public String glGetProgramInfoLog(int program) {
+        return gl.glGetProgramInfoLog(program);
+    }
+
+    @Override
+    public void glDeleteProgram(int program) {
+        gl.glDeleteProgram(program);
+        delete(Type.PROGRAM, program);
+    }
+
+    @Override
+    public void glUseProgram(int program) {
+        gl.glUseProgram(program);
+    }
+
+    @Override
+    public int glCreateShader(int type) {
+        int shader = gl.glCreateShader(type);
+        create(Type.SHADER, shader);
+        return shader;
+    }
+
+    @Override
+    public void glShaderSource(int shader, String string) {
+        gl.glShaderSource(shader, string);
+    }
+
+    @Override
+    public void glCompileShader(int shader) {
+        gl.glCompileShader(shader);
+    }
+
+    @Override
+    public void glGetShaderiv(int shader, int pname, int[] params, int offset) {
+        gl.glGetShaderiv(shader, pname, params, offset);
+    }
+
+    @Override
+    public String glGetShaderInfoLog(int shader) {
+        return gl.glGetShaderInfoLog(shader);
+    }
+
+    @Override
+    public void glDeleteShader(int shader) {
+        gl.glDeleteShader(shader);
+        delete(Type.SHADER, shader);
+    }
+
+    @Override
+    public int glGetUniformLocation(int program, String name) {
+        return gl.glGetUniformLocation(program, name);
+    }
+
+    @Override
+    public int glGetAttribLocation(int program, String name) {
+        return gl.glGetAttribLocation(program, name);
+    }
+
+    @Override
+    public void glUniform1i(int location, int x) {
+        gl.glUniform1i(location, x);
+    }
+
+    @Override
+    public void glUniform1f(int location, float x) {
+        gl.glUniform1f(location, x);
+    }
+
+    @Override
+    public void glUniform2f(int location, float x, float y) {
+        gl.glUniform2f(location, x, y);
+    }
+
+    @Override
+    public void glUniform3f(int location, float x, float y, float z) {
+        gl.glUniform3f(location, x, y, z);
+    }
+
+    @Override
+    public void glUniform4fv(int location, int count, float[] v, int offset) {
+        gl.glUniform4fv(location, count, v, offset);
+    }
+
+    @Override
+    public void glUniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset) {
+        gl.glUniformMatrix4fv(location, count, transpose, value, offset);
+    }
+
+    @Override
+    public void glEnableVertexAttribArray(int index) {
+        gl.glEnableVertexAttribArray(index);
+    }
+
+    @Override
+    public void glDisableVertexAttribArray(int index) {
+        gl.glDisableVertexAttribArray(index);
+    }
+
+    @Override
+    public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, Buffer ptr) {
+        gl.glVertexAttribPointer(indx, size, type, normalized, stride, ptr);
+    }
+
+    @Override
+    public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, int offset) {
+        gl.glVertexAttribPointer(indx, size, type, normalized, stride, offset);
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, Buffer indices) {
+        gl.glDrawElements(mode, count, type, indices);
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, int offset) {
+        gl.glDrawElements(mode, count, type, offset);
+    }
+
+    @Override
+    public void glDrawArrays(int mode, int first, int count) {
+        gl.glDrawArrays(mode, first, count);
+    }
+
+    @Override
+    public void glActiveTexture(int texture) {
+        currentTextureUnit = texture;
+        gl.glActiveTexture(texture);
+    }
+
+    @Override
+    public void glGenTextures(int n, int[] textures, int offset) {
+        gl.glGenTextures(n, textures, offset);
+        for (int i = 0; i < n; i++) {
+            create(Type.TEXTURE, textures[offset + i]);
+        }
+    }
+
+    @Override
+    public void glDeleteTextures(int n, int[] textures, int offset) {
+        gl.glDeleteTextures(n, textures, offset);
+        for (int i = 0; i < n; i++) {
+            delete(Type.TEXTURE, textures[offset + i]);
+            unbind(boundTextures, textures[offset + i]);
+        }
+    }
+
+    @Override
+    public void glBindTexture(int target, int texture) {
+        boundTextures.put(currentTextureUnit, texture);
+        gl.glBindTexture(target, texture);
+    }
+
+    @Override
+    public void glTexParameteri(int target, int pname, int param) {
+        gl.glTexParameteri(target, pname, param);
+    }
+
+    @Override
+    public void glTexParameterf(int target, int pname, float param) {
+        gl.glTexParameterf(target, pname, param);
+    }
+
+    @Override
+    public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels) {
+        Resource resource = resources.get(Type.TEXTURE).get(boundTextures.get(currentTextureUnit));
+        if (resource != null) {
+            resize(resource, level, (long) width * height * bytesPerPixel(format, type));
+        }
+        gl.glTexImage2D(target, level, internalformat, width, height, border, format, type, pixels);
+    }
+
+    @Override
+    public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels) {
+        gl.glTexSubImage2D(target, level, xoffset, yoffset, width, height, format, type, pixels);
+    }
+
+    @Override
+    public void glGenBuffers(int n, int[] buffers, int offset) {
+        gl.glGenBuffers(n, buffers, offset);
+        for (int i = 0; i < n; i++) {
+            create(Type.BUFFER, buffers[offset + i]);
+        }
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, int[] buffers, int offset) {
+        gl.glDeleteBuffers(n, buffers, offset);
+        for (int i = 0; i < n; i++) {
+            delete(Type.BUFFER, buffers[offset + i]);
+            unbind(boundBuffers, buffers[offset + i]);
+        }
+    }
+
+    @Override
+    public void glBindBuffer(int target, int buffer) {
+        boundBuffers.put(target, buffer);
+        gl.glBindBuffer(target, buffer);
+    }
+
+    @Override
+    public void glBufferData(int target, int size, Buffer data, int usage) {
+        Resource resource = resources.get(Type.BUFFER).get(boundBuffers.get(target));
+        if (resource != null) {
+            resize(resource, 0, size);
+        }
+        gl.glBufferData(target, size, data, usage);
+    }
+
+    @Override
+    public void glBufferSubData(int target, int offset, int size, Buffer data) {
+        gl.glBufferSubData(target, offset, size, data);
+    }
+
+    @Override
+    public void glGenFramebuffers(int n, int[] framebuffers, int offset) {
+        gl.glGenFramebuffers(n, framebuffers, offset);
+        for (int i = 0; i < n; i++) {
+            create(Type.FRAMEBUFFER, framebuffers[offset + i]);
+        }
+    }
+
+    @Override
+    public void glDeleteFramebuffers(int n, int[] framebuffers, int offset) {
+        gl.glDeleteFramebuffers(n, framebuffers, offset);
+        for (int i = 0; i < n; i++) {
+            delete(Type.FRAMEBUFFER, framebuffers[offset + i]);
+        }
+    }
+
+    @Override
+    public void glBindFramebuffer(int target, int framebuffer) {
+        gl.glBindFramebuffer(target, framebuffer);
+    }
+
+    @Override
+    public void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level) {
+        gl.glFramebufferTexture2D(target, attachment, textarget, texture, level);
+    }
+
+    @Override
+    public int glCheckFramebufferStatus(int target) {
+        return gl.glCheckFramebufferStatus(target);
+    }
+
+    @Override
+    public void glViewport(int x, int y, int width, int height) {
+        gl.glViewport(x, y, width, height);
+    }
+
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {
+        gl.glClearColor(red, green, blue, alpha);
+    }
+
+    @Override
+    public void glClear(int mask) {
+        gl.glClear(mask);
+    }
+
+    @Override
+    public void glFinish() {
+        gl.glFinish();
+    }
+
+    @Override
+    public void glGetIntegerv(int pname, int[] params, int offset) {
+        gl.glGetIntegerv(pname, params, offset);
+    }
+
+    @Override
+    public void glGetFloatv(int pname, float[] params, int offset) {
+        gl.glGetFloatv(pname, params, offset);
+    }
+}
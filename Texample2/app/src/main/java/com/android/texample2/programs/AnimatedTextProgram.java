@@ -0,0 +1,20 @@
+package com.android.texample2.programs;
+
+import com.android.texample2.AttributeVariable;
+import com.android.texample2.gl.GL;
+
+import static com.android.texample2.AttributeVariable.*;
+import static com.android.texample2.RawResourceReader.readShaderFileFromResource;
+
+
+public class AnimatedTextProgram {
+
+    public static Program createAnimatedTextProgram(GL gl) {
+        String vertexShaderCode = readShaderFileFromResource("animated_vertex_shader");
+        String fragmentShaderCode = readShaderFileFromResource("animated_fragment_shader");
+        AttributeVariable[] programVariables = {POSITION, TEXTURE_COORDINATE, GLYPH};
+
+        return new Program(gl, vertexShaderCode, fragmentShaderCode, programVariables);
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.android.texample2.programs;
 
 import com.android.texample2.AttributeVariable;
+import com.android.texample2.gl.GL;
 
 import static com.android.texample2.AttributeVariable.*;
 import static com.android.texample2.RawResourceReader.readShaderFileFromResource;
@@ -8,12 +9,12 @@ import static com.android.texample2.RawResourceReader.readShaderFileFromResource
 
 public class BatchTextProgram {
 
-    public static Program createBatchTextProgram() {
+    public static Program createBatchTextProgram(GL gl) {
         String vertexShaderCode = readShaderFileFromResource("batch_vertex_shader");
         String fragmentShaderCode = readShaderFileFromResource("batch_fragment_shader");
         AttributeVariable[] programVariables = {POSITION, TEXTURE_COORDINATE, MVP_MATRIX};
 
-        return new Program(vertexShaderCode, fragmentShaderCode, programVariables);
+        return new Program(gl, vertexShaderCode, fragmentShaderCode, programVariables);
     }
 
 }
@@ -1,12 +1,22 @@
 package com.android.texample2.programs;
 
+import com.android.texample2.domain.AnimationProgram;
 import com.android.texample2.domain.FontProgram;
+import com.android.texample2.domain.GridProgram;
 
 public class FontProgramAdapter {
 
     public static FontProgram createFontProgram(Program program) {
         int programHandle = program.getHandle();
-        return new FontProgram(programHandle);
+        return new FontProgram(program.getGL(), programHandle);
+    }
+
+    public static GridProgram createGridProgram(Program program) {
+        return new GridProgram(program.getGL(), program.getHandle());
+    }
+
+    public static AnimationProgram createAnimationProgram(Program program) {
+        return new AnimationProgram(program.getGL(), program.getHandle());
     }
 
 }
@@ -0,0 +1,20 @@
+package com.android.texample2.programs;
+
+import com.android.texample2.AttributeVariable;
+import com.android.texample2.gl.GL;
+
+import static com.android.texample2.AttributeVariable.*;
+import static com.android.texample2.RawResourceReader.readShaderFileFromResource;
+
+
+public class GridTextProgram {
+
+    public static Program createGridTextProgram(GL gl) {
+        String vertexShaderCode = readShaderFileFromResource("grid_vertex_shader");
+        String fragmentShaderCode = readShaderFileFromResource("grid_fragment_shader");
+        AttributeVariable[] programVariables = {POSITION, TEXTURE_COORDINATE, COLOR};
+
+        return new Program(gl, vertexShaderCode, fragmentShaderCode, programVariables);
+    }
+
+}
@@ -3,46 +3,67 @@ package com.android.texample2.programs;
 import android.util.Log;
 
 import com.android.texample2.AttributeVariable;
+import com.android.texample2.gl.GL;
 
-import static android.opengl.GLES20.*;
+import static com.android.texample2.gl.GL.*;
 
 
 public class Program {
 
     private static final String TAG = "Program";
 
+    private final GL gl;
     private int programHandle;
 
-    public Program(String vertexShaderCode, String fragmentShaderCode, AttributeVariable[] programVariables) {
-        int vertexShaderHandle = loadShader(GL_VERTEX_SHADER, vertexShaderCode);
-        int fragmentShaderHandle = loadShader(GL_FRAGMENT_SHADER, fragmentShaderCode);
+    public Program(GL gl, String vertexShaderCode, String fragmentShaderCode, AttributeVariable[] programVariables) {
+        this.gl = gl;
+        int vertexShaderHandle = loadShader(gl, GL_VERTEX_SHADER, vertexShaderCode);
+        int fragmentShaderHandle = loadShader(gl, GL_FRAGMENT_SHADER, fragmentShaderCode);
 
-        programHandle = createProgram(vertexShaderHandle, fragmentShaderHandle, programVariables);
+        programHandle = createProgram(gl, vertexShaderHandle, fragmentShaderHandle, programVariables);
+
+        // NOTE: the shaders are only flagged for deletion, GL frees them together with the program
+        gl.glDeleteShader(vertexShaderHandle);
+        gl.glDeleteShader(fragmentShaderHandle);
+    }
+
+    /**
+     * free the program, it can not be used afterwards
+     */
+    public void delete() {
+        if (programHandle != 0) {
+            gl.glDeleteProgram(programHandle);
+            programHandle = 0;
+        }
     }
 
     public int getHandle() {
         return programHandle;
     }
 
-    private static int createProgram(int vertexShaderHandle, int fragmentShaderHandle, AttributeVariable[] variables) {
-        int mProgram = glCreateProgram();
+    public GL getGL() {
+        return gl;
+    }
+
+    private static int createProgram(GL gl, int vertexShaderHandle, int fragmentShaderHandle, AttributeVariable[] variables) {
+        int mProgram = gl.glCreateProgram();
 
         if (mProgram != 0) {
-            glAttachShader(mProgram, vertexShaderHandle);
-            glAttachShader(mProgram, fragmentShaderHandle);
+            gl.glAttachShader(mProgram, vertexShaderHandle);
+            gl.glAttachShader(mProgram, fragmentShaderHandle);
 
             for (int i = 0; i < variables.length; i++) {
-                glBindAttribLocation(mProgram, i, variables[i].getName());
+                gl.glBindAttribLocation(mProgram, i, variables[i].getName());
             }
 
-            glLinkProgram(mProgram);
+            gl.glLinkProgram(mProgram);
 
             final int[] linkStatus = new int[1];
-            glGetProgramiv(mProgram, GL_LINK_STATUS, linkStatus, 0);
+            gl.glGetProgramiv(mProgram, GL_LINK_STATUS, linkStatus, 0);
 
             if (linkStatus[0] == 0) {
-                Log.v(TAG, glGetProgramInfoLog(mProgram));
-                glDeleteProgram(mProgram);
+                Log.v(TAG, gl.glGetProgramInfoLog(mProgram));
+                gl.glDeleteProgram(mProgram);
                 mProgram = 0;
             }
         }
@@ -53,21 +74,21 @@ public class Program {
         return mProgram;
     }
 
-    private static int loadShader(int type, String shaderCode) {
-        int shaderHandle = glCreateShader(type);
+    private static int loadShader(GL gl, int type, String shaderCode) {
+        int shaderHandle = gl.glCreateShader(type);
 
         if (shaderHandle != 0) {
-            glShaderSource(shaderHandle, shaderCode);
-            glCompileShader(shaderHandle);
+            gl.glShaderSource(shaderHandle, shaderCode);
+            gl.glCompileShader(shaderHandle);
 
             // Get the compilation status.
             final int[] compileStatus = new int[1];
-            glGetShaderiv(shaderHandle, GL_COMPILE_STATUS, compileStatus, 0);
+            gl.glGetShaderiv(shaderHandle, GL_COMPILE_STATUS, compileStatus, 0);
 
             // If the compilation failed, delete the shader.
             if (compileStatus[0] == 0) {
-                Log.v(TAG, "Shader fail info: " + glGetShaderInfoLog(shaderHandle));
-                glDeleteShader(shaderHandle);
+                Log.v(TAG, "Shader fail info: " + gl.glGetShaderInfoLog(shaderHandle));
+                gl.glDeleteShader(shaderHandle);
                 shaderHandle = 0;
             }
         }
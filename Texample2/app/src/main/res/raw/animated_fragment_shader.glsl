@@ -0,0 +1,9 @@
+uniform sampler2D u_Texture;   // The input texture.
+precision mediump float;       // Set the default precision to medium. We don't need as high of a precision in the fragment shader.
+uniform vec4 u_Color;
+varying vec2 v_TexCoordinate;  // Interpolated texture coordinate per fragment.
+varying float v_Alpha;         // Fade of the glyph
+
+void main() {
+   gl_FragColor = texture2D(u_Texture, v_TexCoordinate).w * u_Color * v_Alpha;
+}
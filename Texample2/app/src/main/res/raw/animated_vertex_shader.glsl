@@ -0,0 +1,40 @@
+uniform mat4 u_MVPMatrix;          // The combined model/view/projection matrix of the animated text
+uniform float u_Time;              // Seconds, on the same clock as the string start times
+uniform vec2 u_Reveal;             // Seconds between the reveal of two glyphs, seconds a glyph fades in after its reveal
+uniform vec3 u_Wave;               // Amplitude (units), glyphs per wave, waves per second; amplitude 0 for no wave
+uniform vec2 u_Jitter;             // Amplitude (units), changes per second; amplitude 0 for no jitter
+
+attribute vec4 a_Position;         // Per-vertex position information we will pass in.
+attribute vec2 a_TexCoordinate;    // Per-vertex texture coordinate information we will pass in
+attribute vec2 a_Glyph;            // Index of the glyph in its string, start time of the string (seconds)
+varying vec2 v_TexCoordinate;      // This will be passed into the fragment shader.
+varying float v_Alpha;             // Fade of the glyph
+
+float random(float seed) {
+   return fract(sin(seed * 12.9898) * 43758.5453);
+}
+
+void main()
+{
+   // NOTE: everything depends on the glyph, not the vertex, so the 4 vertices of a glyph move together
+   float index = a_Glyph.x;
+   float age = u_Time - a_Glyph.y - index * u_Reveal.x;     // Seconds since the glyph was revealed
+   if (age < 0.0) {
+      gl_Position = vec4(0.0, 0.0, 2.0, 1.0);              // Not revealed yet: outside the clip volume, nothing is drawn
+      v_TexCoordinate = a_TexCoordinate;
+      v_Alpha = 0.0;
+      return;
+   }
+   v_Alpha = u_Reveal.y > 0.0 ? min(age / u_Reveal.y, 1.0) : 1.0;
+
+   vec2 position = a_Position.xy;
+   if (u_Wave.x != 0.0) {
+      position.y += u_Wave.x * sin(6.2831853 * (index / u_Wave.y - u_Wave.z * u_Time));
+   }
+   if (u_Jitter.x != 0.0) {
+      float step = floor(u_Time * u_Jitter.y);
+      position += u_Jitter.x * (vec2(random(index + step * 17.0), random(index * 3.0 + step * 29.0 + 0.5)) * 2.0 - 1.0);
+   }
+   v_TexCoordinate = a_TexCoordinate;
+   gl_Position = u_MVPMatrix * vec4(position, 0.0, 1.0);
+}
\ No newline at end of file
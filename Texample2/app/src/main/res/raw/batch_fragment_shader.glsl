@@ -1,9 +1,40 @@
 uniform sampler2D u_Texture;   // The input texture.
 precision mediump float;       // Set the default precision to medium. We don't need as high of a precision in the fragment shader.
 uniform vec4 u_Color;
+uniform vec4 u_OutlineColor;
+uniform float u_OutlineWidth;  // Outline width in texture coordinates, 0 for no outline
+uniform vec4 u_ShadowColor;    // Shadow color, alpha 0 for no shadow
+uniform vec2 u_ShadowOffset;   // Shadow offset in texture coordinates
+uniform float u_Premultiplied; // 1 for an RGBA texture of premultiplied colors (a text block), 0 for glyph coverage
 varying vec2 v_TexCoordinate;  // Interpolated texture coordinate per fragment.
 
+float coverage(vec2 offset) {
+   return texture2D(u_Texture, v_TexCoordinate + offset).w;
+}
+
 void main() {
+   if (u_Premultiplied > 0.0) {
+      // the colors of the glyphs, outline and shadow are already in the texture, only tint them
+      gl_FragColor = texture2D(u_Texture, v_TexCoordinate) * u_Color;
+      return;
+   }
+
    //texture is grayscale so take only grayscale value from it when computing color output (otherwise font is always black)
-   gl_FragColor = texture2D(u_Texture, v_TexCoordinate).w * u_Color;
+   vec4 color = coverage(vec2(0.0)) * u_Color;
+
+   // the outline and shadow are drawn behind the glyph in the same pass, by sampling the glyph at an offset
+   if (u_OutlineWidth > 0.0) {
+      // dilate the glyph: the outline covers a fragment as much as the glyph covers any point within the outline width
+      float d = u_OutlineWidth;
+      float diagonal = d * 0.7071;
+      float outline = max(max(max(coverage(vec2(d, 0.0)), coverage(vec2(-d, 0.0))),
+                              max(coverage(vec2(0.0, d)), coverage(vec2(0.0, -d)))),
+                          max(max(coverage(vec2(diagonal, diagonal)), coverage(vec2(-diagonal, diagonal))),
+                              max(coverage(vec2(diagonal, -diagonal)), coverage(vec2(-diagonal, -diagonal)))));
+      color += outline * u_OutlineColor * (1.0 - color.a);
+   }
+   if (u_ShadowColor.a > 0.0) {
+      color += coverage(-u_ShadowOffset) * u_ShadowColor * (1.0 - color.a);
+   }
+   gl_FragColor = color;
 }
@@ -1,4 +1,5 @@
 uniform mat4 u_MVPMatrix[24];      // An array representing the combined model/view/projection matrices for each sprite
+uniform vec2 u_VertexScale;        // Units per position step (1 for float positions, smaller for fixed point) and per texture coordinate step (1 for float, 1/65536 for packed)
 
 attribute float a_MVPMatrixIndex;  // The index of the MVPMatrix of the particular sprite
 attribute vec4 a_Position;         // Per-vertex position information we will pass in.
@@ -6,9 +7,12 @@ attribute vec2 a_TexCoordinate;    // Per-vertex texture coordinate information
 varying vec2 v_TexCoordinate;      // This will be passed into the fragment shader.
 void main()
 {
-   int mvpMatrixIndex = int(a_MVPMatrixIndex);
-   v_TexCoordinate = a_TexCoordinate;
+   // packed texture coordinates carry the MVP matrix index in their 3 low bits each, see VertexFormat.PACKED
+   float packed = step(u_VertexScale.y, 0.5);
+   vec2 indexBits = mod(a_TexCoordinate, 8.0) * packed;
+   int mvpMatrixIndex = int(a_MVPMatrixIndex + indexBits.x + indexBits.y * 8.0);
+   v_TexCoordinate = (a_TexCoordinate - indexBits) * u_VertexScale.y;
    // gl_Position is a special variable used to store the final position.
    // Multiply the vertex by the matrix to get the final point in normalized screen coordinates.
-   gl_Position = u_MVPMatrix[mvpMatrixIndex] * a_Position;
+   gl_Position = u_MVPMatrix[mvpMatrixIndex] * vec4(a_Position.xy * u_VertexScale.x, 0.0, 1.0);
 }
\ No newline at end of file
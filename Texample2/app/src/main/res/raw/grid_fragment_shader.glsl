@@ -0,0 +1,9 @@
+uniform sampler2D u_Texture;   // The input texture.
+precision mediump float;       // Set the default precision to medium. We don't need as high of a precision in the fragment shader.
+varying vec2 v_TexCoordinate;  // Interpolated texture coordinate per fragment.
+varying vec4 v_Color;          // Color of the cell
+
+void main() {
+   // the same coverage times color as the text shader, with the color per cell instead of per batch
+   gl_FragColor = texture2D(u_Texture, v_TexCoordinate).w * v_Color;
+}
@@ -0,0 +1,13 @@
+uniform mat4 u_MVPMatrix;          // The combined model/view/projection matrix of the whole grid
+
+attribute vec4 a_Position;         // Per-vertex position, fixed for every cell
+attribute vec2 a_TexCoordinate;    // Per-vertex texture coordinate of the character in the cell
+attribute vec4 a_Color;            // Per-vertex color of the character in the cell
+varying vec2 v_TexCoordinate;      // This will be passed into the fragment shader.
+varying vec4 v_Color;
+void main()
+{
+   v_TexCoordinate = a_TexCoordinate;
+   v_Color = a_Color;
+   gl_Position = u_MVPMatrix * vec4(a_Position.xy, 0.0, 1.0);
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.android.texample2.domain;
+
+import android.graphics.Typeface;
+import android.opengl.Matrix;
+
+import com.android.texample2.gl.NullGL;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text measurement and the complete per-string drawing path of {@link Font}: model matrix, glyph lookup and batching.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FontBenchmark {
+
+    @Param({"8", "64"})
+    public int length;
+
+    private Font font;
+    private String text;
+    private char[] chars;
+    private float[] vpMatrix = new float[16];
+    private ViewProjection viewProjection = new ViewProjection();
+    private TextNode node;
+
+    @Setup
+    public void setUp() {
+        font = new Font(new FontProgram(new NullGL(), 1), new RenderStats());
+        font.load(Typeface.DEFAULT, 60, 2, 2);
+
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) (Font.CHAR_START + (i * 7) % (Font.CHAR_END - Font.CHAR_START)));
+        }
+        text = builder.toString();
+        chars = text.toCharArray();
+
+        Matrix.orthoM(vpMatrix, 0, 0, 1920, 0, 1080, -1, 1);
+        viewProjection.set(vpMatrix);
+
+        node = new TextNode(font, text);
+        node.setPosition(10, 10, 0);
+        node.setRotation(10, 20, 30);
+    }
+
+    @Benchmark
+    public float getLength() {
+        return font.getLength(text);
+    }
+
+    @Benchmark
+    public float drawString() {
+        font.begin(vpMatrix);
+        font.draw(text, 10, 10);
+        font.end();
+        return font.getStats().snapshot().getGlyphs();
+    }
+
+    @Benchmark
+    public float drawCharArray() {
+        font.begin(vpMatrix);
+        font.draw(chars, 0, chars.length, 10, 10);
+        font.end();
+        return font.getStats().snapshot().getGlyphs();
+    }
+
+    @Benchmark
+    public float drawLongViaString() {
+        font.begin(vpMatrix);
+        float length = 0;
+        for (int i = 0; i < 8; i++) {
+            String value = String.valueOf(123456789L * i);
+            font.draw(value, 10, 10);
+            length += value.length();
+        }
+        font.end();
+        return length;
+    }
+
+    @Benchmark
+    public float drawLong() {
+        font.begin(vpMatrix);
+        float length = 0;
+        for (int i = 0; i < 8; i++) {
+            length += font.drawLong(123456789L * i, 10, 10);
+        }
+        font.end();
+        return length;
+    }
+
+    @Benchmark
+    public float drawFloat() {
+        font.begin(vpMatrix);
+        float length = 0;
+        for (int i = 0; i < 8; i++) {
+            length += font.drawFloat(1234.5678f * i, 2, 10, 10, 10);
+        }
+        font.end();
+        return length;
+    }
+
+    @Benchmark
+    public float drawRotatedString() {
+        font.begin(vpMatrix);
+        float length = font.startDrawing(text).at(10, 10, 0).rotate(10, 20, 30).draw();
+        font.end();
+        return length;
+    }
+
+    @Benchmark
+    public float drawRotatedNode() {
+        font.begin(viewProjection);
+        node.draw();
+        font.end();
+        return node.getX();
+    }
+}
@@ -0,0 +1,39 @@
+package com.android.texample2.domain;
+
+import com.android.texample2.gl.NullGL;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Atlas sizing and packing of the character cells (FontTexture.initializeTextureCoordinates) for small to large fonts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FontTextureBenchmark {
+
+    @Param({"20", "60", "150"})
+    public int cellSize;
+
+    private final NullGL gl = new NullGL();
+
+    @Benchmark
+    public TextureRegion packCells() {
+        FontTexture fontTexture = new FontTexture(gl, cellSize, cellSize);
+        return fontTexture.getTextureCoordinates(Font.CHAR_CNT - 1);
+    }
+}
@@ -0,0 +1,56 @@
+package com.android.texample2.domain;
+
+import android.opengl.Matrix;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The matrix math done for every string (model matrix) and every glyph (MVP matrix) while drawing text.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MatrixBenchmark {
+
+    private float[] vpMatrix = new float[16];
+    private float[] modelMatrix = new float[16];
+    private float[] mvpMatrix = new float[16];
+    private float angle;
+
+    @Setup
+    public void setUp() {
+        Matrix.orthoM(vpMatrix, 0, 0, 1920, 0, 1080, -1, 1);
+        Matrix.setIdentityM(modelMatrix, 0);
+    }
+
+    @Benchmark
+    public float[] modelMatrix() {
+        angle += 1.0f;
+        Matrix.setIdentityM(modelMatrix, 0);
+        Matrix.translateM(modelMatrix, 0, 100, 200, 0);
+        Matrix.rotateM(modelMatrix, 0, angle, 0, 0, 1);
+        Matrix.rotateM(modelMatrix, 0, angle, 1, 0, 0);
+        Matrix.rotateM(modelMatrix, 0, angle, 0, 1, 0);
+        return modelMatrix;
+    }
+
+    @Benchmark
+    public float[] glyphMvpMatrix() {
+        Matrix.multiplyMM(mvpMatrix, 0, vpMatrix, 0, modelMatrix, 0);
+        return mvpMatrix;
+    }
+}
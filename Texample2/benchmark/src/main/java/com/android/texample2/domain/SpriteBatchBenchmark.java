@@ -0,0 +1,69 @@
+package com.android.texample2.domain;
+
+import android.opengl.Matrix;
+
+import com.android.texample2.gl.NullGL;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vertex generation and MVP matrix calculation in {@link SpriteBatch#drawSprite}, including the forced flushes
+ * once more sprites are drawn than fit in a single batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpriteBatchBenchmark {
+
+    private static final int BATCH_SIZE = 24;
+
+    @Param({"24", "240"})
+    public int sprites;
+
+    @Param({"FLOAT", "PACKED"})
+    public VertexFormat vertexFormat;
+
+    private SpriteBatch batch;
+    private RenderStats stats;
+    private TextureRegion region;
+    private float[] vpMatrix = new float[16];
+    private float[] modelMatrix = new float[16];
+
+    @Setup
+    public void setUp() {
+        stats = new RenderStats();
+        batch = new SpriteBatch(BATCH_SIZE, new FontProgram(new NullGL(), 1), stats, vertexFormat);
+        region = new TextureRegion(1024, 1024, 64, 64, 40, 60);
+        Matrix.orthoM(vpMatrix, 0, 0, 1920, 0, 1080, -1, 1);
+        Matrix.setIdentityM(modelMatrix, 0);
+        Matrix.translateM(modelMatrix, 0, 100, 100, 0);
+    }
+
+    @Benchmark
+    public int drawSprites() {
+        stats.reset();
+        batch.beginBatch(vpMatrix);
+        float x = 0;
+        for (int i = 0; i < sprites; i++) {
+            batch.drawSprite(x, 0, 40, 60, region, modelMatrix);
+            x += 30;
+        }
+        batch.endBatch();
+        return stats.snapshot().getDrawCalls();
+    }
+}
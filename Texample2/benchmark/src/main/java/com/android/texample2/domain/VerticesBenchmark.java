@@ -0,0 +1,56 @@
+package com.android.texample2.domain;
+
+import com.android.texample2.gl.NullGL;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of the batched float vertices into the direct buffer handed to GL in {@link Vertices#setVertices}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VerticesBenchmark {
+
+    private static final int VERTEX_SIZE = 5;
+    private static final int VERTICES_PER_SPRITE = 4;
+    private static final int INDICES_PER_SPRITE = 6;
+
+    @Param({"24"})
+    public int sprites;
+
+    private Vertices vertices;
+    private float[] vertexData;
+
+    @Setup
+    public void setUp() {
+        vertices = new Vertices(sprites * VERTICES_PER_SPRITE, sprites * INDICES_PER_SPRITE, new FontProgram(new NullGL(), 1), new RenderStats(), VertexFormat.FLOAT);
+        vertexData = new float[sprites * VERTICES_PER_SPRITE * VERTEX_SIZE];
+        Random random = new Random(42);
+        for (int i = 0; i < vertexData.length; i++) {
+            vertexData[i] = random.nextFloat() * 1000;
+        }
+    }
+
+    @Benchmark
+    public int setVertices() {
+        vertices.setVertices(vertexData, 0, vertexData.length);
+        return vertices.numVertices;
+    }
+}
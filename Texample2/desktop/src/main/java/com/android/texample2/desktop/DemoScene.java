@@ -0,0 +1,61 @@
+package com.android.texample2.desktop;
+
+import android.opengl.Matrix;
+
+import com.android.texample2.domain.Font;
+
+/**
+ * The text of the Texample2 scene, drawn with a font and nothing else: the GL calls it makes all go through the
+ * font's {@link com.android.texample2.gl.GL}, so it runs on a real context as well as on a NullGL, where a
+ * RecordingGL can count them.
+ */
+public class DemoScene {
+
+    private final Font font;
+    private final int width;
+    private final int height;
+    private float[] mProjMatrix = new float[16];
+    private float[] mVMatrix = new float[16];
+    private float[] mVPMatrix = new float[16];
+
+    public DemoScene(Font font, int width, int height) {
+        this.font = font;
+        this.width = width;
+        this.height = height;
+
+        // Same projection as Texample2Renderer.onSurfaceChanged()
+        float ratio = (float) width / height;
+        if (width > height) {
+            Matrix.frustumM(mProjMatrix, 0, -ratio, ratio, -1, 1, 1, 10);
+        } else {
+            Matrix.frustumM(mProjMatrix, 0, -1, 1, -1 / ratio, 1 / ratio, 1, 10);
+        }
+        int useForOrtho = Math.min(width, height);
+        Matrix.orthoM(mVMatrix, 0, -useForOrtho / 2, useForOrtho / 2, -useForOrtho / 2, useForOrtho / 2, 0.1f, 100f);
+    }
+
+    /**
+     * draw the same text as Texample2Renderer.onDrawFrame(), without clearing
+     */
+    public void draw() {
+        Matrix.multiplyMM(mVPMatrix, 0, mProjMatrix, 0, mVMatrix, 0);
+
+        font.drawTexture(width, height, mVPMatrix);
+
+        font.begin(1.0f, 1.0f, 1.0f, 1.0f, mVPMatrix);
+        {
+            font.startDrawing("Test String 3D!").at(0f, 0f, 0f).centerXY().rotateY((float) -30).draw();
+            font.startDrawing("Diagonal 1").at(40.0f, 40.0f).rotateZ(40.0f).draw();
+            font.startDrawing("Column 1").at(100.0f, 100.0f).rotateZ(90.0f).draw();
+        }
+        font.end();
+
+        font.begin(0.0f, 0.0f, 1.0f, 1.0f, mVPMatrix);
+        {
+            font.draw("Lines...", 150, 0);
+            font.draw("More Lines...", 150, -font.getScaledCharHeight());
+            font.startDrawing("The End.").at(50.0f, 200.0f).rotateZ(180.0f).draw();
+        }
+        font.end();
+    }
+}
@@ -0,0 +1,85 @@
+package com.android.texample2.desktop;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.egl.EGL;
+import org.lwjgl.opengles.GLES;
+
+import java.io.Closeable;
+
+import static org.lwjgl.egl.EGL10.*;
+import static org.lwjgl.egl.EGL12.EGL_OPENGL_ES_API;
+import static org.lwjgl.egl.EGL12.EGL_RENDERABLE_TYPE;
+import static org.lwjgl.egl.EGL12.eglBindAPI;
+import static org.lwjgl.egl.EGL13.EGL_CONTEXT_CLIENT_VERSION;
+import static org.lwjgl.egl.EGL13.EGL_OPENGL_ES2_BIT;
+
+/**
+ * An OpenGL ES 2.0 context on an offscreen pbuffer surface, made current on the calling thread.
+ * Needs no window system: with EGL_PLATFORM=surfaceless Mesa creates it directly, on llvmpipe if there is no GPU.
+ */
+public class EglOffscreenContext implements Closeable {
+
+    private static final long EGL_DEFAULT_DISPLAY = 0L;
+
+    private final long display;
+    private final long surface;
+    private final long context;
+
+    public EglOffscreenContext(int width, int height) {
+        display = eglGetDisplay(EGL_DEFAULT_DISPLAY);
+        if (display == EGL_NO_DISPLAY) {
+            throw new IllegalStateException("No EGL display available.");
+        }
+
+        int[] major = new int[1];
+        int[] minor = new int[1];
+        if (!eglInitialize(display, major, minor)) {
+            throw new IllegalStateException("Error initializing EGL: " + eglGetError());
+        }
+        EGL.createDisplayCapabilities(display, major[0], minor[0]);
+
+        if (!eglBindAPI(EGL_OPENGL_ES_API)) {
+            throw new IllegalStateException("OpenGL ES is not supported: " + eglGetError());
+        }
+
+        int[] configAttributes = {
+                EGL_SURFACE_TYPE, EGL_PBUFFER_BIT,
+                EGL_RENDERABLE_TYPE, EGL_OPENGL_ES2_BIT,
+                EGL_RED_SIZE, 8,
+                EGL_GREEN_SIZE, 8,
+                EGL_BLUE_SIZE, 8,
+                EGL_ALPHA_SIZE, 8,
+                EGL_NONE
+        };
+        PointerBuffer configs = BufferUtils.createPointerBuffer(1);
+        int[] numConfigs = new int[1];
+        if (!eglChooseConfig(display, configAttributes, configs, numConfigs) || numConfigs[0] == 0) {
+            throw new IllegalStateException("No EGL config for an OpenGL ES 2.0 pbuffer: " + eglGetError());
+        }
+        long config = configs.get(0);
+
+        surface = eglCreatePbufferSurface(display, config, new int[]{EGL_WIDTH, width, EGL_HEIGHT, height, EGL_NONE});
+        if (surface == EGL_NO_SURFACE) {
+            throw new IllegalStateException("Error creating pbuffer surface: " + eglGetError());
+        }
+
+        context = eglCreateContext(display, config, EGL_NO_CONTEXT, new int[]{EGL_CONTEXT_CLIENT_VERSION, 2, EGL_NONE});
+        if (context == EGL_NO_CONTEXT) {
+            throw new IllegalStateException("Error creating OpenGL ES 2.0 context: " + eglGetError());
+        }
+
+        if (!eglMakeCurrent(display, surface, surface, context)) {
+            throw new IllegalStateException("Error making the context current: " + eglGetError());
+        }
+        GLES.createCapabilities();
+    }
+
+    @Override
+    public void close() {
+        eglMakeCurrent(display, EGL_NO_SURFACE, EGL_NO_SURFACE, EGL_NO_CONTEXT);
+        eglDestroyContext(display, context);
+        eglDestroySurface(display, surface);
+        eglTerminate(display);
+    }
+}
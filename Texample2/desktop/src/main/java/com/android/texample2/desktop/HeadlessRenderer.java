@@ -0,0 +1,166 @@
+package com.android.texample2.desktop;
+
+import com.android.texample2.domain.Font;
+import com.android.texample2.domain.RenderStats;
+import com.android.texample2.gl.GL;
+import com.android.texample2.gl.ResourceTrackingGL;
+import com.android.texample2.programs.Program;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import static com.android.texample2.domain.FontBuilder.createFont;
+import static com.android.texample2.programs.BatchTextProgram.createBatchTextProgram;
+import static com.android.texample2.programs.FontProgramAdapter.createFontProgram;
+import static org.lwjgl.opengles.GLES20.*;
+import static org.lwjgl.BufferUtils.createByteBuffer;
+
+/**
+ * Renders the Texample2 scene offscreen for a number of frames and reports frame time percentiles and render statistics.
+ * Optionally writes the last frame to a PNG file, to compare against a reference with {@link ImageComparison}.
+ * The GL objects are tracked, and any that are still alive after the renderer was disposed are reported as leaks.
+ * <p>
+ * Arguments: [--width 1280] [--height 720] [--frames 300] [--out frame.png]
+ */
+public class HeadlessRenderer {
+
+    private final Program program;
+    private final Font font;
+    private final DemoScene scene;
+    private final int width;
+    private final int height;
+
+    public HeadlessRenderer(GL gl, int width, int height) throws Exception {
+        this.width = width;
+        this.height = height;
+
+        program = createBatchTextProgram(gl);
+        font = createFont()
+                .program(createFontProgram(program))
+                .rasterizer(Java2DGlyphRasterizer.createFromStream(HeadlessRenderer.class.getClassLoader().getResourceAsStream("assets/Roboto-Regular.ttf"), 60))
+                .build();
+
+        glViewport(0, 0, width, height);
+        glClearColor(0.5f, 0.5f, 0.5f, 1.0f);
+        glEnable(GL_BLEND);
+        glBlendFunc(GL_ONE, GL_ONE_MINUS_SRC_ALPHA);
+
+        scene = new DemoScene(font, width, height);
+    }
+
+    /**
+     * draw the same scene as Texample2Renderer.onDrawFrame()
+     */
+    public void drawFrame() {
+        glClear(GL_COLOR_BUFFER_BIT);
+        scene.draw();
+    }
+
+    /**
+     * draw the scene the specified number of times, waiting for GL to finish every frame
+     *
+     * @return the time each frame took (nanoseconds)
+     */
+    public long[] run(int frames) {
+        long[] frameTimes = new long[frames];
+        for (int i = 0; i < frames; i++) {
+            long frameStart = System.nanoTime();
+            font.getStats().reset();
+            drawFrame();
+            glFinish();
+            frameTimes[i] = System.nanoTime() - frameStart;
+        }
+        return frameTimes;
+    }
+
+    /**
+     * delete the GL objects of the renderer
+     */
+    public void dispose() {
+        font.dispose();
+        program.delete();
+    }
+
+    public RenderStats getStats() {
+        return font.getStats();
+    }
+
+    public void writeFrame(File file) throws IOException {
+        ByteBuffer pixels = createByteBuffer(width * height * 4);
+        glReadPixels(0, 0, width, height, GL_RGBA, GL_UNSIGNED_BYTE, pixels);
+
+        // GL rows start at the bottom, image rows at the top
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int i = (y * width + x) * 4;
+                int r = pixels.get(i) & 0xff;
+                int g = pixels.get(i + 1) & 0xff;
+                int b = pixels.get(i + 2) & 0xff;
+                int a = pixels.get(i + 3) & 0xff;
+                image.setRGB(x, height - 1 - y, (a << 24) | (r << 16) | (g << 8) | b);
+            }
+        }
+        ImageIO.write(image, "png", file);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int width = 1280;
+        int height = 720;
+        int frames = 300;
+        File out = null;
+        for (int i = 0; i < args.length - 1; i += 2) {
+            if ("--width".equals(args[i])) {
+                width = Integer.parseInt(args[i + 1]);
+            } else if ("--height".equals(args[i])) {
+                height = Integer.parseInt(args[i + 1]);
+            } else if ("--frames".equals(args[i])) {
+                frames = Integer.parseInt(args[i + 1]);
+            } else if ("--out".equals(args[i])) {
+                out = new File(args[i + 1]);
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        EglOffscreenContext context = new EglOffscreenContext(width, height);
+        try {
+            System.out.println("Renderer: " + glGetString(GL_RENDERER) + ", " + glGetString(GL_VERSION));
+
+            ResourceTrackingGL gl = new ResourceTrackingGL(new LwjglGL());
+            HeadlessRenderer renderer = new HeadlessRenderer(gl, width, height);
+            long[] frameTimes = renderer.run(frames);
+            Arrays.sort(frameTimes);
+            System.out.println(frames + " frames at " + width + "x" + height
+                    + ": p50 " + millis(percentile(frameTimes, 50))
+                    + " ms, p90 " + millis(percentile(frameTimes, 90))
+                    + " ms, p99 " + millis(percentile(frameTimes, 99)) + " ms");
+            System.out.println("Last frame: " + renderer.getStats().snapshot());
+
+            if (out != null) {
+                renderer.writeFrame(out);
+                System.out.println("Wrote " + out);
+            }
+
+            System.out.println("GPU memory: " + gl.getTotalBytes() + " bytes in " + gl.getCount(ResourceTrackingGL.Type.TEXTURE) + " textures");
+            renderer.dispose();
+            System.out.println("Leaked GL objects: " + gl.reportLeaks());
+        } finally {
+            context.close();
+        }
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (sorted.length * percentile + 99) / 100 - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1000000.0);
+    }
+}
@@ -0,0 +1,70 @@
+package com.android.texample2.desktop;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Compares two rendered frames pixel by pixel.
+ * A pixel differs when any of its channels differs by more than the tolerance; the comparison fails when
+ * more pixels differ than allowed. Exits with status 1 on failure, so it can be used as a check in scripts.
+ * <p>
+ * Arguments: expected.png actual.png [tolerance (default 2)] [allowed different pixels (default 0)]
+ */
+public class ImageComparison {
+
+    private final int tolerance;
+
+    public ImageComparison(int tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * @return the number of pixels that differ, or -1 when the images have different sizes
+     */
+    public int countDifferentPixels(BufferedImage expected, BufferedImage actual) {
+        if (expected.getWidth() != actual.getWidth() || expected.getHeight() != actual.getHeight()) {
+            return -1;
+        }
+        int different = 0;
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                if (!similar(expected.getRGB(x, y), actual.getRGB(x, y))) {
+                    different++;
+                }
+            }
+        }
+        return different;
+    }
+
+    private boolean similar(int expected, int actual) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            int difference = ((expected >>> shift) & 0xff) - ((actual >>> shift) & 0xff);
+            if (Math.abs(difference) > tolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ImageComparison expected.png actual.png [tolerance] [allowed different pixels]");
+            System.exit(2);
+        }
+        BufferedImage expected = ImageIO.read(new File(args[0]));
+        BufferedImage actual = ImageIO.read(new File(args[1]));
+        int tolerance = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int allowed = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+
+        int different = new ImageComparison(tolerance).countDifferentPixels(expected, actual);
+        if (different < 0) {
+            System.out.println("FAIL: sizes differ, " + expected.getWidth() + "x" + expected.getHeight() + " vs " + actual.getWidth() + "x" + actual.getHeight());
+            System.exit(1);
+        }
+        System.out.println((different <= allowed ? "OK: " : "FAIL: ") + different + " pixels differ (tolerance " + tolerance + ", allowed " + allowed + ")");
+        System.exit(different <= allowed ? 0 : 1);
+    }
+}
@@ -0,0 +1,109 @@
+package com.android.texample2.desktop;
+
+import com.android.texample2.domain.GlyphRasterizer;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontFormatException;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.LineMetrics;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.ByteOrder.nativeOrder;
+
+/**
+ * {@link GlyphRasterizer} backed by Java2D, the desktop replacement for Paint and Canvas.
+ * A Java2D font size in image space is the same pixel size Paint.setTextSize() uses.
+ */
+public class Java2DGlyphRasterizer implements GlyphRasterizer {
+
+    private final Font font;
+    private final FontRenderContext renderContext = new FontRenderContext(null, true, true);
+    private final char[] characterHolder = new char[1];
+
+    private final float top;
+    private final float ascent;
+    private final float descent;
+    private final float bottom;
+
+    public Java2DGlyphRasterizer(Font font) {
+        this.font = font;
+
+        LineMetrics lineMetrics = font.getLineMetrics("Hg", renderContext);
+        Rectangle2D maxBounds = font.getMaxCharBounds(renderContext);
+        top = (float) maxBounds.getMinY();
+        ascent = -lineMetrics.getAscent();
+        descent = lineMetrics.getDescent();
+        bottom = (float) maxBounds.getMaxY();
+    }
+
+    /**
+     * @param fontFile a TrueType font file
+     * @param size     the requested pixel size of the font (height)
+     */
+    public static Java2DGlyphRasterizer createFromStream(InputStream fontFile, int size) throws IOException, FontFormatException {
+        try {
+            return new Java2DGlyphRasterizer(Font.createFont(Font.TRUETYPE_FONT, fontFile).deriveFont((float) size));
+        } finally {
+            fontFile.close();
+        }
+    }
+
+    @Override
+    public float getTop() {
+        return top;
+    }
+
+    @Override
+    public float getAscent() {
+        return ascent;
+    }
+
+    @Override
+    public float getDescent() {
+        return descent;
+    }
+
+    @Override
+    public float getBottom() {
+        return bottom;
+    }
+
+    @Override
+    public float getCharWidth(char character) {
+        characterHolder[0] = character;
+        return font.createGlyphVector(renderContext, characterHolder).getGlyphMetrics(0).getAdvanceX();
+    }
+
+    @Override
+    public ByteBuffer drawCharacters(int textureSize, char[] characters, float[] x, float[] y) {
+        // draw white on transparent, so the alpha channel holds the coverage of each pixel
+        BufferedImage image = new BufferedImage(textureSize, textureSize, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        graphics.setColor(Color.WHITE);
+        graphics.setFont(font);
+        for (int i = 0; i < characters.length; i++) {
+            characterHolder[0] = characters[i];
+            graphics.drawGlyphVector(font.createGlyphVector(renderContext, characterHolder), x[i], y[i]);
+        }
+        graphics.dispose();
+
+        int[] argb = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        ByteBuffer pixels = allocateDirect(argb.length).order(nativeOrder());
+        for (int pixel : argb) {
+            pixels.put((byte) (pixel >>> 24));
+        }
+        pixels.flip();
+        return pixels;
+    }
+}
@@ -0,0 +1,110 @@
+package com.android.texample2.desktop;
+
+import com.android.texample2.domain.GlyphShaper;
+import com.android.texample2.domain.ShapedRun;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.LineMetrics;
+import java.awt.font.TextAttribute;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.ByteBuffer;
+import java.text.Bidi;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.ByteOrder.nativeOrder;
+
+/**
+ * {@link GlyphShaper} backed by Java2D, whose layout engine applies kerning, ligatures and the shaping of complex
+ * scripts. A right-to-left string is laid out right to left, the glyphs of a run are always in visual order.
+ */
+public class Java2DGlyphShaper implements GlyphShaper {
+
+    private final Font font;
+    private final FontRenderContext renderContext = new FontRenderContext(null, true, true);
+    private final int[] glyphHolder = new int[1];
+    private final float ascent;
+    private final float descent;
+
+    public Java2DGlyphShaper(Font font) {
+        Map<TextAttribute, Object> attributes = new HashMap<TextAttribute, Object>();
+        attributes.put(TextAttribute.KERNING, TextAttribute.KERNING_ON);
+        attributes.put(TextAttribute.LIGATURES, TextAttribute.LIGATURES_ON);
+        this.font = font.deriveFont(attributes);
+
+        LineMetrics lineMetrics = this.font.getLineMetrics("Hg", renderContext);
+        ascent = -lineMetrics.getAscent();
+        descent = lineMetrics.getDescent();
+    }
+
+    @Override
+    public float getAscent() {
+        return ascent;
+    }
+
+    @Override
+    public float getDescent() {
+        return descent;
+    }
+
+    @Override
+    public int getGeneration() {
+        return 0;                                              // Glyph IDs of the Font
+    }
+
+    @Override
+    public ShapedRun shape(CharSequence text) {
+        char[] characters = text.toString().toCharArray();
+        int flags = Bidi.requiresBidi(characters, 0, characters.length)
+                && !new Bidi(characters, 0, null, 0, characters.length, Bidi.DIRECTION_DEFAULT_LEFT_TO_RIGHT).baseIsLeftToRight()
+                ? Font.LAYOUT_RIGHT_TO_LEFT : Font.LAYOUT_LEFT_TO_RIGHT;
+        GlyphVector glyphVector = font.layoutGlyphVector(renderContext, characters, 0, characters.length, flags);
+
+        int count = glyphVector.getNumGlyphs();
+        int[] glyphIds = glyphVector.getGlyphCodes(0, count, null);
+        float[] positions = glyphVector.getGlyphPositions(0, count, null);
+        int[] clusters = glyphVector.getGlyphCharIndices(0, count, null);
+        float advance = (float) glyphVector.getGlyphPosition(count).getX();
+        return new ShapedRun(glyphIds, positions, clusters, advance);
+    }
+
+    @Override
+    public ByteBuffer drawGlyph(int glyphId, int[] bounds) {
+        glyphHolder[0] = glyphId;
+        GlyphVector glyphVector = font.createGlyphVector(renderContext, glyphHolder);
+        Rectangle pixelBounds = glyphVector.getPixelBounds(renderContext, 0.0f, 0.0f);
+        if (pixelBounds.isEmpty()) {
+            return null;
+        }
+
+        // draw white on transparent, so the alpha channel holds the coverage of each pixel
+        BufferedImage image = new BufferedImage(pixelBounds.width, pixelBounds.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        graphics.setColor(Color.WHITE);
+        graphics.drawGlyphVector(glyphVector, -pixelBounds.x, -pixelBounds.y);
+        graphics.dispose();
+
+        int[] argb = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        ByteBuffer pixels = allocateDirect(argb.length).order(nativeOrder());
+        for (int pixel : argb) {
+            pixels.put((byte) (pixel >>> 24));
+        }
+        pixels.flip();
+
+        bounds[0] = pixelBounds.x;
+        bounds[1] = pixelBounds.y;
+        bounds[2] = pixelBounds.width;
+        bounds[3] = pixelBounds.height;
+        return pixels;
+    }
+}
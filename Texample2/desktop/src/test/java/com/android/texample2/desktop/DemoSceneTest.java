@@ -0,0 +1,79 @@
+package com.android.texample2.desktop;
+
+import com.android.texample2.domain.Font;
+import com.android.texample2.domain.VertexFormat;
+import com.android.texample2.gl.NullGL;
+import com.android.texample2.gl.RecordingGL;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.android.texample2.domain.FontBuilder.createFont;
+import static com.android.texample2.programs.BatchTextProgram.createBatchTextProgram;
+import static com.android.texample2.programs.FontProgramAdapter.createFontProgram;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Counts the GL work of a frame of the demo scene, so a change that adds draw calls or uniform uploads shows up as a
+ * failing test instead of a slower device.
+ */
+public class DemoSceneTest {
+
+    private RecordingGL gl;
+    private DemoScene scene;
+
+    @Before
+    public void setUp() throws Exception {
+        createScene(VertexFormat.FLOAT);
+    }
+
+    private void createScene(VertexFormat vertexFormat) throws Exception {
+        gl = new RecordingGL(new NullGL());
+        Font font = createFont()
+                .program(createFontProgram(createBatchTextProgram(gl)))
+                .rasterizer(Java2DGlyphRasterizer.createFromStream(DemoSceneTest.class.getClassLoader().getResourceAsStream("assets/Roboto-Regular.ttf"), 60))
+                .vertexFormat(vertexFormat)
+                .build();
+        scene = new DemoScene(font, 1280, 720);
+        scene.draw();                                          // First Frame Also Sets Up State
+        gl.reset();
+    }
+
+    @Test
+    public void drawsTheFrameInFiveDrawCalls() {
+        scene.draw();
+        // the atlas, then two batches per color: the glyphs of each color do not fit one batch of 24
+        assertEquals(5, gl.getDrawCalls());
+    }
+
+    @Test
+    public void uploadsTheUniformsOfEveryBatch() {
+        scene.draw();
+        assertEquals(29, gl.getUniformUploads());
+        assertEquals(3876, gl.getUniformBytes());
+    }
+
+    @Test
+    public void uploadsEveryVertexOnce() {
+        scene.draw();
+        // 57 sprites of 4 vertices of 20 bytes (VertexFormat.FLOAT)
+        assertEquals(57 * 4 * 20, gl.getVertexBytes());
+        assertEquals(0, gl.getBufferBytes());
+    }
+
+    @Test
+    public void uploadsPackedVerticesInEightBytes() throws Exception {
+        createScene(VertexFormat.PACKED);
+        scene.draw();
+        assertEquals(5, gl.getDrawCalls());
+        assertEquals(57 * 4 * 8, gl.getVertexBytes());
+    }
+
+    @Test
+    public void uploadsNoTexturesAfterTheFirstFrame() {
+        scene.draw();
+        scene.draw();
+        assertEquals(0, gl.getTextureBytes());
+        assertEquals(10, gl.getDrawCalls());
+    }
+}
@@ -0,0 +1,127 @@
+package com.android.texample2.desktop;
+
+import android.opengl.Matrix;
+
+import com.android.texample2.domain.Font;
+import com.android.texample2.domain.TextBlock;
+import com.android.texample2.domain.TextBlockCache;
+import com.android.texample2.gl.GL;
+import com.android.texample2.programs.Program;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static com.android.texample2.domain.FontBuilder.createFont;
+import static com.android.texample2.programs.BatchTextProgram.createBatchTextProgram;
+import static com.android.texample2.programs.FontProgramAdapter.createFontProgram;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeNoException;
+import static org.lwjgl.BufferUtils.createByteBuffer;
+import static org.lwjgl.opengles.GLES20.*;
+
+/**
+ * Renders on a real context: skipped where no EGL display is available (run with EGL_PLATFORM=surfaceless to let
+ * Mesa render without a GPU).
+ */
+public class TextBlockEffectsTest {
+
+    private static final int WIDTH = 256, HEIGHT = 128;
+    private static final String TEXT = "Outline";
+
+    private EglOffscreenContext context;
+    private Program program;
+    private Font font;
+    private final float[] matrix = new float[16];
+
+    @Before
+    public void setUp() throws Exception {
+        try {
+            context = new EglOffscreenContext(WIDTH, HEIGHT);
+        } catch (Throwable e) {
+            assumeNoException(e);
+        }
+        GL gl = new LwjglGL();
+        program = createBatchTextProgram(gl);
+        font = createFont()
+                .program(createFontProgram(program))
+                .rasterizer(Java2DGlyphRasterizer.createFromStream(TextBlockEffectsTest.class.getClassLoader().getResourceAsStream("assets/Roboto-Regular.ttf"), 40))
+                .padding(4, 4)
+                .build();
+        font.setOutline(3.0f, 1.0f, 0.0f, 0.0f, 1.0f);
+        font.setViewport(WIDTH, HEIGHT);
+
+        glViewport(0, 0, WIDTH, HEIGHT);
+        glClearColor(0.0f, 0.0f, 0.0f, 1.0f);
+        glEnable(GL_BLEND);
+        glBlendFunc(GL_ONE, GL_ONE_MINUS_SRC_ALPHA);
+        Matrix.orthoM(matrix, 0, 0, WIDTH, 0, HEIGHT, -1, 1);
+    }
+
+    @After
+    public void tearDown() {
+        if (context != null) {
+            font.dispose();
+            program.delete();
+            context.close();
+        }
+    }
+
+    @Test
+    public void cachedBlockKeepsTheOutlineColor() {
+        glClear(GL_COLOR_BUFFER_BIT);
+        font.begin(matrix);
+        font.draw(TEXT, 20, 40);
+        font.end();
+        ByteBuffer direct = readPixels();
+
+        TextBlockCache cache = new TextBlockCache(font, 1024 * 1024);
+        TextBlock block = cache.createBlock(TEXT);
+        glClear(GL_COLOR_BUFFER_BIT);
+        block.draw(20, 40, matrix);
+        ByteBuffer cached = readPixels();
+
+        int directOutline = countOutlinePixels(direct);
+        int cachedOutline = countOutlinePixels(cached);
+        assertTrue("no outline drawn directly", directOutline > 20);
+        // a block drawn in a single color has no red pixels at all
+        assertTrue("outline of the block lost its color: " + cachedOutline + " red pixels, " + directOutline + " drawn directly",
+                cachedOutline > directOutline / 2 && cachedOutline < directOutline * 2);
+        assertTrue("glyphs of the block lost their color", countGlyphPixels(cached) > countGlyphPixels(direct) / 2);
+        cache.clear();
+    }
+
+    private static ByteBuffer readPixels() {
+        ByteBuffer pixels = createByteBuffer(WIDTH * HEIGHT * 4);
+        glReadPixels(0, 0, WIDTH, HEIGHT, GL_RGBA, GL_UNSIGNED_BYTE, pixels);
+        return pixels;
+    }
+
+    /**
+     * @return the number of red pixels
+     */
+    private static int countOutlinePixels(ByteBuffer pixels) {
+        int count = 0;
+        for (int i = 0; i < WIDTH * HEIGHT * 4; i += 4) {
+            if ((pixels.get(i) & 0xff) > 160 && (pixels.get(i + 1) & 0xff) < 80 && (pixels.get(i + 2) & 0xff) < 80) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of white pixels
+     */
+    private static int countGlyphPixels(ByteBuffer pixels) {
+        int count = 0;
+        for (int i = 0; i < WIDTH * HEIGHT * 4; i += 4) {
+            if ((pixels.get(i) & 0xff) > 200 && (pixels.get(i + 1) & 0xff) > 200 && (pixels.get(i + 2) & 0xff) > 200) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
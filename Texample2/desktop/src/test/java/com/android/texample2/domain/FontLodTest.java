@@ -0,0 +1,40 @@
+package com.android.texample2.domain;
+
+import com.android.texample2.desktop.Java2DGlyphRasterizer;
+import com.android.texample2.gl.NullGL;
+
+import org.junit.Test;
+
+import static com.android.texample2.domain.FontBuilder.createFont;
+import static com.android.texample2.programs.BatchTextProgram.createBatchTextProgram;
+import static com.android.texample2.programs.FontProgramAdapter.createFontProgram;
+import static org.junit.Assert.assertEquals;
+
+public class FontLodTest {
+
+    private static Font buildFont(int padding, int lodLevels) throws Exception {
+        return createFont()
+                .program(createFontProgram(createBatchTextProgram(new NullGL())))
+                .rasterizer(Java2DGlyphRasterizer.createFromStream(FontLodTest.class.getClassLoader().getResourceAsStream("assets/Roboto-Regular.ttf"), 60))
+                .padding(padding, padding)
+                .lodLevels(lodLevels)
+                .build();
+    }
+
+    @Test
+    public void lodPaddingCoversAPixelOfTheLowestLevel() {
+        assertEquals(0, Font.getLodPadding(1));
+        assertEquals(2, Font.getLodPadding(2));
+        assertEquals(4, Font.getLodPadding(3));
+    }
+
+    @Test
+    public void createsTheLevelsOfAPaddedFont() throws Exception {
+        assertEquals(3, buildFont(4, 3).getLodLevels());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsLevelsThatWouldBleedBetweenCells() throws Exception {
+        buildFont(2, 3);
+    }
+}
@@ -0,0 +1,82 @@
+package com.android.texample2.domain;
+
+import android.opengl.Matrix;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LodSelectorTest {
+
+    private static final int WIDTH = 800, HEIGHT = 600;
+
+    /**
+     * @return an MVP matrix of one unit per pixel, the origin at the bottom left of the viewport
+     */
+    private static float[] pixelMatrix() {
+        float[] matrix = new float[16];
+        Matrix.orthoM(matrix, 0, 0, WIDTH, 0, HEIGHT, -1, 1);
+        return matrix;
+    }
+
+    private static LodSelector selector(int levels) {
+        LodSelector selector = new LodSelector(levels);
+        selector.setViewport(WIDTH, HEIGHT);
+        return selector;
+    }
+
+    @Test
+    public void selectsTheSmallestLevelWithAnAtlasPixelPerScreenPixel() {
+        LodSelector selector = selector(3);
+        assertEquals(0, selector.selectLevel(64, 64));
+        assertEquals(0, selector.selectLevel(64, 33));
+        assertEquals(1, selector.selectLevel(64, 32));
+        assertEquals(1, selector.selectLevel(64, 17));
+        assertEquals(2, selector.selectLevel(64, 16));
+    }
+
+    @Test
+    public void neverMagnifies() {
+        assertEquals(0, selector(3).selectLevel(64, 200));
+    }
+
+    @Test
+    public void stopsAtTheLowestLevel() {
+        assertEquals(2, selector(3).selectLevel(64, 1));
+        assertEquals(0, selector(1).selectLevel(64, 1));
+    }
+
+    @Test
+    public void projectsTheHeightOfTheString() {
+        LodSelector selector = selector(3);
+        assertEquals(16.0f, selector.getProjectedSize(pixelMatrix(), 100, 100, 16), 0.001f);
+        assertEquals(0, selector.selectLevel(pixelMatrix(), 100, 100, 64, 64));
+        assertEquals(1, selector.selectLevel(pixelMatrix(), 100, 100, 24, 64));
+        assertEquals(2, selector.selectLevel(pixelMatrix(), 100, 100, 12, 64));
+    }
+
+    @Test
+    public void usesFullResolutionWithoutAViewport() {
+        LodSelector selector = new LodSelector(3);
+        assertEquals(0, selector.selectLevel(pixelMatrix(), 100, 100, 1, 64));
+    }
+
+    @Test
+    public void usesFullResolutionBehindTheCamera() {
+        float[] projection = new float[16];
+        float[] view = new float[16];
+        float[] mvp = new float[16];
+        Matrix.perspectiveM(projection, 0, 60, (float) WIDTH / HEIGHT, 1, 100);
+        Matrix.setLookAtM(view, 0, 0, 0, 0, 0, 0, -1, 0, 1, 0);
+        Matrix.multiplyMM(mvp, 0, projection, 0, view, 0);
+        Matrix.translateM(mvp, 0, 0, 0, 10);                  // Behind the Eye, Looking Down -Z
+        LodSelector selector = selector(3);
+        assertEquals(Float.MAX_VALUE, selector.getProjectedSize(mvp, 0, 0, 1), 0.0f);
+        assertEquals(0, selector.selectLevel(mvp, 0, 0, 1, 64));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNoLevels() {
+        new LodSelector(0);
+    }
+}
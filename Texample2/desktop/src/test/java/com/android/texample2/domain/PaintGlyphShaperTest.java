@@ -0,0 +1,62 @@
+package com.android.texample2.domain;
+
+import android.opengl.Matrix;
+
+import com.android.texample2.gl.NullGL;
+
+import org.junit.Test;
+
+import static com.android.texample2.programs.BatchTextProgram.createBatchTextProgram;
+import static com.android.texample2.programs.FontProgramAdapter.createFontProgram;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PaintGlyphShaperTest {
+
+    @Test
+    public void givesEachDistinctWordAGlyphId() {
+        PaintGlyphShaper shaper = new PaintGlyphShaper(null, 20);
+        ShapedRun run = shaper.shape("one two  one");
+        assertEquals(3, run.getGlyphCount());                  // Spaces Only Advance
+        assertEquals(0, run.getGlyphId(0));
+        assertEquals(1, run.getGlyphId(1));
+        assertEquals(0, run.getGlyphId(2));
+        assertEquals(9, run.getCluster(2));
+    }
+
+    @Test
+    public void startsTheWordsOverWhenFull() {
+        PaintGlyphShaper shaper = new PaintGlyphShaper(null, 20, 4);
+        shaper.shape("a b c d");
+        assertEquals(0, shaper.getGeneration());
+        ShapedRun run = shaper.shape("e");
+        assertEquals(1, shaper.getGeneration());
+        assertEquals(0, run.getGlyphId(0));
+    }
+
+    @Test
+    public void cacheDropsTheRunsOfAnOldGeneration() {
+        PaintGlyphShaper shaper = new PaintGlyphShaper(null, 20, 4);
+        ShapedRunCache cache = new ShapedRunCache(shaper, 16);
+        cache.get("a b c d");
+        cache.get("e");
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.get("a b c d").getGlyphId(0));   // Shaped Again, After "e"
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void changingTextKeepsTheWordsAndAtlasBounded() {
+        PaintGlyphShaper shaper = new PaintGlyphShaper(null, 20, 8);
+        ShapedFont font = new ShapedFont(createFontProgram(createBatchTextProgram(new NullGL())), shaper, 1024, 4, new RenderStats());
+        float[] matrix = new float[16];
+        Matrix.setIdentityM(matrix, 0);
+        for (int frame = 0; frame < 100; frame++) {
+            font.begin(matrix);
+            font.draw("Frame " + frame, 0, 0);
+            font.end();
+            assertTrue(font.getAtlas().getGlyphCount() <= 8);
+        }
+        assertTrue(shaper.getGeneration() > 0);
+    }
+}
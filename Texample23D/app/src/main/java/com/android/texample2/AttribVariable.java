@@ -4,7 +4,8 @@ package com.android.texample2;
 public enum AttribVariable {
 	A_Position(1, "a_Position"), 
 	A_TexCoordinate(2, "a_TexCoordinate"), 
-	A_MVPMatrixIndex(3, "a_MVPMatrixIndex");
+	A_MVPMatrixIndex(3, "a_MVPMatrixIndex"),
+	A_AnchorIndex(3, "a_AnchorIndex");			// Billboards: same location as A_MVPMatrixIndex, so Vertices feeds both programs
 	
 	private int mHandle;
 	private String mName;
@@ -0,0 +1,146 @@
+package com.android.texample2;
+
+import com.android.texample2.programs.Program;
+
+import android.opengl.GLES20;
+
+// Sprite batcher for BillboardTextProgram. Works like SpriteBatch, but each sprite gets a
+// world-space anchor (3 floats) instead of an MVP matrix (16 floats); the shader expands the
+// sprite along the camera right/up vectors, so no matrix math is done per sprite.
+public class BillboardBatch {
+
+	//--Constants--//
+	final static int VERTEX_SIZE = 5;                  // Vertex Size (in Components) ie. (X,Y,U,V,A), A is anchor index
+	final static int VERTICES_PER_SPRITE = 4;          // Vertices Per Sprite
+	final static int INDICES_PER_SPRITE = 6;           // Indices Per Sprite
+	final static int ANCHOR_SIZE = 3;                  // Anchor Size (in Components) ie. (X,Y,Z)
+
+	//--Members--//
+	Vertices vertices;                                 // Vertices Instance Used for Rendering
+	float[] vertexBuffer;                              // Vertex Buffer
+	int bufferIndex;                                   // Vertex Buffer Start Index
+	int maxSprites;                                    // Maximum Sprites Allowed in Buffer
+	int numSprites;                                    // Number of Sprites Currently in Buffer
+	private float[] uAnchors;                          // Anchor array to pass to shader
+	private int mAnchorsHandle;                        // shader handle of the anchor array
+	private int mVPMatrixHandle;                       // shader handle of the view and projection matrix
+	private int mCameraRightHandle;                    // shader handle of the camera right vector
+	private int mCameraUpHandle;                       // shader handle of the camera up vector
+
+	//--Constructor--//
+	// D: prepare the billboard batcher for specified maximum number of sprites
+	// A: maxSprites - the maximum allowed sprites per batch (must not exceed the size of u_Anchor)
+	//    program - BillboardTextProgram to use when drawing
+	public BillboardBatch(int maxSprites, Program program)  {
+		this.vertexBuffer = new float[maxSprites * VERTICES_PER_SPRITE * VERTEX_SIZE];  // Create Vertex Buffer
+		this.vertices = new Vertices(maxSprites * VERTICES_PER_SPRITE, maxSprites * INDICES_PER_SPRITE);  // Create Rendering Vertices
+		this.uAnchors = new float[maxSprites * ANCHOR_SIZE];  // Create Anchor Array
+		this.bufferIndex = 0;                           // Reset Buffer Index
+		this.maxSprites = maxSprites;                   // Save Maximum Sprites
+		this.numSprites = 0;                            // Clear Sprite Counter
+
+		short[] indices = new short[maxSprites * INDICES_PER_SPRITE];  // Create Temp Index Buffer
+		int len = indices.length;                       // Get Index Buffer Length
+		short j = 0;                                    // Counter
+		for ( int i = 0; i < len; i+= INDICES_PER_SPRITE, j += VERTICES_PER_SPRITE )  {  // FOR Each Index Set (Per Sprite)
+			indices[i + 0] = (short)( j + 0 );           // Calculate Index 0
+			indices[i + 1] = (short)( j + 1 );           // Calculate Index 1
+			indices[i + 2] = (short)( j + 2 );           // Calculate Index 2
+			indices[i + 3] = (short)( j + 2 );           // Calculate Index 3
+			indices[i + 4] = (short)( j + 3 );           // Calculate Index 4
+			indices[i + 5] = (short)( j + 0 );           // Calculate Index 5
+		}
+		vertices.setIndices( indices, 0, len );         // Set Index Buffer for Rendering
+		mAnchorsHandle = GLES20.glGetUniformLocation(program.getHandle(), "u_Anchor");
+		mVPMatrixHandle = GLES20.glGetUniformLocation(program.getHandle(), "u_VPMatrix");
+		mCameraRightHandle = GLES20.glGetUniformLocation(program.getHandle(), "u_CameraRight");
+		mCameraUpHandle = GLES20.glGetUniformLocation(program.getHandle(), "u_CameraUp");
+	}
+
+	//--Begin Batch--//
+	// D: start a batch. the camera uniforms are set once here, for all sprites until endBatch()
+	//    NOTE: the program MUST be in use!
+	// A: vpMatrix - view and projection matrix to use
+	//    cameraRight, cameraUp - world-space directions of the screen x and y axis (normalized)
+	// R: [none]
+	public void beginBatch(float[] vpMatrix, float[] cameraRight, float[] cameraUp)  {
+		numSprites = 0;                                 // Empty Sprite Counter
+		bufferIndex = 0;                                // Reset Buffer Index (Empty)
+		GLES20.glUniformMatrix4fv(mVPMatrixHandle, 1, false, vpMatrix, 0);
+		GLES20.glUniform3fv(mCameraRightHandle, 1, cameraRight, 0);
+		GLES20.glUniform3fv(mCameraUpHandle, 1, cameraUp, 0);
+	}
+
+	//--End Batch--//
+	// D: signal the end of a batch. render the batched sprites
+	// A: [none]
+	// R: [none]
+	public void endBatch()  {
+		if ( numSprites > 0 )  {                        // IF Any Sprites to Render
+			// bind anchor array to shader
+			GLES20.glUniform3fv(mAnchorsHandle, numSprites, uAnchors, 0);
+
+			vertices.setVertices( vertexBuffer, 0, bufferIndex);  // Set Vertices from Buffer
+			vertices.bind();                             // Bind Vertices
+			vertices.draw( GLES20.GL_TRIANGLES, 0, numSprites * INDICES_PER_SPRITE );  // Render Batched Sprites
+			vertices.unbind();                           // Unbind Vertices
+		}
+	}
+
+	//--Draw Sprite to Batch--//
+	// D: batch specified sprite to batch. adds vertices for sprite to vertex buffer
+	//    NOTE: MUST be called after beginBatch(), and before endBatch()!
+	//    NOTE: if the batch overflows, this will render the current batch, restart it,
+	//          and then batch this sprite.
+	// A: x, y - the x,y position of the sprite (center) in the plane of the label, relative to the anchor
+	//    width, height - the width and height of the sprite
+	//    region - the texture region to use for sprite
+	//    anchorX, anchorY, anchorZ - the world-space anchor of the label the sprite belongs to
+	// R: [none]
+	public void drawSprite(float x, float y, float width, float height, TextureRegion region, float anchorX, float anchorY, float anchorZ)  {
+		if ( numSprites == maxSprites )  {              // IF Sprite Buffer is Full
+			endBatch();                                  // End Batch
+			// NOTE: leave current texture bound!!
+			numSprites = 0;                              // Empty Sprite Counter
+			bufferIndex = 0;                             // Reset Buffer Index (Empty)
+		}
+
+		float halfWidth = width / 2.0f;                 // Calculate Half Width
+		float halfHeight = height / 2.0f;               // Calculate Half Height
+		float x1 = x - halfWidth;                       // Calculate Left X
+		float y1 = y - halfHeight;                      // Calculate Bottom Y
+		float x2 = x + halfWidth;                       // Calculate Right X
+		float y2 = y + halfHeight;                      // Calculate Top Y
+
+		vertexBuffer[bufferIndex++] = x1;               // Add X for Vertex 0
+		vertexBuffer[bufferIndex++] = y1;               // Add Y for Vertex 0
+		vertexBuffer[bufferIndex++] = region.u1;        // Add U for Vertex 0
+		vertexBuffer[bufferIndex++] = region.v2;        // Add V for Vertex 0
+		vertexBuffer[bufferIndex++] = numSprites;
+
+		vertexBuffer[bufferIndex++] = x2;               // Add X for Vertex 1
+		vertexBuffer[bufferIndex++] = y1;               // Add Y for Vertex 1
+		vertexBuffer[bufferIndex++] = region.u2;        // Add U for Vertex 1
+		vertexBuffer[bufferIndex++] = region.v2;        // Add V for Vertex 1
+		vertexBuffer[bufferIndex++] = numSprites;
+
+		vertexBuffer[bufferIndex++] = x2;               // Add X for Vertex 2
+		vertexBuffer[bufferIndex++] = y2;               // Add Y for Vertex 2
+		vertexBuffer[bufferIndex++] = region.u2;        // Add U for Vertex 2
+		vertexBuffer[bufferIndex++] = region.v1;        // Add V for Vertex 2
+		vertexBuffer[bufferIndex++] = numSprites;
+
+		vertexBuffer[bufferIndex++] = x1;               // Add X for Vertex 3
+		vertexBuffer[bufferIndex++] = y2;               // Add Y for Vertex 3
+		vertexBuffer[bufferIndex++] = region.u1;        // Add U for Vertex 3
+		vertexBuffer[bufferIndex++] = region.v1;        // Add V for Vertex 3
+		vertexBuffer[bufferIndex++] = numSprites;
+
+		// add the sprite anchor to uAnchors array
+		uAnchors[numSprites * ANCHOR_SIZE] = anchorX;
+		uAnchors[numSprites * ANCHOR_SIZE + 1] = anchorY;
+		uAnchors[numSprites * ANCHOR_SIZE + 2] = anchorZ;
+
+		numSprites++;                                   // Increment Sprite Count
+	}
+}
@@ -18,6 +18,7 @@ import android.opengl.GLES20;
 import android.opengl.Matrix;
 
 import com.android.texample2.programs.BatchTextProgram;
+import com.android.texample2.programs.BillboardTextProgram;
 import com.android.texample2.programs.Program;
 
 public class GLText {
@@ -66,6 +67,13 @@ public class GLText {
 	private int mColorHandle;						   // Shader color handle	
 	private int mTextureUniformHandle;                 // Shader texture handle
 
+	private Program mBillboardProgram;                 // BillboardTextProgram, created on first use
+	private BillboardBatch billboardBatch;             // Billboard Batch Renderer
+	private int mBillboardColorHandle;                 // Billboard shader color handle
+	private int mBillboardTextureUniformHandle;        // Billboard shader texture handle
+	private final float[] cameraRight = new float[3];  // World-space camera right vector of the current billboard batch
+	private final float[] cameraUp = new float[3];     // World-space camera up vector of the current billboard batch
+
 
 	//--Constructor--//
 	// D: save program + asset manager, create arrays, and initialize the members
@@ -252,19 +260,23 @@ public class GLText {
 	}
 	
 	void initDraw(float red, float green, float blue, float alpha) {
-		GLES20.glUseProgram(mProgram.getHandle()); // specify the program to use
+		initDraw(mProgram, mColorHandle, mTextureUniformHandle, red, green, blue, alpha);
+	}
+
+	void initDraw(Program program, int colorHandle, int textureUniformHandle, float red, float green, float blue, float alpha) {
+		GLES20.glUseProgram(program.getHandle()); // specify the program to use
 		
 		// set color TODO: only alpha component works, text is always black #BUG
 		float[] color = {red, green, blue, alpha}; 
-		GLES20.glUniform4fv(mColorHandle, 1, color , 0); 
-		GLES20.glEnableVertexAttribArray(mColorHandle);
+		GLES20.glUniform4fv(colorHandle, 1, color , 0); 
+		GLES20.glEnableVertexAttribArray(colorHandle);
 		
 		GLES20.glActiveTexture(GLES20.GL_TEXTURE0);  // Set the active texture unit to texture unit 0
 		
 		GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, textureId); // Bind the texture to this unit
 		
 		// Tell the texture uniform sampler to use this texture in the shader by binding to texture unit 0
-		GLES20.glUniform1i(mTextureUniformHandle, 0); 
+		GLES20.glUniform1i(textureUniformHandle, 0); 
 	}
 	
 	public void end()  {
@@ -347,6 +359,84 @@ public class GLText {
 		draw( text, x, y - ( getCharHeight() / 2.0f ) );  // Draw Text Centered (Y-Axis Only)
 	}
 
+	//--Begin/End Billboard Drawing--//
+	// D: call these methods before/after (respectively) all drawBillboard() calls using a text instance.
+	//    billboards always face the camera: the shader expands the glyphs along the camera right/up
+	//    vectors, which are taken from the view matrix once per batch. a moving camera therefore
+	//    costs no per-label work, and labels need no rotation angles.
+	//    NOTE: must not be mixed with draw() calls between begin() and end()!
+	// A: red, green, blue, alpha - RGBA values for font
+	//    vpMatrix - View and projection matrix to use
+	//    viewMatrix - View matrix the camera vectors are taken from
+	// R: [none]
+	public void beginBillboards(float[] vpMatrix, float[] viewMatrix)  {
+		beginBillboards( 1.0f, 1.0f, 1.0f, 1.0f, vpMatrix, viewMatrix );  // Begin with White Opaque
+	}
+	public void beginBillboards(float red, float green, float blue, float alpha, float[] vpMatrix, float[] viewMatrix)  {
+		if ( mBillboardProgram == null )  {             // IF Billboards Not Used Before
+			mBillboardProgram = new BillboardTextProgram();
+			mBillboardProgram.init();
+			billboardBatch = new BillboardBatch(CHAR_BATCH_SIZE, mBillboardProgram);
+			mBillboardColorHandle = GLES20.glGetUniformLocation(mBillboardProgram.getHandle(), "u_Color");
+			mBillboardTextureUniformHandle = GLES20.glGetUniformLocation(mBillboardProgram.getHandle(), "u_Texture");
+		}
+		initDraw(mBillboardProgram, mBillboardColorHandle, mBillboardTextureUniformHandle, red, green, blue, alpha);
+
+		// the rows of the view matrix rotation are the camera axes in world space
+		setNormalized(cameraRight, viewMatrix[0], viewMatrix[4], viewMatrix[8]);
+		setNormalized(cameraUp, viewMatrix[1], viewMatrix[5], viewMatrix[9]);
+		billboardBatch.beginBatch(vpMatrix, cameraRight, cameraUp);
+	}
+
+	private static void setNormalized(float[] v, float x, float y, float z)  {
+		float length = Matrix.length(x, y, z);
+		v[0] = x / length;
+		v[1] = y / length;
+		v[2] = z / length;
+	}
+
+	public void endBillboards()  {
+		billboardBatch.endBatch();                      // End Batch
+		GLES20.glDisableVertexAttribArray(mBillboardColorHandle);
+	}
+
+	//--Draw Billboard Text--//
+	// D: draw text facing the camera, with the bottom left of the text (including descent) at the anchor
+	//    NOTE: MUST be called between beginBillboards() and endBillboards()!
+	// A: text - the string to draw
+	//    x, y, z - the world-space anchor of the text
+	// R: [none]
+	public void drawBillboard(String text, float x, float y, float z)  {
+		drawBillboard(text, x, y, z, 0.0f, 0.0f);
+	}
+
+	//--Draw Billboard Text Centered--//
+	// D: draw text facing the camera, CENTERED at the anchor
+	// A: text - the string to draw
+	//    x, y, z - the world-space anchor of the text
+	// R: the total width of the text that was drawn
+	public float drawBillboardC(String text, float x, float y, float z)  {
+		float len = getLength( text );                  // Get Text Length
+		drawBillboard( text, x, y, z, -len / 2.0f, -getCharHeight() / 2.0f );  // Draw Text Centered
+		return len;                                     // Return Length
+	}
+
+	private void drawBillboard(String text, float x, float y, float z, float offsetX, float offsetY)  {
+		float chrHeight = cellHeight * scaleY;          // Calculate Scaled Character Height
+		float chrWidth = cellWidth * scaleX;            // Calculate Scaled Character Width
+		int len = text.length();                        // Get String Length
+		float letterX = offsetX + ( chrWidth / 2.0f ) - ( fontPadX * scaleX );  // Start X (in the Plane of the Text)
+		float letterY = offsetY + ( chrHeight / 2.0f ) - ( fontPadY * scaleY );  // Start Y (in the Plane of the Text)
+
+		for (int i = 0; i < len; i++)  {              // FOR Each Character in String
+			int c = (int)text.charAt(i) - CHAR_START;  // Calculate Character Index (Offset by First Char in Font)
+			if (c < 0 || c >= CHAR_CNT)                // IF Character Not In Font
+				c = CHAR_UNKNOWN;                         // Set to Unknown Character Index
+			billboardBatch.drawSprite(letterX, letterY, chrWidth, chrHeight, charRgn[c], x, y, z);  // Draw the Character
+			letterX += (charWidths[c] + spaceX ) * scaleX;    // Advance X Position by Scaled Character Width
+		}
+	}
+
 	//--Set Scale--//
 	// D: set the scaling to use for the font
 	// A: scale - uniform scale for both x and y axis scaling
@@ -64,6 +64,11 @@ public class Texample2Renderer implements GLSurfaceView.Renderer  {
 		glText.draw( "More Lines...", 50, 200 );        // Draw Test String
 		glText.draw( "The End.", 50, 200 + glText.getCharHeight(), 180);  // Draw Test String
 		glText.end();                                   // End Text Rendering
+
+		// TEST: render labels that always face the camera
+		glText.beginBillboards( 1.0f, 1.0f, 0.0f, 1.0f, mVPMatrix, mVMatrix );  // Begin Billboard Rendering (Set Color YELLOW)
+		glText.drawBillboardC( "Billboard", -100, -100, 0 );  // Draw Test Label
+		glText.endBillboards();                         // End Billboard Rendering
 	}
 
 	public void onSurfaceChanged(GL10 unused, int width, int height) { //		gl.glViewport( 0, 0, width, height ); 
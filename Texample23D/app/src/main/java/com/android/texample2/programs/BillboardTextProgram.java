@@ -0,0 +1,55 @@
+package com.android.texample2.programs;
+
+import com.android.texample2.AttribVariable;
+
+
+// Variant of BatchTextProgram that keeps text facing the camera (billboards).
+// Each sprite has a world-space anchor instead of an MVP matrix, and its quad is expanded
+// along the camera right/up vectors in the vertex shader, so moving the camera costs no
+// per-label work on the CPU.
+public class BillboardTextProgram extends Program {
+
+	private static final AttribVariable[] programVariables = {
+		AttribVariable.A_Position, AttribVariable.A_TexCoordinate, AttribVariable.A_AnchorIndex
+	};
+
+	private static final String vertexShaderCode =
+			"uniform mat4 u_VPMatrix;          \n"     // The view/projection matrix, shared by all sprites
+		  + "uniform vec3 u_CameraRight;       \n"     // World-space direction of the screen x axis
+		  + "uniform vec3 u_CameraUp;          \n"     // World-space direction of the screen y axis
+		  + "uniform vec3 u_Anchor[24];        \n"     // World-space anchor (bottom left of the label) of each sprite
+
+		  + "attribute float a_AnchorIndex; \n"	// The index of the anchor of the particular sprite
+		  + "attribute vec4 a_Position;     \n"     // Per-vertex position in the plane of the label
+		  + "attribute vec2 a_TexCoordinate;\n"     // Per-vertex texture coordinate information we will pass in
+		  + "varying vec2 v_TexCoordinate;  \n"   // This will be passed into the fragment shader.
+		  + "void main()                    \n"     // The entry point for our vertex shader.
+		  + "{                              \n"
+		  + "   int anchorIndex = int(a_AnchorIndex); \n"
+		  + "   v_TexCoordinate = a_TexCoordinate; \n"
+		  + "   vec3 position = u_Anchor[anchorIndex] \n"
+		  + "                 + u_CameraRight * a_Position.x \n"
+		  + "                 + u_CameraUp * a_Position.y; \n"
+		  + "   gl_Position = u_VPMatrix * vec4(position, 1.0); \n"
+		  + "}                              \n";
+
+
+	private static final String fragmentShaderCode =
+			"uniform sampler2D u_Texture;       \n"    // The input texture.
+			+	"precision mediump float;       \n"     // Set the default precision to medium. We don't need as high of a
+	        // precision in the fragment shader.
+			+ "uniform vec4 u_Color;          \n"
+			+ "varying vec2 v_TexCoordinate;  \n" // Interpolated texture coordinate per fragment.
+
+			+ "void main()                    \n"     // The entry point for our fragment shader.
+			+ "{                              \n"
+			+ "   gl_FragColor = texture2D(u_Texture, v_TexCoordinate).w * u_Color;\n" // texture is grayscale so take only grayscale value from
+																					   // it when computing color output (otherwise font is always black)
+			+ "}                             \n";
+
+	@Override
+	public void init() {
+		super.init(vertexShaderCode, fragmentShaderCode, programVariables);
+	}
+
+}